@@ -0,0 +1,67 @@
+package app;
+
+import models.*;
+
+import java.util.*;
+
+/**
+ * Buscas por varredura completa, como o ConsultasManager fazia antes dos índices.
+ * Servem de referência nos benchmarks e para conferir que os resultados não mudaram.
+ */
+public final class BuscaLinear {
+    private BuscaLinear() {
+    }
+
+    public static List<Curso> buscarCursos(List<Unidade> unidades, String searchTerm) {
+        List<Curso> matches = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                if (curso.nome.toLowerCase().contains(searchTerm.toLowerCase())) {
+                    matches.add(curso);
+                }
+            }
+        }
+        return matches;
+    }
+
+    public static Map<String, List<String>> buscarDisciplinas(List<Unidade> unidades, String searchTerm) {
+        Map<String, List<String>> disciplineMap = new HashMap<>();
+
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                List<Disciplina> allDisciplines = new ArrayList<>();
+                allDisciplines.addAll(curso.obrigatorias);
+                allDisciplines.addAll(curso.optativasEletivas);
+                allDisciplines.addAll(curso.optativasLivres);
+
+                for (Disciplina disciplina : allDisciplines) {
+                    if (disciplina.codigo.toLowerCase().contains(searchTerm.toLowerCase()) ||
+                        disciplina.nome.toLowerCase().contains(searchTerm.toLowerCase())) {
+
+                        String key = disciplina.codigo + " - " + disciplina.nome;
+                        disciplineMap.computeIfAbsent(key, k -> new ArrayList<>()).add(curso.nome);
+                    }
+                }
+            }
+        }
+        return disciplineMap;
+    }
+
+    /**
+     * Cursos que oferecem a disciplina com o código exato, percorrendo todos os cursos.
+     */
+    public static List<Curso> cursosComDisciplina(List<Unidade> unidades, String codigo) {
+        List<Curso> cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+                    if (lista.stream().anyMatch(d -> d.codigo.equalsIgnoreCase(codigo))) {
+                        cursos.add(curso);
+                        break;
+                    }
+                }
+            }
+        }
+        return cursos;
+    }
+}
@@ -0,0 +1,143 @@
+package app;
+
+import models.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga local do ServidorConsultas: sobe o servidor nesta JVM sobre o catálogo sintético
+ * (ou sobre um snapshot), e N clientes fazem requisições sem pausa durante o tempo pedido,
+ * misturando os seis endpoints. Mostra requisições por segundo e latências p50, p90, p99 e máxima.
+ * O primeiro quinto do tempo é aquecimento e não entra nas medidas.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=app.CargaServidor -Dexec.args="10 16 20"
+ *   (escala, clientes, segundos; --snapshot=arquivo usa um snapshot no lugar do catálogo sintético)
+ */
+public class CargaServidor {
+    public static void main(String[] args) throws Exception {
+        List<String> posicionais = new ArrayList<>();
+        String snapshot = null;
+        for (String arg : args) {
+            if (arg.startsWith("--snapshot=")) {
+                snapshot = arg.substring(11);
+            } else {
+                posicionais.add(arg);
+            }
+        }
+        int escala = posicionais.size() > 0 ? Integer.parseInt(posicionais.get(0)) : 1;
+        int clientes = posicionais.size() > 1 ? Integer.parseInt(posicionais.get(1)) : 8;
+        int segundos = posicionais.size() > 2 ? Integer.parseInt(posicionais.get(2)) : 10;
+
+        List<Unidade> unidades = snapshot != null ? SnapshotBinario.carregar(snapshot) : CatalogoSintetico.gerar(escala);
+        // Same as Main: without it every response waits for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ServidorConsultas servidor = new ServidorConsultas(new ConsultasManager(unidades));
+        servidor.iniciar(0);
+        String base = "http://localhost:" + servidor.porta();
+        List<URI> requisicoes = misturar(base, unidades, 1000);
+        System.out.printf("%s: %d clientes por %d s, servidor com %s\n",
+            snapshot != null ? snapshot : "escala " + escala, clientes, segundos, servidor.descricaoThreads());
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long inicioMedida = System.nanoTime() + segundos * 1_000_000_000L / 5;
+        long fim = System.nanoTime() + segundos * 1_000_000_000L;
+        AtomicLong falhas = new AtomicLong();
+        long[][] latencias = new long[clientes][];
+        int[] medidas = new int[clientes];
+
+        Thread[] threads = new Thread[clientes];
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            threads[c] = new Thread(() -> {
+                long[] proprias = new long[1 << 14];
+                int n = 0;
+                int proxima = cliente * 7919;
+                while (true) {
+                    long inicio = System.nanoTime();
+                    if (inicio >= fim) break;
+                    URI uri = requisicoes.get(proxima++ % requisicoes.size());
+                    try {
+                        HttpResponse<byte[]> resposta = client.send(HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.ofByteArray());
+                        // 404 is an expected answer for some generated names; only 5xx is a failure
+                        if (resposta.statusCode() >= 500) falhas.incrementAndGet();
+                    } catch (IOException e) {
+                        falhas.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (inicio < inicioMedida) continue;
+                    if (n == proprias.length) proprias = Arrays.copyOf(proprias, n * 2);
+                    proprias[n++] = System.nanoTime() - inicio;
+                }
+                latencias[cliente] = proprias;
+                medidas[cliente] = n;
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        servidor.parar();
+
+        int total = 0;
+        for (int n : medidas) total += n;
+        long[] todas = new long[total];
+        int pos = 0;
+        for (int c = 0; c < clientes; c++) {
+            System.arraycopy(latencias[c], 0, todas, pos, medidas[c]);
+            pos += medidas[c];
+        }
+        Arrays.sort(todas);
+        double segundosMedidos = segundos * 0.8;
+        System.out.printf("%d requisições medidas, %.0f req/s, %d falhas\n", total, total / segundosMedidos, falhas.get());
+        System.out.printf("Latência: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, máx %.2f ms\n",
+            percentil(todas, 50), percentil(todas, 90), percentil(todas, 99),
+            total > 0 ? todas[total - 1] / 1e6 : 0);
+    }
+
+    /**
+     * URLs dos seis endpoints, com nomes tirados do próprio catálogo.
+     */
+    private static List<URI> misturar(String base, List<Unidade> unidades, int quantidade) {
+        List<Curso> cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            cursos.addAll(unidade.cursos);
+        }
+        List<URI> uris = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Curso curso = cursos.get((int) ((long) i * 7919 % cursos.size()));
+            List<Disciplina> obrigatorias = curso.obrigatorias.isEmpty() ? curso.optativasLivres : curso.obrigatorias;
+            String disciplina = obrigatorias.isEmpty() ? curso.nome : obrigatorias.get(i % obrigatorias.size()).nome;
+            switch (i % 6) {
+                case 0: uris.add(URI.create(base + "/list-units")); break;
+                case 1: uris.add(uri(base, "/list-courses", curso.unidade)); break;
+                case 2: uris.add(uri(base, "/search-course", curso.nome.substring(0, Math.min(8, curso.nome.length())))); break;
+                case 3: uris.add(uri(base, "/search-discipline", disciplina)); break;
+                case 4: uris.add(uri(base, "/course-details", curso.nome)); break;
+                default: uris.add(uri(base, "/statistics", i % 12 == 5 ? "" : curso.unidade)); break;
+            }
+        }
+        return uris;
+    }
+
+    private static URI uri(String base, String caminho, String q) {
+        return URI.create(base + caminho + "?q=" + URLEncoder.encode(q, StandardCharsets.UTF_8));
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        int posto = (int) Math.ceil(p / 100.0 * ordenadas.length);
+        return ordenadas[Math.max(0, posto - 1)] / 1e6;
+    }
+}
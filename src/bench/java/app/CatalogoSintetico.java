@@ -0,0 +1,105 @@
+package app;
+
+import models.*;
+
+import java.util.*;
+
+/**
+ * CatalogoSintetico gera unidades, cursos e disciplinas com o tamanho aproximado do catálogo
+ * real da USP (escala 1) ou múltiplos dele, para os benchmarks de consulta e exportação.
+ *
+ * A geração é determinística: a mesma escala produz sempre os mesmos dados. Como no scraping,
+ * cada curso tem suas próprias instâncias de Disciplina e String, mesmo quando o código se repete.
+ */
+public final class CatalogoSintetico {
+    // Roughly what a full scrape of JupiterWeb returns
+    static final int UNIDADES = 42;
+    static final int CURSOS_POR_UNIDADE = 8;
+    static final int OBRIGATORIAS = 45;
+    static final int ELETIVAS = 20;
+    static final int LIVRES = 8;
+    static final int DISCIPLINAS_DISTINTAS = 6000;
+
+    private static final String[] TIPOS_UNIDADE = {
+        "Instituto de", "Faculdade de", "Escola de", "Centro de"
+    };
+    private static final String[] AREAS = {
+        "Matemática e Estatística", "Física", "Química", "Ciências Biomédicas", "Arquitetura e Urbanismo",
+        "Economia, Administração e Contabilidade", "Filosofia, Letras e Ciências Humanas", "Engenharia",
+        "Medicina", "Odontologia", "Educação Física e Esporte", "Comunicações e Artes", "Direito",
+        "Ciências Farmacêuticas", "Geociências", "Psicologia", "Saúde Pública", "Artes, Ciências e Humanidades"
+    };
+    private static final String[] CURSOS = {
+        "Bacharelado em Ciência da Computação", "Licenciatura em Matemática", "Engenharia Civil",
+        "Engenharia Elétrica - Ênfase em Computação", "Física Médica", "Química Ambiental", "Economia",
+        "Administração", "Letras - Português e Inglês", "Farmácia-Bioquímica", "Ciências Biológicas",
+        "Arquitetura e Urbanismo", "Direito", "Psicologia", "Geologia", "Educação Física"
+    };
+    private static final String[] TEMAS = {
+        "Introdução à Computação", "Cálculo Diferencial e Integral", "Álgebra Linear", "Estatística Aplicada",
+        "Estruturas de Dados", "Física Experimental", "Análise de Algoritmos", "Sistemas Operacionais",
+        "Química Orgânica", "Mecânica dos Sólidos", "Teoria Econômica", "Introdução à Filosofia",
+        "Biologia Celular", "História da Arquitetura", "Direito Constitucional", "Psicologia do Desenvolvimento",
+        "Laboratório de Programação", "Métodos Numéricos", "Língua Portuguesa", "Geometria Analítica"
+    };
+    private static final String[] SUFIXOS = {"I", "II", "III", "IV", "para Engenharia", "Avançada", "Aplicada"};
+
+    private CatalogoSintetico() {
+    }
+
+    public static List<Unidade> gerar(int escala) {
+        Random random = new Random(8275L * escala);
+
+        int distintas = DISCIPLINAS_DISTINTAS * escala;
+        String[] codigos = new String[distintas];
+        String[] nomes = new String[distintas];
+        int[][] cargas = new int[distintas][];
+        Set<String> usados = new HashSet<>();
+        for (int i = 0; i < distintas; i++) {
+            String codigo;
+            do {
+                codigo = "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                    + (char) ('A' + random.nextInt(26)) + String.format("%04d", random.nextInt(10000));
+            } while (!usados.add(codigo));
+            codigos[i] = codigo;
+            nomes[i] = TEMAS[random.nextInt(TEMAS.length)] + " " + SUFIXOS[random.nextInt(SUFIXOS.length)];
+            int aula = 2 * (1 + random.nextInt(3));
+            int trabalho = random.nextInt(3);
+            cargas[i] = new int[] {aula, trabalho, aula * 15 + trabalho * 30};
+        }
+
+        List<Unidade> unidades = new ArrayList<>();
+        for (int u = 0; u < UNIDADES * escala; u++) {
+            String nomeUnidade = TIPOS_UNIDADE[u % TIPOS_UNIDADE.length] + " " + AREAS[u % AREAS.length]
+                + (u >= AREAS.length ? " " + (u / AREAS.length + 1) : "");
+            Unidade unidade = new Unidade(nomeUnidade);
+            int cursos = CURSOS_POR_UNIDADE / 2 + random.nextInt(CURSOS_POR_UNIDADE + 1);
+            for (int c = 0; c < cursos; c++) {
+                Curso curso = new Curso(CURSOS[random.nextInt(CURSOS.length)] + " (" + (u + 1) + "." + (c + 1) + ")", nomeUnidade);
+                curso.duracaoIdeal = (8 + 2 * random.nextInt(3)) + " semestres";
+                curso.duracaoMin = curso.duracaoIdeal;
+                curso.duracaoMax = "12 semestres";
+                adicionar(curso.obrigatorias, OBRIGATORIAS, random, codigos, nomes, cargas);
+                adicionar(curso.optativasEletivas, ELETIVAS, random, codigos, nomes, cargas);
+                adicionar(curso.optativasLivres, LIVRES, random, codigos, nomes, cargas);
+                unidade.cursos.add(curso);
+            }
+            unidades.add(unidade);
+        }
+        return unidades;
+    }
+
+    private static void adicionar(List<Disciplina> destino, int media, Random random,
+                                  String[] codigos, String[] nomes, int[][] cargas) {
+        int quantidade = media / 2 + random.nextInt(media + 1);
+        for (int i = 0; i < quantidade; i++) {
+            int d = random.nextInt(codigos.length);
+            // Fresh copies with their own char data, as the parser creates a new String for every table cell
+            Disciplina disciplina = new Disciplina(new String(codigos[d].toCharArray()), new String(nomes[d].toCharArray()));
+            disciplina.creditosAula = cargas[d][0];
+            disciplina.creditosTrabalho = cargas[d][1];
+            disciplina.cargaHoraria = cargas[d][2];
+            destino.add(disciplina);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package app;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas numéricas sobre o catálogo inteiro feitas pelas colunas (ColunasDisciplinas) e pelo
+ * grafo de objetos (Unidade → Curso → listas → Disciplina): soma de créditos aula por curso,
+ * filtro de carga horária por faixa e ordenação de todas as ocorrências por carga horária.
+ * montarColunas mede a cópia para colunas, paga uma vez.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ColunasBenchmark {
+    @Param({"1", "10", "100"})
+    public int escala;
+
+    @Param({"60"})
+    public int cargaMinima;
+
+    @Param({"90"})
+    public int cargaMaxima;
+
+    private List<Unidade> unidades;
+    private ColunasDisciplinas colunas;
+    private int[] todas;
+
+    @Setup(Level.Trial)
+    public void gerarCatalogo() {
+        unidades = CatalogoSintetico.gerar(escala);
+        colunas = ColunasDisciplinas.montar(unidades);
+        todas = new int[colunas.totalOcorrencias()];
+        Arrays.setAll(todas, i -> i);
+    }
+
+    @Benchmark
+    public ColunasDisciplinas montarColunas() {
+        return ColunasDisciplinas.montar(unidades);
+    }
+
+    @Benchmark
+    public long[] somaPorCursoColunas() {
+        return colunas.somaPorCurso(colunas.creditosAula);
+    }
+
+    @Benchmark
+    public long[] somaPorCursoGrafo() {
+        int totalCursos = 0;
+        for (Unidade unidade : unidades) totalCursos += unidade.cursos.size();
+        long[] somas = new long[totalCursos];
+        int c = 0;
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                long soma = 0;
+                for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+                    for (Disciplina disciplina : lista) {
+                        soma += disciplina.creditosAula;
+                    }
+                }
+                somas[c++] = soma;
+            }
+        }
+        return somas;
+    }
+
+    @Benchmark
+    public int[] filtrarCargaColunas() {
+        return colunas.filtrar(colunas.cargaHoraria, cargaMinima, cargaMaxima);
+    }
+
+    @Benchmark
+    public List<Disciplina> filtrarCargaGrafo() {
+        List<Disciplina> encontradas = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+                    for (Disciplina disciplina : lista) {
+                        if (disciplina.cargaHoraria >= cargaMinima && disciplina.cargaHoraria <= cargaMaxima) {
+                            encontradas.add(disciplina);
+                        }
+                    }
+                }
+            }
+        }
+        return encontradas;
+    }
+
+    @Benchmark
+    public int[] ordenarCargaColunas() {
+        return colunas.ordenarDecrescente(colunas.cargaHoraria, todas);
+    }
+
+    @Benchmark
+    public List<Disciplina> ordenarCargaGrafo() {
+        List<Disciplina> ordenadas = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                ordenadas.addAll(curso.obrigatorias);
+                ordenadas.addAll(curso.optativasEletivas);
+                ordenadas.addAll(curso.optativasLivres);
+            }
+        }
+        ordenadas.sort(Comparator.comparingInt((Disciplina d) -> d.cargaHoraria).reversed());
+        return ordenadas;
+    }
+}
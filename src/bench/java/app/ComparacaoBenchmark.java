@@ -0,0 +1,91 @@
+package app;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparação de dois snapshots do catálogo sintético em que alguns cursos mudaram (os créditos de
+ * uma obrigatória). comparar é o ComparadorSnapshots, que só olha em detalhe os cursos com hash
+ * diferente; compararTudo carrega os dois catálogos inteiros e compara todos os cursos em
+ * detalhe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ComparacaoBenchmark {
+    @Param({"1", "10"})
+    public int escala;
+
+    @Param({"0", "10", "1000"})
+    public int mudancas;
+
+    private Path antigo;
+    private Path novo;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        List<Unidade> unidades = CatalogoSintetico.gerar(escala);
+        antigo = Files.createTempFile("bench-comparacao-antigo", ".snap");
+        SnapshotBinario.gravar(unidades, antigo.toString());
+
+        List<Curso> cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            cursos.addAll(unidade.cursos);
+        }
+        // The synthetic catalogue has one Disciplina instance per occurrence, so this changes one course only
+        int alterar = Math.min(mudancas, cursos.size());
+        for (int i = 0; i < alterar; i++) {
+            Curso curso = cursos.get((int) ((long) i * cursos.size() / alterar));
+            curso.obrigatorias.get(0).creditosAula += 2;
+        }
+        novo = Files.createTempFile("bench-comparacao-novo", ".snap");
+        SnapshotBinario.gravar(unidades, novo.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws IOException {
+        Files.deleteIfExists(antigo);
+        Files.deleteIfExists(novo);
+    }
+
+    @Benchmark
+    public ComparadorSnapshots.Relatorio comparar() throws IOException {
+        return ComparadorSnapshots.comparar(antigo.toString(), novo.toString());
+    }
+
+    @Benchmark
+    public List<ComparadorSnapshots.MudancaCurso> compararTudo() throws IOException {
+        List<Unidade> antes = SnapshotBinario.carregar(antigo.toString());
+        List<Unidade> depois = SnapshotBinario.carregar(novo.toString());
+        Map<String, Curso> porNome = new HashMap<>();
+        for (Unidade unidade : antes) {
+            for (Curso curso : unidade.cursos) {
+                porNome.put(unidade.nome + '\u0000' + curso.nome, curso);
+            }
+        }
+        ComparadorSnapshots comparador = new ComparadorSnapshots(true);
+        Map<String, Disciplina[]> disciplinas = new LinkedHashMap<>();
+        List<ComparadorSnapshots.MudancaCurso> alterados = new ArrayList<>();
+        for (Unidade unidade : depois) {
+            for (Curso curso : unidade.cursos) {
+                Curso anterior = porNome.get(unidade.nome + '\u0000' + curso.nome);
+                if (anterior == null) continue;
+                ComparadorSnapshots.MudancaCurso mudanca = comparador.compararCurso(unidade.nome, anterior, curso, disciplinas);
+                if (!mudanca.campos.isEmpty() || !mudanca.adicionadas.isEmpty() || !mudanca.removidas.isEmpty()
+                        || !mudanca.movidas.isEmpty() || !mudanca.entradas.isEmpty() || !mudanca.alteradas.isEmpty()) {
+                    alterados.add(mudanca);
+                }
+            }
+        }
+        return alterados;
+    }
+}
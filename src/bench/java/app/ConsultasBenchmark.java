@@ -0,0 +1,131 @@
+package app;
+
+import models.Curso;
+import models.Unidade;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência das consultas do modo interativo sobre o catálogo sintético em escala 1, 10 e 100.
+ * Nos comandos (searchDiscipline, searchCourse, statistics) a saída é descartada, mas a formatação
+ * continua sendo medida; os métodos buscar* medem só a consulta, com índice e por varredura,
+ * sugerir mede o autocomplete por prefixo e cursosComDisciplina a consulta por código exato.
+ * calcularEstatisticas* medem a passada completa do MotorEstatisticas, sequencial e com fork/join.
+ * Os comandos rodam sem o cache de resultados; as variantes *Cache repetem a consulta com ele ligado,
+ * então medem um acerto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConsultasBenchmark {
+    @Param({"1", "10", "100"})
+    public int escala;
+
+    @Param({"cálculo"})
+    public String termoDisciplina;
+
+    @Param({"computação"})
+    public String termoCurso;
+
+    @Param({"calc"})
+    public String prefixo;
+
+    private List<Unidade> unidades;
+    private ConsultasManager consultas;
+    private ConsultasManager consultasComCache;
+    private String codigo;
+    private final PrintStream descarte = new PrintStream(OutputStream.nullOutputStream());
+
+    @Setup(Level.Trial)
+    public void gerarCatalogo() {
+        unidades = CatalogoSintetico.gerar(escala);
+        consultas = new ConsultasManager(unidades, 0);
+        consultasComCache = new ConsultasManager(unidades);
+        // A code from the middle of the catalogue, so the scan does not stop early by luck
+        Unidade meio = unidades.get(unidades.size() / 2);
+        codigo = meio.cursos.get(0).obrigatorias.get(0).codigo;
+    }
+
+    @Benchmark
+    public void searchDiscipline() {
+        consultas.searchDisciplines(termoDisciplina, descarte);
+    }
+
+    @Benchmark
+    public void searchCourse() {
+        consultas.searchCourses(termoCurso, descarte);
+    }
+
+    @Benchmark
+    public void statistics() {
+        consultas.showStatistics("", descarte);
+    }
+
+    @Benchmark
+    public void searchDisciplineCache() {
+        consultasComCache.searchDisciplines(termoDisciplina, descarte);
+    }
+
+    @Benchmark
+    public void searchCourseCache() {
+        consultasComCache.searchCourses(termoCurso, descarte);
+    }
+
+    @Benchmark
+    public void statisticsCache() {
+        consultasComCache.showStatistics("", descarte);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> buscarDisciplinasIndice() {
+        return consultas.buscarDisciplinas(termoDisciplina);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> buscarDisciplinasLinear() {
+        return BuscaLinear.buscarDisciplinas(unidades, termoDisciplina);
+    }
+
+    @Benchmark
+    public List<Curso> buscarCursosIndice() {
+        return consultas.buscarCursos(termoCurso);
+    }
+
+    @Benchmark
+    public List<Curso> buscarCursosLinear() {
+        return BuscaLinear.buscarCursos(unidades, termoCurso);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> sugerir() {
+        return consultas.sugerir(prefixo, 10);
+    }
+
+    @Benchmark
+    public List<Curso> cursosComDisciplina() {
+        return consultas.cursosComDisciplina(codigo);
+    }
+
+    @Benchmark
+    public List<Curso> cursosComDisciplinaLinear() {
+        return BuscaLinear.cursosComDisciplina(unidades, codigo);
+    }
+
+    @Benchmark
+    public MotorEstatisticas calcularEstatisticas() {
+        return MotorEstatisticas.calcular(unidades, false);
+    }
+
+    @Benchmark
+    public MotorEstatisticas calcularEstatisticasParalelo() {
+        return MotorEstatisticas.calcular(unidades, true);
+    }
+}
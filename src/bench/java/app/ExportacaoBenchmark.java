@@ -0,0 +1,122 @@
+package app;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão da exportação JSON (ExportadorJson) e CSV (comando export) do catálogo sintético.
+ * Além de exportações por segundo, o contador "bytes" mostra quantos bytes por segundo são gravados
+ * e, no CSV, "linhas" quantas disciplinas por segundo. csvPrintf é a exportação CSV anterior ao
+ * ExportadorCsv (PrintWriter.printf linha a linha), mantida aqui para comparação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExportacaoBenchmark {
+    @Param({"1", "10", "100"})
+    public int escala;
+
+    private List<Unidade> unidades;
+    private ConsultasManager consultas;
+    private Path json;
+    private Path csv;
+    private Path csvGz;
+    private long totalLinhas;
+    private PrintStream saidaOriginal;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Gravado {
+        public long bytes;
+        public long linhas;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        unidades = CatalogoSintetico.gerar(escala);
+        consultas = new ConsultasManager(unidades);
+        json = Files.createTempFile("bench-export", ".json");
+        csv = Files.createTempFile("bench-export", ".csv");
+        csvGz = Files.createTempFile("bench-export", ".csv.gz");
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                totalLinhas += curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
+            }
+        }
+
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws IOException {
+        System.setOut(saidaOriginal);
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(csvGz);
+    }
+
+    @Benchmark
+    public void json(Gravado gravado) throws IOException {
+        ExportadorJson.exportar(unidades, json.toString());
+        gravado.bytes += Files.size(json);
+    }
+
+    @Benchmark
+    public void csv(Gravado gravado) throws IOException {
+        consultas.exportData(csv.toString());
+        gravado.bytes += Files.size(csv);
+        gravado.linhas += totalLinhas;
+    }
+
+    @Benchmark
+    public void csvGzip(Gravado gravado) throws IOException {
+        new ExportadorCsv(ExportadorCsv.COLUNAS_PADRAO, Runtime.getRuntime().availableProcessors())
+            .exportar(unidades, csvGz.toString());
+        gravado.bytes += Files.size(csvGz);
+        gravado.linhas += totalLinhas;
+    }
+
+    @Benchmark
+    public void csvPrintf(Gravado gravado) throws IOException {
+        try (PrintWriter writer = new PrintWriter(csv.toFile())) {
+            writer.println("Unidade,Curso,Tipo_Disciplina,Codigo,Nome,Creditos_Aula,Creditos_Trabalho,Horas");
+            for (Unidade unidade : unidades) {
+                for (Curso curso : unidade.cursos) {
+                    escreverPrintf(writer, unidade, curso, curso.obrigatorias, "Obrigatoria");
+                    escreverPrintf(writer, unidade, curso, curso.optativasEletivas, "Eletiva");
+                    escreverPrintf(writer, unidade, curso, curso.optativasLivres, "Optativa_Livre");
+                }
+            }
+        }
+        gravado.bytes += Files.size(csv);
+        gravado.linhas += totalLinhas;
+    }
+
+    private static void escreverPrintf(PrintWriter writer, Unidade unidade, Curso curso, List<Disciplina> disciplinas, String tipo) {
+        for (Disciplina d : disciplinas) {
+            writer.printf("%s,%s,%s,%s,%s,%d,%d,%d\n",
+                escaparPrintf(unidade.nome), escaparPrintf(curso.nome), tipo, escaparPrintf(d.codigo), escaparPrintf(d.nome),
+                d.creditosAula, d.creditosTrabalho, d.cargaHoraria);
+        }
+    }
+
+    private static String escaparPrintf(String valor) {
+        if (valor.contains(",") || valor.contains("\"")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
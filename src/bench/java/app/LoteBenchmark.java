@@ -0,0 +1,64 @@
+package app;
+
+import models.Curso;
+import models.Unidade;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de um lote de consultas (ConsultasEmLote) sobre o catálogo sintético, com uma thread e
+ * com várias: o lote mistura buscas por nome, detalhes de curso, códigos, autocomplete e
+ * estatísticas, como um relatório automático faria. Com 1 thread é a referência sequencial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoteBenchmark {
+    @Param({"1", "10"})
+    public int escala;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"1000"})
+    public int consultas;
+
+    private ConsultasEmLote lote;
+    private List<ConsultasEmLote.Comando> comandos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<Unidade> unidades = CatalogoSintetico.gerar(escala);
+        // Without the result cache: every invocation repeats the same lote, which would only hit it
+        lote = new ConsultasEmLote(new ConsultasManager(unidades, 0), threads);
+
+        List<Curso> cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            cursos.addAll(unidade.cursos);
+        }
+        comandos = new ArrayList<>(consultas);
+        for (int i = 0; i < consultas; i++) {
+            Curso curso = cursos.get((int) ((long) i * 7919 % cursos.size()));
+            String codigo = curso.obrigatorias.get(i % curso.obrigatorias.size()).codigo;
+            switch (i % 6) {
+                case 0: comandos.add(new ConsultasEmLote.Comando(i + 1, "search-course", curso.nome.substring(0, Math.min(8, curso.nome.length())))); break;
+                case 1: comandos.add(new ConsultasEmLote.Comando(i + 1, "search-discipline", codigo.substring(0, 5))); break;
+                case 2: comandos.add(new ConsultasEmLote.Comando(i + 1, "course-details", curso.nome)); break;
+                case 3: comandos.add(new ConsultasEmLote.Comando(i + 1, "discipline-code", codigo)); break;
+                case 4: comandos.add(new ConsultasEmLote.Comando(i + 1, "autocomplete", curso.nome.substring(0, 3))); break;
+                default: comandos.add(new ConsultasEmLote.Comando(i + 1, "statistics", curso.unidade)); break;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ConsultasEmLote.Resultado> executar() throws InterruptedException {
+        return lote.executar(comandos);
+    }
+}
@@ -0,0 +1,50 @@
+package app;
+
+import models.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+/**
+ * Mede o heap ocupado pelo catálogo sintético antes e depois de registrar os cursos
+ * no CatalogoDisciplinas.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=app.MemoriaCatalogo -Dexec.args="10"
+ */
+public class MemoriaCatalogo {
+    public static void main(String[] args) {
+        int escala = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+
+        long vazio = heapUsado();
+        List<Unidade> unidades = CatalogoSintetico.gerar(escala);
+        long antes = heapUsado() - vazio;
+
+        int ocorrencias = 0;
+        CatalogoDisciplinas catalogo = new CatalogoDisciplinas();
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                ocorrencias += curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
+            }
+            catalogo.registrar(unidade);
+        }
+        long depois = heapUsado() - vazio;
+
+        System.out.printf("Escala %d: %d ocorrências de disciplinas, %d códigos, %d instâncias\n",
+            escala, ocorrencias, catalogo.totalCodigos(), catalogo.totalInstancias());
+        System.out.printf("Heap sem catálogo: %.1f MB\n", antes / 1048576.0);
+        System.out.printf("Heap com catálogo: %.1f MB (índice por código incluído)\n", depois / 1048576.0);
+        System.out.printf("Redução: %.1f%%\n", 100.0 * (antes - depois) / antes);
+
+        // Keep both alive until after the last measurement
+        if (unidades.isEmpty() || catalogo.totalCodigos() < 0) System.out.println();
+    }
+
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
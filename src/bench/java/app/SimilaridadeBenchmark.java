@@ -0,0 +1,106 @@
+package app;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Similaridade de currículos pelo índice de SimilaridadeCursos e por laços aninhados sobre as
+ * listas de obrigatórias, comparando códigos: os cursos mais parecidos com um curso e os pares
+ * mais parecidos do catálogo inteiro. montarSimilaridade mede o dicionário de códigos e os
+ * conjuntos de cada curso, pagos uma vez.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SimilaridadeBenchmark {
+    @Param({"1", "10"})
+    public int escala;
+
+    @Param({"10"})
+    public int k;
+
+    private List<Unidade> unidades;
+    private List<Curso> cursos;
+    private SimilaridadeCursos similaridade;
+    private int curso;
+
+    @Setup(Level.Trial)
+    public void gerarCatalogo() {
+        unidades = CatalogoSintetico.gerar(escala);
+        cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            cursos.addAll(unidade.cursos);
+        }
+        similaridade = SimilaridadeCursos.montar(unidades);
+        curso = cursos.size() / 2;
+    }
+
+    @Benchmark
+    public SimilaridadeCursos montarSimilaridade() {
+        return SimilaridadeCursos.montar(unidades);
+    }
+
+    @Benchmark
+    public List<SimilaridadeCursos.Par> maisParecidosIndice() {
+        return similaridade.maisParecidos(curso, k);
+    }
+
+    @Benchmark
+    public List<SimilaridadeCursos.Par> maisParecidosLacos() {
+        PriorityQueue<SimilaridadeCursos.Par> melhores = new PriorityQueue<>(SimilaridadeCursos.Par.PIOR_PRIMEIRO);
+        for (int outro = 0; outro < cursos.size(); outro++) {
+            if (outro != curso) manter(melhores, comparar(curso, outro));
+        }
+        return new ArrayList<>(melhores);
+    }
+
+    @Benchmark
+    public List<SimilaridadeCursos.Par> paresIndice() {
+        return similaridade.paresMaisParecidos(k);
+    }
+
+    @Benchmark
+    public List<SimilaridadeCursos.Par> paresLacos() {
+        PriorityQueue<SimilaridadeCursos.Par> melhores = new PriorityQueue<>(SimilaridadeCursos.Par.PIOR_PRIMEIRO);
+        for (int a = 0; a < cursos.size(); a++) {
+            for (int b = a + 1; b < cursos.size(); b++) {
+                manter(melhores, comparar(a, b));
+            }
+        }
+        return new ArrayList<>(melhores);
+    }
+
+    private SimilaridadeCursos.Par comparar(int a, int b) {
+        List<Disciplina> obrigatoriasA = cursos.get(a).obrigatorias, obrigatoriasB = cursos.get(b).obrigatorias;
+        int comuns = 0;
+        for (Disciplina x : obrigatoriasA) {
+            for (Disciplina y : obrigatoriasB) {
+                if (x.codigo != null && x.codigo.equals(y.codigo)) {
+                    comuns++;
+                    break;
+                }
+            }
+        }
+        if (comuns == 0) return null;
+        int tamanhoA = obrigatoriasA.size(), tamanhoB = obrigatoriasB.size();
+        return new SimilaridadeCursos.Par(a, b, comuns, tamanhoA + tamanhoB - comuns, Math.min(tamanhoA, tamanhoB));
+    }
+
+    private void manter(PriorityQueue<SimilaridadeCursos.Par> melhores, SimilaridadeCursos.Par par) {
+        if (par == null) return;
+        if (melhores.size() < k) {
+            melhores.add(par);
+        } else if (SimilaridadeCursos.Par.PIOR_PRIMEIRO.compare(par, melhores.peek()) > 0) {
+            melhores.poll();
+            melhores.add(par);
+        }
+    }
+}
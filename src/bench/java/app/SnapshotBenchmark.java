@@ -0,0 +1,63 @@
+package app;
+
+import models.Unidade;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo para gravar e para carregar o snapshot binário (SnapshotBinario) do catálogo sintético,
+ * e para carregar o mesmo catálogo do JSON exportado (CarregadorJson). carregar e carregarJson
+ * são o que os modos --snapshot e --load pagam antes de montar os índices de consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+    @Param({"1", "10", "100"})
+    public int escala;
+
+    private List<Unidade> unidades;
+    private Path snapshot;
+    private Path gravado;
+    private Path json;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        unidades = CatalogoSintetico.gerar(escala);
+        snapshot = Files.createTempFile("bench-snapshot", ".snap");
+        gravado = Files.createTempFile("bench-snapshot-gravar", ".snap");
+        SnapshotBinario.gravar(unidades, snapshot.toString());
+        json = Files.createTempFile("bench-snapshot", ".json");
+        ExportadorJson.exportar(unidades, json.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(gravado);
+        Files.deleteIfExists(json);
+    }
+
+    @Benchmark
+    public List<Unidade> carregar() throws IOException {
+        return SnapshotBinario.carregar(snapshot.toString());
+    }
+
+    @Benchmark
+    public void gravar() throws IOException {
+        SnapshotBinario.gravar(unidades, gravado.toString());
+    }
+
+    @Benchmark
+    public List<Unidade> carregarJson() throws IOException {
+        return CarregadorJson.carregar(json.toString());
+    }
+}
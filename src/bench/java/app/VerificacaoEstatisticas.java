@@ -0,0 +1,131 @@
+package app;
+
+import models.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Confere a atualização incremental do ConsultasManager: um catálogo sintético montado com
+ * metade das unidades e metade dos cursos de cada uma, e completado depois com
+ * {@link ConsultasManager#adicionarCurso}, deve responder statistics (total, por unidade e por
+ * curso), list-units, list-courses, course-details, discipline-code e workload exatamente como
+ * um ConsultasManager criado com o catálogo completo (em discipline-code, fora a ordem dos
+ * cursos: os acrescentados aparecem depois dos que já existiam). As consultas também são feitas antes de
+ * completar o catálogo, para que o cache de resultados precise ser invalidado, e continuam
+ * rodando em outra thread enquanto os cursos são acrescentados. As unidades passadas ao
+ * ConsultasManager não podem mudar.
+ * Falha com exceção na primeira diferença; mvn -Pbench test roda esta classe.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=app.VerificacaoEstatisticas [-Dexec.args="escala"]
+ */
+public class VerificacaoEstatisticas {
+    public static void main(String[] args) throws InterruptedException {
+        int escala = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+
+        // Same seed, so both catalogues hold the same data in separate instances
+        List<Unidade> completo = CatalogoSintetico.gerar(escala);
+        List<Unidade> parcial = CatalogoSintetico.gerar(escala);
+
+        List<Unidade> iniciais = new ArrayList<>();
+        Map<Unidade, List<Curso>> pendentes = new LinkedHashMap<>();
+        for (int u = 0; u < parcial.size(); u++) {
+            Unidade unidade = parcial.get(u);
+            int ficam = u < parcial.size() / 2 ? unidade.cursos.size() / 2 : 0;
+            pendentes.put(unidade, new ArrayList<>(unidade.cursos.subList(ficam, unidade.cursos.size())));
+            unidade.cursos.subList(ficam, unidade.cursos.size()).clear();
+            if (ficam > 0) {
+                iniciais.add(unidade);
+            }
+        }
+
+        int cursosIniciais = iniciais.stream().mapToInt(unidade -> unidade.cursos.size()).sum();
+        int cursosParcial = parcial.stream().mapToInt(unidade -> unidade.cursos.size()).sum();
+        ConsultasManager referencia = new ConsultasManager(completo);
+        ConsultasManager incremental = new ConsultasManager(iniciais);
+        List<String[]> consultas = consultas(completo);
+        for (String[] consulta : consultas) {
+            executar(incremental, consulta);
+        }
+
+        // Queries keep running while courses are added; any failure is reported afterwards
+        List<Throwable> falhas = Collections.synchronizedList(new ArrayList<>());
+        Thread leitora = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (String[] consulta : consultas) {
+                        executar(incremental, consulta);
+                    }
+                }
+            } catch (Throwable t) {
+                falhas.add(t);
+            }
+        });
+        leitora.start();
+        int adicionados = 0;
+        for (Map.Entry<Unidade, List<Curso>> entrada : pendentes.entrySet()) {
+            for (Curso curso : entrada.getValue()) {
+                incremental.adicionarCurso(entrada.getKey(), curso);
+                adicionados++;
+            }
+        }
+        leitora.interrupt();
+        leitora.join();
+        if (!falhas.isEmpty()) {
+            throw new IllegalStateException("Consulta falhou enquanto cursos eram acrescentados", falhas.get(0));
+        }
+        if (parcial.stream().mapToInt(unidade -> unidade.cursos.size()).sum() != cursosParcial) {
+            throw new IllegalStateException("adicionarCurso alterou as unidades recebidas");
+        }
+
+        for (String[] consulta : consultas) {
+            String esperado = executar(referencia, consulta);
+            String obtido = executar(incremental, consulta);
+            if (consulta[0].equals("discipline-code")) {
+                esperado = linhasOrdenadas(esperado);
+                obtido = linhasOrdenadas(obtido);
+            }
+            if (!esperado.equals(obtido)) {
+                throw new IllegalStateException("Resultado incremental difere do cálculo completo em "
+                    + consulta[0] + " '" + consulta[1] + "'\n--- completo ---\n" + esperado + "--- incremental ---\n" + obtido);
+            }
+        }
+        System.out.printf("Estatísticas incrementais conferem: %d cursos adicionados a %d, %d consultas iguais ao cálculo completo\n",
+            adicionados, cursosIniciais, consultas.size());
+    }
+
+    private static List<String[]> consultas(List<Unidade> unidades) {
+        List<String[]> consultas = new ArrayList<>();
+        consultas.add(new String[] {"statistics", ""});
+        consultas.add(new String[] {"list-units", ""});
+        consultas.add(new String[] {"list-courses", ""});
+        consultas.add(new String[] {"workload", ""});
+        consultas.add(new String[] {"workload", "60-90"});
+        for (Unidade unidade : unidades) {
+            consultas.add(new String[] {"statistics", unidade.nome});
+            consultas.add(new String[] {"list-courses", unidade.nome});
+            for (Curso curso : unidade.cursos) {
+                consultas.add(new String[] {"statistics", curso.nome});
+                consultas.add(new String[] {"course-details", curso.nome});
+            }
+            Curso primeiro = unidade.cursos.get(0);
+            consultas.add(new String[] {"discipline-code", primeiro.obrigatorias.get(0).codigo});
+        }
+        return consultas;
+    }
+
+    private static String linhasOrdenadas(String texto) {
+        String[] linhas = texto.split("\n");
+        Arrays.sort(linhas);
+        return String.join("\n", linhas) + "\n";
+    }
+
+    private static String executar(ConsultasManager consultas, String[] consulta) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        consultas.consultar(consulta[0], consulta[1], out);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package scraper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Gera um diretório de páginas no formato que o ServidorJupiterLocal serve: a página inicial com
+ * N unidades, a lista de cursos de cada uma e a grade curricular de cada curso. Serve para medir
+ * o scraper com mais unidades e cursos do que há nas gravações, sem acessar a USP; as grades
+ * são pequenas e iguais entre si, fora o nome e uma disciplina própria de cada curso.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=scraper.GravacoesSinteticas -Dexec.args="gravacoes-8x15 8 15"
+ */
+public class GravacoesSinteticas {
+    public static void main(String[] args) throws IOException {
+        Path diretorio = Paths.get(args.length > 0 ? args[0] : "gravacoes-sinteticas");
+        int unidades = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int cursos = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        gerar(diretorio, unidades, cursos);
+        System.out.printf("%d unidades e %d cursos gravados em %s\n", unidades, unidades * cursos, diretorio.toAbsolutePath());
+    }
+
+    public static void gerar(Path diretorio, int unidades, int cursos) throws IOException {
+        Files.createDirectories(diretorio);
+        StringBuilder inicial = new StringBuilder("<html><head><meta charset=\"utf-8\"><title>JupiterWeb</title></head><body>\n")
+            .append("<select id=\"comboUnidade\"><option value=\"\"></option>\n");
+        for (int u = 0; u < unidades; u++) {
+            int codcg = 10 + u;
+            inicial.append("<option value=\"").append(codcg).append("\">Unidade ").append(u)
+                .append(" - ( U").append(u).append(" )</option>\n");
+
+            StringBuilder lista = new StringBuilder("<html><head><meta charset=\"utf-8\"></head><body>\n");
+            for (int c = 0; c < cursos; c++) {
+                int codcur = codcg * 1000 + c;
+                String nome = "Curso " + c + " da unidade " + u;
+                String query = "codcg=" + codcg + "&codcur=" + codcur + "&codhab=1&tipo=N";
+                lista.append("<a href=\"listarGradeCurricular?").append(query.replace("&", "&amp;")).append("\">")
+                    .append(nome).append("</a>\n");
+                gravar(diretorio, "listarGradeCurricular_" + query.replace('&', '_') + ".html", grade(nome, codcur));
+            }
+            lista.append("</body></html>\n");
+            gravar(diretorio, "jupCursoLista_codcg=" + codcg + "_tipo=N.html", lista.toString());
+        }
+        inicial.append("</select></body></html>\n");
+        gravar(diretorio, "jupCarreira_codmnu=8275.html", inicial.toString());
+    }
+
+    private static String grade(String nome, int codcur) {
+        return "<html><head><meta charset=\"utf-8\"><title>Grade</title></head><body>\n"
+            + "<div>Curso: " + nome + "</div>\n"
+            + "<table><tr><td>Duração Ideal: 8 semestres</td><td>Mínima: 8 semestres</td><td>Máxima: 12 semestres</td></tr></table>\n"
+            + tabela("Disciplinas Obrigatórias",
+                linha("MAC0110", "Introdução à Computação", 4, 0, 60)
+                + linha("MAT2453", "Cálculo Diferencial e Integral I", 6, 0, 90)
+                + linha(String.format("SIN%04d", codcur % 10000), "Disciplina própria do " + nome, 4, 1, 90))
+            + tabela("Disciplinas Optativas Eletivas", linha("MAC0316", "Conceitos Fundamentais de Linguagens", 4, 0, 60))
+            + tabela("Disciplinas Optativas Livres", linha("FLF0113", "Introdução à Filosofia", 4, 0, 60))
+            + "</body></html>\n";
+    }
+
+    private static String tabela(String titulo, String linhas) {
+        return "<table>\n<tr><td colspan=5>" + titulo + "</td></tr>\n"
+            + "<tr><td>Código</td><td>Nome</td><td>Créd. Aula</td><td>Créd. Trab.</td><td>CH</td></tr>\n"
+            + linhas + "</table>\n";
+    }
+
+    private static String linha(String codigo, String nome, int aula, int trabalho, int carga) {
+        return "<tr><td>" + codigo + "</td><td>" + nome + "</td><td>" + aula + "</td><td>" + trabalho
+            + "</td><td>" + carga + "</td></tr>\n";
+    }
+
+    private static void gravar(Path diretorio, String nome, String html) throws IOException {
+        Files.write(diretorio.resolve(nome), html.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package scraper;
+
+import models.Curso;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tempo de análise de uma grade curricular, por curso, sobre páginas HTML gravadas.
+ *
+ * Por padrão usa as páginas de src/bench/fixtures; para medir com páginas reais gravadas pelo
+ * ServidorJupiterLocal, passe o diretório: -Djmh.args="ParseCurso -p fixtures=gravacoes".
+ * Cada chamada analisa uma página, alternando entre todas as encontradas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseCursoBenchmark {
+    @Param({"src/bench/fixtures"})
+    public String fixtures;
+
+    private List<String> paginas;
+    private List<Document> documentos;
+    private List<String> nomes;
+    private int proxima;
+    private PrintStream saidaOriginal;
+
+    @Setup(Level.Trial)
+    public void carregarPaginas() throws IOException {
+        paginas = new ArrayList<>();
+        documentos = new ArrayList<>();
+        nomes = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(Paths.get(fixtures))) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted()::iterator) {
+                String nome = arquivo.getFileName().toString();
+                // Only curriculum pages; the recordings directory also holds unit and course lists
+                if (!nome.endsWith(".html") || !(nome.startsWith("listarGradeCurricular") || nome.startsWith("grade"))) {
+                    continue;
+                }
+                String html = new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8);
+                paginas.add(html);
+                documentos.add(Jsoup.parse(html));
+                nomes.add(nome);
+            }
+        }
+        if (paginas.isEmpty()) {
+            throw new IllegalStateException("Nenhuma página de grade curricular em " + fixtures);
+        }
+
+        // The extractor logs every course; keep that out of the measurement
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarSaida() {
+        System.setOut(saidaOriginal);
+    }
+
+    private int proximaPagina() {
+        int i = proxima;
+        proxima = (proxima + 1) % paginas.size();
+        return i;
+    }
+
+    /** HTML recebido até o Curso pronto, como em Scraper.processCourse. */
+    @Benchmark
+    public Curso htmlParaCurso() {
+        int i = proximaPagina();
+        return ExtratorCurso.extrair(Jsoup.parse(paginas.get(i)), nomes.get(i), "Unidade");
+    }
+
+    /** Só a extração de durações e disciplinas, sobre o documento já montado pelo JSoup. */
+    @Benchmark
+    public Curso extracao() {
+        int i = proximaPagina();
+        return ExtratorCurso.extrair(documentos.get(i), nomes.get(i), "Unidade");
+    }
+}
@@ -0,0 +1,159 @@
+package scraper;
+
+import models.*;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.util.List;
+
+/**
+ * O parser de grade curricular anterior ao ExtratorCurso, mantido como referência: monta
+ * doc.text() e faz select("table")/select("tr") em cada tabela. Só o VerificacaoExtrator o usa.
+ */
+final class ParserCursoAnterior {
+    private ParserCursoAnterior() {
+    }
+
+    static Curso parseCurso(Document doc, String nomeCurso, String nomeUnidade) {
+        Curso curso = new Curso(nomeCurso, nomeUnidade);
+        
+        System.out.println("Analisando curso: " + nomeCurso);
+        
+        // Extract course duration from the text content
+        String pageText = doc.text();
+        if (pageText.contains("Duração Ideal:")) {
+            try {
+                String[] parts = pageText.split("Duração Ideal:");
+                if (parts.length > 1) {
+                    String afterIdeal = parts[1].split("Mínima:")[0].trim();
+                    curso.duracaoIdeal = afterIdeal.split("\\s+")[0] + " " + afterIdeal.split("\\s+")[1]; // e.g., "8 semestres"
+                }
+            } catch (Exception e) {
+                System.out.println("Error parsing duração ideal: " + e.getMessage());
+            }
+        }
+        
+        if (pageText.contains("Mínima:")) {
+            try {
+                String[] parts = pageText.split("Mínima:");
+                if (parts.length > 1) {
+                    String afterMin = parts[1].split("Máxima:")[0].trim();
+                    curso.duracaoMin = afterMin.split("\\s+")[0] + " " + afterMin.split("\\s+")[1];
+                }
+            } catch (Exception e) {
+                System.out.println("Erro analisando duração mínima: " + e.getMessage());
+            }
+        }
+        
+        if (pageText.contains("Máxima:")) {
+            try {
+                String[] parts = pageText.split("Máxima:");
+                if (parts.length > 1) {
+                    String afterMax = parts[1].split("\\s+")[2] + " " + parts[1].split("\\s+")[3]; // Skip first words
+                    curso.duracaoMax = afterMax;
+                }
+            } catch (Exception e) {
+                System.out.println("Erro analisando duração máxima: " + e.getMessage());
+            }
+        }
+        
+        System.out.println("Durações do curso extraídas com sucesso");
+
+        // Look for discipline tables with specific structure
+        Elements allTables = doc.select("table");
+        for (int i = 0; i < allTables.size(); i++) {
+            Element table = allTables.get(i);
+            Elements rows = table.select("tr");
+            
+            if (rows.size() < 3) continue; // Need at least title, header, and data rows
+            
+            String firstRowText = rows.get(0).text();
+            
+            List<Disciplina> targetList = null;
+            String categoryName = "";
+            
+            if (firstRowText.contains("Disciplinas Obrigatórias")) {
+                targetList = curso.obrigatorias;
+                categoryName = "OBRIGATÓRIAS";
+            } else if (firstRowText.contains("Disciplinas Optativas Eletivas")) {
+                targetList = curso.optativasEletivas;
+                categoryName = "ELETIVAS";
+            } else if (firstRowText.contains("Disciplinas Optativas Livres")) {
+                targetList = curso.optativasLivres;
+                categoryName = "OPTATIVAS_LIVRES";
+            }
+            
+            if (targetList != null) {
+                System.out.println("Processando disciplinas " + categoryName + "...");
+                
+                // Check if second row looks like a header
+                boolean hasHeader = false;
+                if (rows.size() > 1) {
+                    String secondRowText = rows.get(1).text().toLowerCase();
+                    if (secondRowText.contains("créd") || secondRowText.contains("semestre") || 
+                        secondRowText.contains("aula") || secondRowText.contains("trabalho")) {
+                        hasHeader = true;
+                    }
+                }
+                
+                int startRow = hasHeader ? 2 : 1; // Skip title and potentially header
+                
+                for (int rowIndex = startRow; rowIndex < rows.size(); rowIndex++) {
+                    try {
+                        Elements cols = rows.get(rowIndex).select("td");
+                        
+                        if (cols.size() < 2) {
+                            continue; // Skip rows with insufficient columns
+                        }
+                        
+                        String codigo = cols.get(0).text().trim();
+                        String nome = cols.get(1).text().trim();
+                        
+                        if (!codigo.isEmpty() && !nome.isEmpty() && 
+                            !codigo.toLowerCase().contains("créd") && 
+                            !nome.toLowerCase().contains("créd")) {
+                            
+                            // Try to extract additional fields if available
+                            int creditosAula = 0, creditosTrabalho = 0, cargaHoraria = 0;
+                            
+                            try {
+                                if (cols.size() > 2) creditosAula = parseIntSafely(cols.get(2).text());
+                                if (cols.size() > 3) creditosTrabalho = parseIntSafely(cols.get(3).text());
+                                if (cols.size() > 4) cargaHoraria = parseIntSafely(cols.get(4).text());
+                            } catch (Exception e) {
+                                // Silently continue if additional fields can't be parsed
+                            }
+                            
+                            Disciplina disciplina = new Disciplina(codigo, nome);
+                            disciplina.creditosAula = creditosAula;
+                            disciplina.creditosTrabalho = creditosTrabalho;
+                            disciplina.cargaHoraria = cargaHoraria;
+                            
+                            targetList.add(disciplina);
+                        }
+                        
+                    } catch (Exception e) {
+                        // Continue processing other rows if one fails
+                        continue;
+                    }
+                }
+                
+                System.out.println("Encontradas " + targetList.size() + " disciplinas " + categoryName.toLowerCase());
+            }
+        }
+        
+        System.out.println("Curso analisado com sucesso - Total de disciplinas: " + 
+                          (curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size()));
+        
+        return curso;
+    }
+    
+    private static int parseIntSafely(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package scraper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ServidorJupiterLocal serve respostas gravadas do JupiterWeb para testar o scraper sem acessar a USP.
+ * Cada requisição é atendida pelo arquivo gravacoes/&lt;pagina&gt;_&lt;query&gt;.html. Com --origem=URL,
+ * páginas ausentes são buscadas no servidor real e gravadas para as próximas execuções.
+ *
+ * Para testar o ritmo, as retentativas e o disjuntor do scraper, o servidor também simula um
+ * JupiterWeb com problemas:
+ * --latencia=ms soma uma espera a cada resposta, que cresce com as requisições simultâneas;
+ * --contencao=fração é quanto da latência cada requisição simultânea acrescenta (padrão 0.5;
+ *   com 0 a latência é fixa, como um servidor que não satura);
+ * --capacidade=N recusa com 503 o que passar de N requisições simultâneas;
+ * --erros=fração responde 503 a essa fração das requisições, ao acaso;
+ * --falhar=trecho responde 500 a toda requisição cujo endereço contém o trecho (uma unidade quebrada).
+ *
+ * Uso: mvn -Pbench compile exec:java -Dexec.mainClass=scraper.ServidorJupiterLocal
+ *      -Dexec.args="8080 gravacoes --origem=https://uspdigital.usp.br"
+ */
+public class ServidorJupiterLocal {
+    private final Path diretorio;
+    private final String origem;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private HttpServer http;
+    private ExecutorService executor;
+    private long latenciaMs;
+    private double contencao = 0.5;
+    private int capacidade = Integer.MAX_VALUE;
+    private double erros;
+    private String falhar;
+
+    public ServidorJupiterLocal(Path diretorio, String origem) {
+        this.diretorio = diretorio;
+        this.origem = origem;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Path diretorio = Paths.get(args.length > 1 ? args[1] : "gravacoes");
+        String origem = null;
+        for (String arg : args) {
+            if (arg.startsWith("--origem=")) {
+                origem = arg.substring(9);
+            }
+        }
+
+        ServidorJupiterLocal servidor = new ServidorJupiterLocal(diretorio, origem);
+        for (String arg : args) {
+            if (arg.startsWith("--latencia=")) {
+                servidor.latenciaMs = Long.parseLong(arg.substring(11));
+            } else if (arg.startsWith("--contencao=")) {
+                servidor.contencao = Double.parseDouble(arg.substring(12));
+            } else if (arg.startsWith("--capacidade=")) {
+                servidor.capacidade = Integer.parseInt(arg.substring(13));
+            } else if (arg.startsWith("--erros=")) {
+                servidor.erros = Double.parseDouble(arg.substring(8));
+            } else if (arg.startsWith("--falhar=")) {
+                servidor.falhar = arg.substring(9);
+            }
+        }
+        HttpServer http = servidor.iniciar(porta);
+        System.out.println("Servindo " + diretorio.toAbsolutePath() + " em http://localhost:" + http.getAddress().getPort()
+            + "/jupiterweb/jupCarreira.jsp?codmnu=8275");
+    }
+
+    public HttpServer iniciar(int porta) throws IOException {
+        Files.createDirectories(diretorio);
+        http = HttpServer.create(new InetSocketAddress(porta), 0);
+        http.createContext("/", this::atender);
+        executor = Executors.newCachedThreadPool();
+        http.setExecutor(executor);
+        http.start();
+        return http;
+    }
+
+    public void parar() {
+        http.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void atender(HttpExchange exchange) throws IOException {
+        int simultaneas = emAndamento.incrementAndGet();
+        try {
+            URI uri = exchange.getRequestURI();
+            if (simultaneas > capacidade) {
+                responder(exchange, 503, "Servidor sobrecarregado".getBytes("UTF-8"));
+                return;
+            }
+            if (latenciaMs > 0) {
+                // Each request already in progress slows this one down a little more
+                Thread.sleep(latenciaMs + (long) (latenciaMs * contencao * (simultaneas - 1)));
+            }
+            if (falhar != null && uri.toString().contains(falhar)) {
+                responder(exchange, 500, "Erro simulado".getBytes("UTF-8"));
+                return;
+            }
+            if (erros > 0 && ThreadLocalRandom.current().nextDouble() < erros) {
+                responder(exchange, 503, "Erro simulado".getBytes("UTF-8"));
+                return;
+            }
+            Path arquivo = diretorio.resolve(nomeArquivo(uri));
+            if (!Files.exists(arquivo) && origem != null) {
+                gravar(uri, arquivo);
+            }
+            if (!Files.exists(arquivo)) {
+                responder(exchange, 404, ("Não gravado: " + uri).getBytes("UTF-8"));
+                return;
+            }
+            responder(exchange, 200, Files.readAllBytes(arquivo));
+        } catch (Exception e) {
+            responder(exchange, 500, String.valueOf(e.getMessage()).getBytes("UTF-8"));
+        } finally {
+            emAndamento.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void gravar(URI uri, Path arquivo) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(origem + uri)).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 200) {
+            Files.write(arquivo, response.body());
+            System.out.println("Gravado: " + arquivo.getFileName());
+        }
+    }
+
+    private static void responder(HttpExchange exchange, int status, byte[] corpo) throws IOException {
+        // Recorded pages keep their own <meta charset>, so no charset is forced here
+        exchange.getResponseHeaders().set("Content-Type", "text/html");
+        exchange.sendResponseHeaders(status, corpo.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+
+    static String nomeArquivo(URI uri) {
+        String path = uri.getPath();
+        String pagina = path.substring(path.lastIndexOf('/') + 1).replace(".jsp", "");
+        if (pagina.isEmpty()) {
+            pagina = "index";
+        }
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            pagina += "_" + query.replaceAll("[^A-Za-z0-9=]", "_");
+        }
+        return pagina + ".html";
+    }
+}
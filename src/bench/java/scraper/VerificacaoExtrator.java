@@ -0,0 +1,211 @@
+package scraper;
+
+import models.*;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Confere o ExtratorCurso de duas formas:
+ * - cada grade*.html de src/bench/fixtures deve produzir o conteúdo do seu arquivo .esperado.txt;
+ * - o extrator e o parser anterior (ParserCursoAnterior) devem dar o mesmo Curso nas fixtures e
+ *   em páginas geradas ao acaso, com durações em posições e elementos variados, espaços, &lt;br&gt;,
+ *   &lt;pre&gt;, tabelas aninhadas e linhas incompletas.
+ * Falha com exceção na primeira diferença, então também serve como verificação do build:
+ * mvn -Pbench test roda esta classe.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=scraper.VerificacaoExtrator [-Dexec.args="50000"]
+ * Com -Dexec.args="--gravar" os arquivos .esperado.txt são regravados a partir do extrator atual.
+ */
+public class VerificacaoExtrator {
+    private static final Path FIXTURES = Paths.get("src/bench/fixtures");
+    private static final String[] PALAVRAS = {"8", "10", "12", "semestres", "anos", "Duração", "Ideal:",
+        "Mínima:", "Máxima:", "créditos", "Créd.", "Aula", "Trab.", "CH", "Semestre", "-", "MAC0110", "Cálculo"};
+
+    public static void main(String[] args) throws IOException {
+        boolean gravar = args.length > 0 && args[0].equals("--gravar");
+        int paginas = args.length > 0 && !gravar ? Integer.parseInt(args[0]) : 20000;
+
+        PrintStream saida = System.out;
+        // Both parsers log every course
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            int fixtures = conferirFixtures(gravar, saida);
+            Random random = new Random(7);
+            for (int i = 0; i < paginas; i++) {
+                compararParsers(gerarPagina(random), "página gerada " + i);
+            }
+            saida.printf("ExtratorCurso confere: %d fixture(s) com a saída esperada, %d páginas geradas iguais ao parser anterior\n",
+                fixtures, paginas);
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    private static int conferirFixtures(boolean gravar, PrintStream saida) throws IOException {
+        int total = 0;
+        try (Stream<Path> arquivos = Files.list(FIXTURES)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted()::iterator) {
+                String nome = arquivo.getFileName().toString();
+                if (!nome.startsWith("grade") || !nome.endsWith(".html")) continue;
+
+                String html = new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8);
+                String obtido = compararParsers(html, nome);
+                Path esperado = arquivo.resolveSibling(nome.substring(0, nome.length() - 5) + ".esperado.txt");
+                if (gravar) {
+                    Files.write(esperado, obtido.getBytes(StandardCharsets.UTF_8));
+                    saida.println("Gravado " + esperado);
+                } else if (!Files.exists(esperado)) {
+                    throw new IllegalStateException("Sem saída esperada para " + nome + "; gere com --gravar");
+                } else {
+                    String conteudo = new String(Files.readAllBytes(esperado), StandardCharsets.UTF_8);
+                    if (!conteudo.equals(obtido)) {
+                        throw new IllegalStateException("Saída do extrator mudou para " + nome + "\n" + diferenca(conteudo, obtido));
+                    }
+                }
+                total++;
+            }
+        }
+        if (total == 0) {
+            throw new IllegalStateException("Nenhuma página de grade curricular em " + FIXTURES);
+        }
+        return total;
+    }
+
+    /**
+     * Analisa a página com os dois parsers e devolve a descrição do resultado, que deve ser a mesma.
+     */
+    private static String compararParsers(String html, String origem) {
+        String atual = descrever(ExtratorCurso.extrair(Jsoup.parse(html), "Curso", "Unidade"));
+        String anterior = descrever(ParserCursoAnterior.parseCurso(Jsoup.parse(html), "Curso", "Unidade"));
+        if (!atual.equals(anterior)) {
+            throw new IllegalStateException("ExtratorCurso difere do parser anterior em " + origem + "\n"
+                + diferenca(anterior, atual) + "\n--- HTML ---\n" + html);
+        }
+        return atual;
+    }
+
+    static String descrever(Curso curso) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("duracaoIdeal: ").append(curso.duracaoIdeal).append('\n');
+        sb.append("duracaoMin: ").append(curso.duracaoMin).append('\n');
+        sb.append("duracaoMax: ").append(curso.duracaoMax).append('\n');
+        descrever(sb, "obrigatorias", curso.obrigatorias);
+        descrever(sb, "optativasEletivas", curso.optativasEletivas);
+        descrever(sb, "optativasLivres", curso.optativasLivres);
+        return sb.toString();
+    }
+
+    private static void descrever(StringBuilder sb, String categoria, List<Disciplina> disciplinas) {
+        sb.append(categoria).append(": ").append(disciplinas.size()).append('\n');
+        for (Disciplina d : disciplinas) {
+            sb.append("  ").append(d.codigo).append(" | ").append(d.nome)
+              .append(" | ").append(d.creditosAula).append(" | ").append(d.creditosTrabalho)
+              .append(" | ").append(d.cargaHoraria).append('\n');
+        }
+    }
+
+    private static String diferenca(String esperado, String obtido) {
+        String[] a = esperado.split("\n", -1);
+        String[] b = obtido.split("\n", -1);
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            String x = i < a.length ? a[i] : "<fim>";
+            String y = i < b.length ? b[i] : "<fim>";
+            if (!x.equals(y)) {
+                return "linha " + (i + 1) + ":\n  esperado: " + x + "\n  obtido:   " + y;
+            }
+        }
+        return "(sem diferença linha a linha)";
+    }
+
+    private static String gerarPagina(Random random) {
+        StringBuilder sb = new StringBuilder("<html><head><title>Grade</title></head><body>");
+        int blocos = 1 + random.nextInt(8);
+        for (int i = 0; i < blocos; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    gerarDuracoes(random, sb);
+                    break;
+                case 2:
+                    String bloco = random.nextBoolean() ? "pre" : "p";
+                    sb.append('<').append(bloco).append('>');
+                    gerarTexto(random, sb, 1 + random.nextInt(6));
+                    sb.append("</").append(bloco).append('>');
+                    break;
+                default:
+                    gerarTabela(random, sb, 0);
+            }
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    private static void gerarDuracoes(Random random, StringBuilder sb) {
+        String[] rotulos = {"Duração Ideal:", "Mínima:", "Máxima:"};
+        String bloco = random.nextBoolean() ? "div" : "span";
+        sb.append('<').append(bloco).append('>');
+        for (String rotulo : rotulos) {
+            if (random.nextInt(6) == 0) continue;
+            if (random.nextInt(4) == 0) {
+                // Label split across elements, as in <b>Duração</b> Ideal:
+                int corte = random.nextInt(rotulo.length() - 1) + 1;
+                sb.append("<b>").append(rotulo, 0, corte).append("</b>").append(rotulo.substring(corte));
+            } else {
+                sb.append(rotulo);
+            }
+            gerarTexto(random, sb, random.nextInt(5));
+            sb.append(separador(random));
+        }
+        sb.append("</").append(bloco).append('>');
+    }
+
+    private static void gerarTabela(Random random, StringBuilder sb, int profundidade) {
+        String[] titulos = {"Disciplinas Obrigatórias", "Disciplinas Optativas Eletivas",
+            "Disciplinas Optativas Livres", "Outras informações"};
+        sb.append("<table>");
+        int linhas = random.nextInt(7);
+        for (int i = 0; i < linhas; i++) {
+            sb.append("<tr>");
+            if (i == 0) {
+                sb.append("<td colspan=\"5\">").append(titulos[random.nextInt(titulos.length)]).append("</td>");
+            } else if (i == 1 && random.nextBoolean()) {
+                sb.append("<td>Código</td><td>Nome</td><td>Créd. Aula</td><td>Créd. Trab.</td><td>CH</td>");
+            } else {
+                int colunas = random.nextInt(7);
+                for (int c = 0; c < colunas; c++) {
+                    sb.append(random.nextInt(8) == 0 ? "<th>" : "<td>");
+                    if (profundidade < 2 && random.nextInt(30) == 0) {
+                        gerarTabela(random, sb, profundidade + 1);
+                    } else if (c >= 2 && random.nextBoolean()) {
+                        sb.append(random.nextInt(random.nextBoolean() ? 10 : 200));
+                    } else {
+                        gerarTexto(random, sb, random.nextInt(4));
+                    }
+                    sb.append("</td>");
+                }
+            }
+            sb.append("</tr>");
+        }
+        sb.append("</table>");
+    }
+
+    private static void gerarTexto(Random random, StringBuilder sb, int palavras) {
+        String[] espacos = {" ", "  ", "\n", "\t", "&nbsp;", "<br>", " <br> ", ""};
+        for (int i = 0; i < palavras; i++) {
+            sb.append(espacos[random.nextInt(espacos.length)]);
+            sb.append(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        }
+        sb.append(espacos[random.nextInt(espacos.length)]);
+    }
+
+    private static String separador(Random random) {
+        String[] tags = {"", " ", "<br>", "</span><span>", "<p></p>", "<td>"};
+        return tags[random.nextInt(tags.length)];
+    }
+}
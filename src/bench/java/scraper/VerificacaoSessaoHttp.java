@@ -0,0 +1,73 @@
+package scraper;
+
+import models.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Confere o backend HTTP de ponta a ponta contra as páginas gravadas em
+ * src/bench/fixtures/jupiterweb: o ServidorJupiterLocal serve as páginas e o Scraper, com o
+ * backend HTTP e duas sessões, percorre jupCarreira (unidades), jupCursoLista (cursos de cada
+ * unidade) e listarGradeCurricular (grade de cada curso, lida pelo ExtratorCurso). Nomes das
+ * unidades e dos cursos, durações e disciplinas devem ser os de jupiterweb/esperado.txt.
+ * Falha com exceção na primeira diferença; mvn -Pbench test roda esta classe.
+ *
+ * mvn -Pbench compile exec:java -Dexec.mainClass=scraper.VerificacaoSessaoHttp
+ * Com -Dexec.args="--gravar" o esperado.txt é regravado a partir do scraper atual.
+ */
+public class VerificacaoSessaoHttp {
+    private static final Path GRAVACOES = Paths.get("src/bench/fixtures/jupiterweb");
+
+    public static void main(String[] args) throws Exception {
+        boolean gravar = args.length > 0 && args[0].equals("--gravar");
+
+        ServidorJupiterLocal servidor = new ServidorJupiterLocal(GRAVACOES, null);
+        int porta = servidor.iniciar(0).getAddress().getPort();
+        PrintStream saida = System.out;
+        // The scraper logs every unit and course
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<Unidade> unidades;
+        try {
+            Scraper scraper = new Scraper(Scraper.BACKEND_HTTP, 2,
+                "http://localhost:" + porta + "/jupiterweb/jupCarreira.jsp?codmnu=8275");
+            // A page missing from the recording should fail at once, not after backoffs
+            scraper.setRetentativas(0);
+            scraper.start(Integer.MAX_VALUE);
+            unidades = scraper.unidades;
+        } finally {
+            System.setOut(saida);
+            servidor.parar();
+        }
+
+        String obtido = descrever(unidades);
+        Path esperado = GRAVACOES.resolve("esperado.txt");
+        if (gravar) {
+            Files.write(esperado, obtido.getBytes(StandardCharsets.UTF_8));
+            System.out.println("Gravado " + esperado);
+            return;
+        }
+        String conteudo = new String(Files.readAllBytes(esperado), StandardCharsets.UTF_8);
+        if (!conteudo.equals(obtido)) {
+            throw new IllegalStateException("Resultado do backend HTTP difere de " + esperado
+                + "\n--- esperado ---\n" + conteudo + "--- obtido ---\n" + obtido);
+        }
+        int cursos = unidades.stream().mapToInt(unidade -> unidade.cursos.size()).sum();
+        System.out.printf("Backend HTTP confere: %d unidades e %d cursos iguais a %s\n", unidades.size(), cursos, esperado);
+    }
+
+    private static String descrever(List<Unidade> unidades) {
+        StringBuilder sb = new StringBuilder();
+        for (Unidade unidade : unidades) {
+            sb.append("unidade: ").append(unidade.nome).append('\n');
+            for (Curso curso : unidade.cursos) {
+                sb.append("curso: ").append(curso.nome).append(" | ").append(curso.unidade).append('\n');
+                sb.append(VerificacaoExtrator.descrever(curso));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package app;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * CacheConsultas guarda resultados de consultas por chave (comando e argumento normalizado),
+ * com limite de memória: quando a estimativa de bytes passa do limite, saem os usados há mais
+ * tempo (LRU). {@link #invalidar} descarta tudo quando o modelo muda.
+ *
+ * Pode ser usado por várias threads. O cálculo de um resultado ausente acontece fora da trava,
+ * então duas threads podem calcular a mesma chave ao mesmo tempo; fica o último.
+ */
+final class CacheConsultas<V> {
+    // Rough per-entry cost of the map node, the key object and the value wrapper
+    private static final long CUSTO_ENTRADA = 96;
+
+    private final long limiteBytes;
+    private final ToLongFunction<V> tamanho;
+    private final LinkedHashMap<String, Entrada<V>> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long geracao;
+
+    private long acertos;
+    private long faltas;
+    private long remocoes;
+    private long invalidacoes;
+
+    /**
+     * @param limiteBytes memória máxima estimada; 0 desliga o cache
+     * @param tamanho     estimativa, em bytes, de um valor
+     */
+    CacheConsultas(long limiteBytes, ToLongFunction<V> tamanho) {
+        this.limiteBytes = limiteBytes;
+        this.tamanho = tamanho;
+    }
+
+    V obter(String chave, Supplier<V> calculo) {
+        long geracaoInicial;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(chave);
+            if (entrada != null) {
+                acertos++;
+                return entrada.valor;
+            }
+            faltas++;
+            geracaoInicial = geracao;
+        }
+
+        V valor = calculo.get();
+        long custo = CUSTO_ENTRADA + 2L * chave.length() + tamanho.applyAsLong(valor);
+        synchronized (this) {
+            // Computed against a model that has changed since: answer, but do not keep it
+            if (geracao != geracaoInicial || custo > limiteBytes) return valor;
+            Entrada<V> anterior = entradas.put(chave, new Entrada<>(valor, custo));
+            if (anterior != null) bytes -= anterior.custo;
+            bytes += custo;
+            Iterator<Entrada<V>> maisAntigas = entradas.values().iterator();
+            while (bytes > limiteBytes) {
+                bytes -= maisAntigas.next().custo;
+                maisAntigas.remove();
+                remocoes++;
+            }
+        }
+        return valor;
+    }
+
+    synchronized void invalidar() {
+        entradas.clear();
+        bytes = 0;
+        geracao++;
+        invalidacoes++;
+    }
+
+    synchronized long acertos() {
+        return acertos;
+    }
+
+    synchronized long faltas() {
+        return faltas;
+    }
+
+    synchronized long remocoes() {
+        return remocoes;
+    }
+
+    synchronized long invalidacoes() {
+        return invalidacoes;
+    }
+
+    synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    long limiteBytes() {
+        return limiteBytes;
+    }
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long custo;
+
+        Entrada(V valor, long custo) {
+            this.valor = valor;
+            this.custo = custo;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package app;
+
+import models.*;
+import scraper.OuvinteUnidades;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CarregadorJson reconstrói a lista de unidades a partir do JSON gravado pelo ExportadorJson
+ * (comprimido com gzip se o nome terminar em ".gz"), sem scraping.
+ *
+ * O arquivo é lido em fluxo, com um buffer de caracteres fixo, e cada curso vira objetos do
+ * modelo assim que termina de ser lido; a memória usada é a do próprio modelo, não a do
+ * documento. Textos repetidos (nomes de campos, unidades, códigos e nomes de disciplinas)
+ * são criados uma única vez, e as disciplinas passam pelo CatalogoDisciplinas, como no scraping.
+ *
+ * Com {@link #percorrer}, as unidades são entregues a um OuvinteUnidades à medida que são lidas,
+ * sem guardar a lista; é o que o ComparadorSnapshots usa para atravessar dois arquivos. Nesse
+ * modo a tabela de textos e o CatalogoDisciplinas valem só para uma unidade e são descartados
+ * ao entregá-la, para que nada do arquivo fique preso depois que o ouvinte solta a unidade.
+ *
+ * Campos desconhecidos são ignorados e a ordem dos campos não importa. O JSON não guarda
+ * cargaEstagio, cargaPCC e cargaATPA (ficam 0), e textos null foram exportados como "".
+ */
+public class CarregadorJson {
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[TAMANHO_BUFFER];
+    private int pos;
+    private int fim;
+    private int linha = 1;
+    private char[] trecho = new char[256];
+    private final boolean porUnidade;
+    private TabelaTextos textos = new TabelaTextos();
+    private CatalogoDisciplinas catalogo = new CatalogoDisciplinas();
+
+    private CarregadorJson(Reader reader, boolean porUnidade) {
+        this.reader = reader;
+        this.porUnidade = porUnidade;
+    }
+
+    public static List<Unidade> carregar(String arquivo) throws IOException {
+        List<Unidade> unidades = new ArrayList<>();
+        ler(arquivo, false, new OuvinteUnidades() {
+            @Override
+            public void iniciar(int totalUnidades) {
+            }
+
+            @Override
+            public void unidadeConcluida(Unidade unidade) {
+                unidades.add(unidade);
+            }
+        });
+        return unidades;
+    }
+
+    /**
+     * Lê o arquivo entregando cada unidade, com seus cursos, assim que ela termina. iniciar
+     * recebe o total_units do arquivo, ou -1 se ele não vem antes da lista de unidades.
+     */
+    public static void percorrer(String arquivo, OuvinteUnidades ouvinte) throws IOException {
+        ler(arquivo, true, ouvinte);
+    }
+
+    private static void ler(String arquivo, boolean porUnidade, OuvinteUnidades ouvinte) throws IOException {
+        InputStream in = Files.newInputStream(Paths.get(arquivo));
+        if (arquivo.endsWith(".gz")) {
+            in = new GZIPInputStream(in, TAMANHO_BUFFER);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            new CarregadorJson(reader, porUnidade).documento(ouvinte);
+        }
+    }
+
+    private void documento(OuvinteUnidades ouvinte) throws IOException {
+        int totalUnidades = 0;
+        int totalAnunciado = -1;
+        esperar('{');
+        if (!consumir('}')) {
+            do {
+                String campo = chave();
+                switch (campo) {
+                    case "total_units":
+                        totalAnunciado = inteiro();
+                        break;
+                    case "units":
+                        ouvinte.iniciar(totalAnunciado);
+                        esperar('[');
+                        if (!consumir(']')) {
+                            do {
+                                ouvinte.unidadeConcluida(unidade());
+                                totalUnidades++;
+                                if (porUnidade) {
+                                    textos = new TabelaTextos();
+                                    catalogo = new CatalogoDisciplinas();
+                                }
+                            } while (consumir(','));
+                            esperar(']');
+                        }
+                        break;
+                    default:
+                        pularValor();
+                        break;
+                }
+            } while (consumir(','));
+            esperar('}');
+        }
+        if (proximoCaractere() >= 0) {
+            throw erro("conteúdo depois do fim do documento");
+        }
+        if (totalAnunciado >= 0 && totalAnunciado != totalUnidades) {
+            throw erro("total_units é " + totalAnunciado + ", mas há " + totalUnidades + " unidades");
+        }
+    }
+
+    private Unidade unidade() throws IOException {
+        Unidade unidade = new Unidade(null);
+        esperar('{');
+        if (!consumir('}')) {
+            do {
+                String campo = chave();
+                switch (campo) {
+                    case "name":
+                        unidade.nome = texto();
+                        break;
+                    case "courses":
+                        esperar('[');
+                        if (!consumir(']')) {
+                            do {
+                                Curso curso = curso();
+                                catalogo.registrar(curso);
+                                unidade.cursos.add(curso);
+                            } while (consumir(','));
+                            esperar(']');
+                        }
+                        break;
+                    default:
+                        pularValor();
+                        break;
+                }
+            } while (consumir(','));
+            esperar('}');
+        }
+        return unidade;
+    }
+
+    private Curso curso() throws IOException {
+        Curso curso = new Curso(null, null);
+        esperar('{');
+        if (!consumir('}')) {
+            do {
+                String campo = chave();
+                switch (campo) {
+                    case "name":
+                        curso.nome = texto();
+                        break;
+                    case "unit":
+                        curso.unidade = texto();
+                        break;
+                    case "duration_ideal":
+                        curso.duracaoIdeal = texto();
+                        break;
+                    case "duration_min":
+                        curso.duracaoMin = texto();
+                        break;
+                    case "duration_max":
+                        curso.duracaoMax = texto();
+                        break;
+                    case "mandatory_disciplines":
+                        disciplinas(curso.obrigatorias);
+                        break;
+                    case "elective_disciplines":
+                        disciplinas(curso.optativasEletivas);
+                        break;
+                    case "free_elective_disciplines":
+                        disciplinas(curso.optativasLivres);
+                        break;
+                    default:
+                        // "statistics" is derived from the lists and is skipped like any unknown field
+                        pularValor();
+                        break;
+                }
+            } while (consumir(','));
+            esperar('}');
+        }
+        return curso;
+    }
+
+    private void disciplinas(List<Disciplina> destino) throws IOException {
+        esperar('[');
+        if (consumir(']')) return;
+        do {
+            Disciplina disciplina = new Disciplina(null, null);
+            esperar('{');
+            if (!consumir('}')) {
+                do {
+                    String campo = chave();
+                    switch (campo) {
+                        case "code":
+                            disciplina.codigo = texto();
+                            break;
+                        case "name":
+                            disciplina.nome = texto();
+                            break;
+                        case "credits_class":
+                            disciplina.creditosAula = inteiro();
+                            break;
+                        case "credits_work":
+                            disciplina.creditosTrabalho = inteiro();
+                            break;
+                        case "hours":
+                            disciplina.cargaHoraria = inteiro();
+                            break;
+                        default:
+                            pularValor();
+                            break;
+                    }
+                } while (consumir(','));
+                esperar('}');
+            }
+            destino.add(disciplina);
+        } while (consumir(','));
+        esperar(']');
+    }
+
+    private String chave() throws IOException {
+        String chave = texto();
+        if (chave == null) {
+            throw erro("nome de campo esperado");
+        }
+        esperar(':');
+        return chave;
+    }
+
+    /**
+     * Lê uma string JSON (ou null). O texto é devolvido pela tabela, então o mesmo conteúdo
+     * sempre resulta na mesma instância de String.
+     */
+    private String texto() throws IOException {
+        int c = proximoCaractere();
+        if (c == 'n') {
+            literal("null");
+            return null;
+        }
+        if (c != '"') {
+            throw erro("texto esperado");
+        }
+        pos++;
+
+        // Fast path: the whole string is in the buffer and has no escapes
+        for (int i = pos; i < fim; i++) {
+            char ch = buffer[i];
+            if (ch == '"') {
+                String texto = textos.texto(buffer, pos, i - pos);
+                pos = i + 1;
+                return texto;
+            }
+            if (ch == '\\' || ch == '\n') break;
+        }
+
+        int tamanho = 0;
+        while (true) {
+            if (pos == fim && !encher()) {
+                throw erro("texto não terminado");
+            }
+            char ch = buffer[pos++];
+            if (ch == '"') break;
+            if (ch == '\\') {
+                ch = escape();
+            } else if (ch == '\n') {
+                linha++;
+            }
+            if (tamanho == trecho.length) {
+                trecho = Arrays.copyOf(trecho, tamanho * 2);
+            }
+            trecho[tamanho++] = ch;
+        }
+        return textos.texto(trecho, 0, tamanho);
+    }
+
+    private char escape() throws IOException {
+        if (pos == fim && !encher()) {
+            throw erro("texto não terminado");
+        }
+        char ch = buffer[pos++];
+        switch (ch) {
+            case '"': case '\\': case '/': return ch;
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int valor = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == fim && !encher()) {
+                        throw erro("texto não terminado");
+                    }
+                    int digito = Character.digit(buffer[pos++], 16);
+                    if (digito < 0) {
+                        throw erro("escape \\u inválido");
+                    }
+                    valor = valor * 16 + digito;
+                }
+                return (char) valor;
+            default:
+                throw erro("escape inválido: \\" + ch);
+        }
+    }
+
+    private int inteiro() throws IOException {
+        int c = proximoCaractere();
+        boolean negativo = c == '-';
+        if (negativo) pos++;
+        long valor = 0;
+        int digitos = 0;
+        while ((pos < fim || encher()) && buffer[pos] >= '0' && buffer[pos] <= '9') {
+            valor = valor * 10 + (buffer[pos++] - '0');
+            if (valor > Integer.MAX_VALUE) {
+                throw erro("número fora do intervalo de int");
+            }
+            digitos++;
+        }
+        if (digitos == 0) {
+            throw erro("número esperado");
+        }
+        return (int) (negativo ? -valor : valor);
+    }
+
+    /**
+     * Pula um valor qualquer (objeto, lista, texto, número ou literal) sem montar nada.
+     */
+    private void pularValor() throws IOException {
+        int c = proximoCaractere();
+        switch (c) {
+            case '{':
+                pos++;
+                if (!consumir('}')) {
+                    do {
+                        chave();
+                        pularValor();
+                    } while (consumir(','));
+                    esperar('}');
+                }
+                break;
+            case '[':
+                pos++;
+                if (!consumir(']')) {
+                    do {
+                        pularValor();
+                    } while (consumir(','));
+                    esperar(']');
+                }
+                break;
+            case '"':
+                texto();
+                break;
+            case 't':
+                literal("true");
+                break;
+            case 'f':
+                literal("false");
+                break;
+            case 'n':
+                literal("null");
+                break;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw erro("valor esperado");
+                }
+                while ((pos < fim || encher()) && "+-0123456789.eE".indexOf(buffer[pos]) >= 0) {
+                    pos++;
+                }
+                break;
+        }
+    }
+
+    private void literal(String esperado) throws IOException {
+        for (int i = 0; i < esperado.length(); i++) {
+            if ((pos == fim && !encher()) || buffer[pos] != esperado.charAt(i)) {
+                throw erro(esperado + " esperado");
+            }
+            pos++;
+        }
+    }
+
+    private void esperar(char esperado) throws IOException {
+        if (proximoCaractere() != esperado) {
+            throw erro("'" + esperado + "' esperado");
+        }
+        pos++;
+    }
+
+    private boolean consumir(char esperado) throws IOException {
+        if (proximoCaractere() == esperado) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Próximo caractere depois dos espaços, sem consumi-lo; -1 no fim do arquivo.
+     */
+    private int proximoCaractere() throws IOException {
+        while (pos < fim || encher()) {
+            char c = buffer[pos];
+            if (c == '\n') {
+                linha++;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private boolean encher() throws IOException {
+        int lidos = reader.read(buffer, 0, buffer.length);
+        if (lidos <= 0) {
+            pos = fim = 0;
+            return false;
+        }
+        pos = 0;
+        fim = lidos;
+        return true;
+    }
+
+    private IOException erro(String mensagem) {
+        return new IOException("JSON inválido na linha " + linha + ": " + mensagem);
+    }
+
+    /**
+     * Tabela de textos já lidos, consultada direto pelos caracteres do buffer: um texto que
+     * já apareceu não gera uma nova String.
+     */
+    private static final class TabelaTextos {
+        private String[] tabela = new String[1 << 12];
+        // Hash of each slot, so a probe rejects other texts without touching the String
+        private int[] hashes = new int[1 << 12];
+        private int quantidade;
+
+        String texto(char[] origem, int inicio, int tamanho) {
+            int hash = 0;
+            for (int i = inicio; i < inicio + tamanho; i++) {
+                hash = 31 * hash + origem[i];
+            }
+            int mascara = tabela.length - 1;
+            int i = espalhar(hash) & mascara;
+            for (String existente = tabela[i]; existente != null; existente = tabela[i]) {
+                if (hashes[i] == hash && iguais(existente, origem, inicio, tamanho)) {
+                    return existente;
+                }
+                i = (i + 1) & mascara;
+            }
+
+            String novo = new String(origem, inicio, tamanho);
+            tabela[i] = novo;
+            hashes[i] = hash;
+            // Keep the table at most half full so probe runs stay short
+            if (++quantidade * 2 > tabela.length) {
+                crescer();
+            }
+            return novo;
+        }
+
+        private void crescer() {
+            String[] antiga = tabela;
+            int[] hashesAntigos = hashes;
+            tabela = new String[antiga.length * 2];
+            hashes = new int[antiga.length * 2];
+            int mascara = tabela.length - 1;
+            for (int j = 0; j < antiga.length; j++) {
+                if (antiga[j] == null) continue;
+                int i = espalhar(hashesAntigos[j]) & mascara;
+                while (tabela[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                tabela[i] = antiga[j];
+                hashes[i] = hashesAntigos[j];
+            }
+        }
+
+        private static int espalhar(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean iguais(String texto, char[] origem, int inicio, int tamanho) {
+            if (texto.length() != tamanho) return false;
+            for (int i = 0; i < tamanho; i++) {
+                if (texto.charAt(i) != origem[inicio + i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package app;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ChaveBusca gera a forma normalizada usada nas buscas: decomposição Unicode (NFD), sem
+ * acentos e em minúsculas. Assim "Computação", "computacao" e "COMPUTAÇÃO" têm a mesma chave.
+ *
+ * Cada instância guarda as chaves já calculadas, porque os mesmos nomes se repetem muito
+ * entre cursos. Não é thread-safe, nem para textos já vistos (computeIfAbsent pode redimensionar
+ * o mapa): serve só para a indexação, e as consultas usam as chaves guardadas nos índices ou
+ * {@link #normalizar} para o termo buscado.
+ */
+class ChaveBusca {
+    private final Map<String, String> calculadas = new HashMap<>();
+
+    String chave(String texto) {
+        return calculadas.computeIfAbsent(texto, ChaveBusca::normalizar);
+    }
+
+    static String normalizar(String texto) {
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder chave = new StringBuilder(decomposto.length());
+        for (int i = 0; i < decomposto.length(); i++) {
+            char c = decomposto.charAt(i);
+            // Accents become separate combining marks after NFD; drop them
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                chave.append(c);
+            }
+        }
+        return chave.toString().toLowerCase(Locale.ROOT);
+    }
+}
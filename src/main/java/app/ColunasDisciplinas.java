@@ -0,0 +1,176 @@
+package app;
+
+import models.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ColunasDisciplinas é uma cópia somente leitura dos campos numéricos das disciplinas, organizada
+ * por colunas: um {@code int[]} por campo, com uma posição por ocorrência (disciplina em um curso),
+ * na ordem unidade → curso → obrigatórias, eletivas, livres. As ocorrências da categoria k do
+ * curso c ficam em [inicios[3c + k], inicios[3c + k + 1]).
+ *
+ * Somas por curso, filtros por faixa e ordenações sobre o catálogo inteiro viram laços sobre
+ * vetores contíguos, sem passar por Unidade, Curso, as três listas e cada Disciplina. Não
+ * acompanha mudanças no modelo: depois de acrescentar cursos, é preciso montar de novo.
+ */
+final class ColunasDisciplinas {
+    static final int OBRIGATORIAS = 0;
+    static final int ELETIVAS = 1;
+    static final int LIVRES = 2;
+
+    // Value spans up to this size are sorted by counting
+    private static final int VALORES_CONTAGEM = 1 << 16;
+
+    final Curso[] cursos;
+    final Disciplina[] disciplinas;
+    final int[] inicios;
+    final int[] creditosAula;
+    final int[] creditosTrabalho;
+    final int[] cargaHoraria;
+    final int[] cargaEstagio;
+    final int[] cargaPCC;
+    final int[] cargaATPA;
+
+    private ColunasDisciplinas(int totalCursos, int totalOcorrencias) {
+        cursos = new Curso[totalCursos];
+        disciplinas = new Disciplina[totalOcorrencias];
+        inicios = new int[3 * totalCursos + 1];
+        creditosAula = new int[totalOcorrencias];
+        creditosTrabalho = new int[totalOcorrencias];
+        cargaHoraria = new int[totalOcorrencias];
+        cargaEstagio = new int[totalOcorrencias];
+        cargaPCC = new int[totalOcorrencias];
+        cargaATPA = new int[totalOcorrencias];
+    }
+
+    static ColunasDisciplinas montar(List<Unidade> unidades) {
+        int totalCursos = 0, totalOcorrencias = 0;
+        for (Unidade unidade : unidades) {
+            totalCursos += unidade.cursos.size();
+            for (Curso curso : unidade.cursos) {
+                totalOcorrencias += curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
+            }
+        }
+
+        ColunasDisciplinas colunas = new ColunasDisciplinas(totalCursos, totalOcorrencias);
+        int c = 0, o = 0;
+        for (Unidade unidade : unidades) {
+            for (Curso curso : unidade.cursos) {
+                colunas.cursos[c] = curso;
+                colunas.inicios[3 * c + OBRIGATORIAS] = o;
+                o = colunas.copiar(curso.obrigatorias, o);
+                colunas.inicios[3 * c + ELETIVAS] = o;
+                o = colunas.copiar(curso.optativasEletivas, o);
+                colunas.inicios[3 * c + LIVRES] = o;
+                o = colunas.copiar(curso.optativasLivres, o);
+                c++;
+            }
+        }
+        colunas.inicios[3 * totalCursos] = o;
+        return colunas;
+    }
+
+    private int copiar(List<Disciplina> lista, int o) {
+        for (Disciplina d : lista) {
+            disciplinas[o] = d;
+            creditosAula[o] = d.creditosAula;
+            creditosTrabalho[o] = d.creditosTrabalho;
+            cargaHoraria[o] = d.cargaHoraria;
+            cargaEstagio[o] = d.cargaEstagio;
+            cargaPCC[o] = d.cargaPCC;
+            cargaATPA[o] = d.cargaATPA;
+            o++;
+        }
+        return o;
+    }
+
+    int totalOcorrencias() {
+        return disciplinas.length;
+    }
+
+    /**
+     * Soma da coluna em cada curso, na ordem de {@link #cursos}.
+     */
+    long[] somaPorCurso(int[] coluna) {
+        long[] somas = new long[cursos.length];
+        for (int c = 0; c < cursos.length; c++) {
+            long soma = 0;
+            for (int o = inicios[3 * c], fim = inicios[3 * c + 3]; o < fim; o++) {
+                soma += coluna[o];
+            }
+            somas[c] = soma;
+        }
+        return somas;
+    }
+
+    /**
+     * Ocorrências com valor da coluna em [minimo, maximo], em ordem crescente.
+     */
+    int[] filtrar(int[] coluna, int minimo, int maximo) {
+        if (minimo > maximo) return new int[0];
+        // One unsigned compare tests both bounds; the two passes have no data-dependent branch
+        int largura = maximo - minimo;
+        int total = 0;
+        for (int valor : coluna) {
+            total += Integer.compareUnsigned(valor - minimo, largura) <= 0 ? 1 : 0;
+        }
+        // One spare slot: every occurrence is written, and only matches advance the position
+        int[] encontradas = new int[total + 1];
+        int n = 0;
+        for (int o = 0; o < coluna.length; o++) {
+            encontradas[n] = o;
+            n += Integer.compareUnsigned(coluna[o] - minimo, largura) <= 0 ? 1 : 0;
+        }
+        return Arrays.copyOf(encontradas, total);
+    }
+
+    /**
+     * As ocorrências dadas ordenadas pelo valor da coluna, do maior para o menor; empates ficam
+     * na ordem em que vieram. Cargas e créditos têm poucos valores distintos, então normalmente
+     * é uma ordenação por contagem, linear; com valores muito espalhados, valor e posição vão
+     * juntos em um long e a ordenação é primitiva.
+     */
+    int[] ordenarDecrescente(int[] coluna, int[] ocorrencias) {
+        if (ocorrencias.length == 0) return new int[0];
+        int minimo = Integer.MAX_VALUE, maximo = Integer.MIN_VALUE;
+        for (int o : ocorrencias) {
+            minimo = Math.min(minimo, coluna[o]);
+            maximo = Math.max(maximo, coluna[o]);
+        }
+        return (long) maximo - minimo < VALORES_CONTAGEM
+            ? ordenarPorContagem(coluna, ocorrencias, maximo, maximo - minimo + 1)
+            : ordenarPorChave(coluna, ocorrencias);
+    }
+
+    private static int[] ordenarPorContagem(int[] coluna, int[] ocorrencias, int maximo, int valores) {
+        // Bucket i holds the value maximo - i, so buckets run from the largest value down
+        int[] posicoes = new int[valores + 1];
+        for (int o : ocorrencias) {
+            posicoes[maximo - coluna[o] + 1]++;
+        }
+        for (int i = 1; i <= valores; i++) {
+            posicoes[i] += posicoes[i - 1];
+        }
+        int[] ordenadas = new int[ocorrencias.length];
+        for (int o : ocorrencias) {
+            ordenadas[posicoes[maximo - coluna[o]]++] = o;
+        }
+        return ordenadas;
+    }
+
+    private static int[] ordenarPorChave(int[] coluna, int[] ocorrencias) {
+        long[] chaves = new long[ocorrencias.length];
+        for (int i = 0; i < ocorrencias.length; i++) {
+            // Negated value in the high half sorts descending; the position breaks ties ascending
+            chaves[i] = ((long) -coluna[ocorrencias[i]] << 32) | i;
+        }
+        Arrays.sort(chaves);
+        int[] ordenadas = new int[chaves.length];
+        for (int i = 0; i < chaves.length; i++) {
+            ordenadas[i] = ocorrencias[(int) chaves[i]];
+        }
+        return ordenadas;
+    }
+}
@@ -0,0 +1,515 @@
+package app;
+
+import models.*;
+import scraper.OuvinteUnidades;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * ComparadorSnapshots compara dois catálogos exportados (JSON, com ou sem gzip, ou snapshot
+ * binário) e descreve o que mudou entre eles: unidades e cursos novos ou removidos, e, em cada
+ * curso alterado, durações diferentes e disciplinas que entraram, saíram ou mudaram de lista,
+ * além das disciplinas com nome, créditos ou cargas diferentes.
+ *
+ * Os arquivos são lidos em fluxo, unidade por unidade. Da primeira passada pelo antigo fica só
+ * um hash do conteúdo de cada curso; na passada pelo novo, cursos com o mesmo hash são dados
+ * como iguais sem mais nada, e só os diferentes são guardados. Se algum curso mudou, o antigo é
+ * lido mais uma vez para pegar apenas esses e compará-los em detalhe. Fora a leitura dos
+ * arquivos, memória e trabalho acompanham o número de mudanças.
+ *
+ * Cursos são identificados pela unidade e pelo nome, e disciplinas pelo código. Um código pode
+ * ter mais de uma entrada no curso, com dados diferentes (o CatalogoDisciplinas mantém essas
+ * versões); todas são comparadas, lista por lista, e mudança no número de entradas de um código
+ * em uma lista também é relatada. A ordem das disciplinas em uma lista não conta como mudança.
+ * O JSON não guarda as cargas de estágio, PCC e ATPA, então elas só são comparadas quando os
+ * dois arquivos são snapshots binários.
+ */
+public class ComparadorSnapshots {
+    static final String[] LISTAS = {"mandatory", "elective", "free_elective"};
+
+    private final boolean cargasCompletas;
+
+    ComparadorSnapshots(boolean cargasCompletas) {
+        this.cargasCompletas = cargasCompletas;
+    }
+
+    public static Relatorio comparar(String antigo, String novo) throws IOException {
+        ComparadorSnapshots comparador = new ComparadorSnapshots(SnapshotBinario.ehSnapshot(antigo) && SnapshotBinario.ehSnapshot(novo));
+        return comparador.executar(antigo, novo);
+    }
+
+    private Relatorio executar(String antigo, String novo) throws IOException {
+        Relatorio relatorio = new Relatorio(antigo, novo);
+
+        // Pass 1: one content hash per course of the old file
+        Map<String, CursoAntigo> antigos = new LinkedHashMap<>();
+        Set<String> unidadesAntigas = new LinkedHashSet<>();
+        percorrer(antigo, (unidade, chave, curso) -> {
+            unidadesAntigas.add(texto(unidade.nome));
+            antigos.put(chave, new CursoAntigo(unidade.nome, curso.nome, hashCurso(curso)));
+        });
+
+        // Pass 2: equal hashes are settled on the spot; only changed courses are kept
+        Map<String, Curso> alterados = new HashMap<>();
+        Set<String> unidadesNovas = new LinkedHashSet<>();
+        percorrer(novo, (unidade, chave, curso) -> {
+            unidadesNovas.add(texto(unidade.nome));
+            relatorio.cursosNovo++;
+            CursoAntigo anterior = antigos.get(chave);
+            if (anterior == null) {
+                relatorio.cursosAdicionados.add(new String[]{unidade.nome, curso.nome});
+                return;
+            }
+            anterior.visto = true;
+            if (anterior.hash == hashCurso(curso)) {
+                relatorio.cursosIguais++;
+            } else {
+                alterados.put(chave, curso);
+            }
+        });
+
+        relatorio.cursosAntigo = antigos.size();
+        for (CursoAntigo anterior : antigos.values()) {
+            if (!anterior.visto) relatorio.cursosRemovidos.add(new String[]{anterior.unidade, anterior.nome});
+        }
+        for (String unidade : unidadesNovas) {
+            if (!unidadesAntigas.contains(unidade)) relatorio.unidadesAdicionadas.add(unidade);
+        }
+        for (String unidade : unidadesAntigas) {
+            if (!unidadesNovas.contains(unidade)) relatorio.unidadesRemovidas.add(unidade);
+        }
+
+        // Pass 3, only when needed: the old version of just the changed courses
+        if (!alterados.isEmpty()) {
+            percorrer(antigo, (unidade, chave, curso) -> {
+                Curso atual = alterados.get(chave);
+                if (atual != null) {
+                    relatorio.cursosAlterados.add(compararCurso(unidade.nome, curso, atual, relatorio.disciplinasAlteradas));
+                }
+            });
+        }
+        return relatorio;
+    }
+
+    /**
+     * Entrega cada curso do arquivo com a sua chave: unidade e nome, e, se o nome se repete na
+     * unidade, a ordem da repetição.
+     */
+    private static void percorrer(String arquivo, OuvinteCursos ouvinte) throws IOException {
+        OuvinteUnidades porUnidade = new OuvinteUnidades() {
+            @Override
+            public void iniciar(int totalUnidades) {
+            }
+
+            @Override
+            public void unidadeConcluida(Unidade unidade) {
+                Map<String, Integer> repeticoes = new HashMap<>();
+                for (Curso curso : unidade.cursos) {
+                    String chave = texto(unidade.nome) + '\u0000' + texto(curso.nome);
+                    int repeticao = repeticoes.merge(chave, 1, Integer::sum);
+                    ouvinte.curso(unidade, repeticao == 1 ? chave : chave + '\u0000' + repeticao, curso);
+                }
+            }
+        };
+        if (SnapshotBinario.ehSnapshot(arquivo)) {
+            SnapshotBinario.percorrer(arquivo, porUnidade);
+        } else {
+            CarregadorJson.percorrer(arquivo, porUnidade);
+        }
+    }
+
+    /**
+     * Compara as duas versões de um curso; disciplinas com dados diferentes também entram em
+     * {@code disciplinasAlteradas}, uma vez por código e par de versões.
+     */
+    MudancaCurso compararCurso(String unidade, Curso antigo, Curso novo, Map<String, Disciplina[]> disciplinasAlteradas) {
+        MudancaCurso mudanca = new MudancaCurso(unidade, novo.nome);
+        compararCampo(mudanca.campos, "duration_ideal", antigo.duracaoIdeal, novo.duracaoIdeal);
+        compararCampo(mudanca.campos, "duration_min", antigo.duracaoMin, novo.duracaoMin);
+        compararCampo(mudanca.campos, "duration_max", antigo.duracaoMax, novo.duracaoMax);
+
+        Map<String, Ocorrencia> antes = ocorrencias(antigo);
+        Map<String, Ocorrencia> depois = ocorrencias(novo);
+        for (Map.Entry<String, Ocorrencia> entrada : depois.entrySet()) {
+            Ocorrencia atual = entrada.getValue();
+            Ocorrencia anterior = antes.get(entrada.getKey());
+            if (anterior == null) {
+                mudanca.adicionadas.add(atual);
+                continue;
+            }
+            if (anterior.listas != atual.listas) {
+                mudanca.movidas.add(new Ocorrencia[]{anterior, atual});
+            }
+            // Versions are paired list by list; those in lists only one side has are paired among themselves
+            List<Disciplina> restoAntes = new ArrayList<>();
+            List<Disciplina> restoDepois = new ArrayList<>();
+            for (int l = 0; l < LISTAS.length; l++) {
+                List<Disciplina> a = anterior.versoes.get(l);
+                List<Disciplina> b = atual.versoes.get(l);
+                if (a.isEmpty() || b.isEmpty()) {
+                    restoAntes.addAll(a);
+                    restoDepois.addAll(b);
+                    continue;
+                }
+                if (a.size() != b.size()) {
+                    mudanca.entradas.add(new Entradas(atual.disciplina, l, a.size(), b.size()));
+                }
+                compararVersoes(entrada.getKey(), a, b, mudanca, disciplinasAlteradas);
+            }
+            compararVersoes(entrada.getKey(), restoAntes, restoDepois, mudanca, disciplinasAlteradas);
+        }
+        for (Map.Entry<String, Ocorrencia> entrada : antes.entrySet()) {
+            if (!depois.containsKey(entrada.getKey())) {
+                mudanca.removidas.add(entrada.getValue());
+            }
+        }
+        return mudanca;
+    }
+
+    /**
+     * Compara as versões de uma disciplina em uma lista do curso. Versões com os mesmos dados
+     * nos dois lados são descartadas; as que sobram são pareadas na ordem em que aparecem e cada
+     * par é uma alteração, registrada uma vez por código e par de versões.
+     */
+    private void compararVersoes(String chave, List<Disciplina> antes, List<Disciplina> depois,
+                                 MudancaCurso mudanca, Map<String, Disciplina[]> disciplinasAlteradas) {
+        List<Disciplina> semPar = new ArrayList<>(antes);
+        List<Disciplina> novas = new ArrayList<>();
+        for (Disciplina d : depois) {
+            int igual = -1;
+            for (int i = 0; i < semPar.size() && igual < 0; i++) {
+                if (mesmosDados(semPar.get(i), d)) igual = i;
+            }
+            if (igual >= 0) {
+                semPar.remove(igual);
+            } else {
+                novas.add(d);
+            }
+        }
+        for (int i = 0; i < Math.min(semPar.size(), novas.size()); i++) {
+            Disciplina anterior = semPar.get(i), atual = novas.get(i);
+            String chaveMudanca = chave + '\u0000' + assinatura(anterior) + '\u0000' + assinatura(atual);
+            if (!mudanca.alteradas.contains(chaveMudanca)) {
+                mudanca.alteradas.add(chaveMudanca);
+            }
+            disciplinasAlteradas.putIfAbsent(chaveMudanca, new Disciplina[]{anterior, atual});
+        }
+    }
+
+    private static void compararCampo(List<String[]> campos, String nome, String antigo, String novo) {
+        if (!texto(antigo).equals(texto(novo))) {
+            campos.add(new String[]{nome, antigo, novo});
+        }
+    }
+
+    /**
+     * Disciplinas do curso por código, cada uma com as listas em que aparece (um bit por lista)
+     * e todas as entradas do código em cada lista.
+     */
+    private static Map<String, Ocorrencia> ocorrencias(Curso curso) {
+        Map<String, Ocorrencia> ocorrencias = new LinkedHashMap<>();
+        List<List<Disciplina>> listas = Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres);
+        for (int l = 0; l < listas.size(); l++) {
+            for (Disciplina d : listas.get(l)) {
+                Ocorrencia ocorrencia = ocorrencias.computeIfAbsent(chaveDisciplina(d), k -> new Ocorrencia(d));
+                ocorrencia.listas |= 1 << l;
+                ocorrencia.versoes.get(l).add(d);
+            }
+        }
+        return ocorrencias;
+    }
+
+    private static String chaveDisciplina(Disciplina d) {
+        // Without a code, the name is the best identity there is
+        return d.codigo != null && !d.codigo.isEmpty() ? d.codigo : '\u0000' + texto(d.nome);
+    }
+
+    private boolean mesmosDados(Disciplina a, Disciplina b) {
+        return texto(a.nome).equals(texto(b.nome)) && a.creditosAula == b.creditosAula
+            && a.creditosTrabalho == b.creditosTrabalho && a.cargaHoraria == b.cargaHoraria
+            && (!cargasCompletas || (a.cargaEstagio == b.cargaEstagio && a.cargaPCC == b.cargaPCC && a.cargaATPA == b.cargaATPA));
+    }
+
+    /**
+     * Os dados que {@link #mesmosDados} compara, como texto.
+     */
+    private String assinatura(Disciplina d) {
+        StringBuilder sb = new StringBuilder(texto(d.nome)).append('\u0000').append(d.creditosAula)
+            .append(',').append(d.creditosTrabalho).append(',').append(d.cargaHoraria);
+        if (cargasCompletas) {
+            sb.append(',').append(d.cargaEstagio).append(',').append(d.cargaPCC).append(',').append(d.cargaATPA);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hash do que o relatório compara no curso. Cada lista soma os hashes das suas disciplinas,
+     * então a ordem dentro da lista não muda o resultado.
+     */
+    private long hashCurso(Curso curso) {
+        long hash = misturar(hashTexto(curso.duracaoIdeal));
+        hash = misturar(hash ^ hashTexto(curso.duracaoMin));
+        hash = misturar(hash ^ hashTexto(curso.duracaoMax));
+        List<List<Disciplina>> listas = Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres);
+        for (List<Disciplina> lista : listas) {
+            long soma = 0;
+            for (Disciplina d : lista) {
+                soma += misturar(hashDisciplina(d));
+            }
+            hash = misturar(hash ^ soma) + lista.size();
+        }
+        return hash;
+    }
+
+    private long hashDisciplina(Disciplina d) {
+        long hash = misturar(hashTexto(chaveDisciplina(d)) ^ hashTexto(d.nome) * 31);
+        hash = misturar(hash ^ ((long) d.creditosAula << 32 | d.creditosTrabalho & 0xFFFFFFFFL));
+        hash = misturar(hash ^ d.cargaHoraria);
+        if (cargasCompletas) {
+            hash = misturar(hash ^ ((long) d.cargaEstagio << 32 | d.cargaPCC & 0xFFFFFFFFL));
+            hash = misturar(hash ^ d.cargaATPA);
+        }
+        return hash;
+    }
+
+    /**
+     * Hash de 64 bits de um texto: o hashCode da String, que ela guarda depois de calculado, e o
+     * tamanho. Os dois carregadores criam uma única String por texto repetido, então cada texto
+     * distinto é percorrido uma vez só. null conta como texto vazio, como no JSON exportado.
+     */
+    private static long hashTexto(String texto) {
+        if (texto == null) return 0;
+        return (long) texto.length() << 32 | texto.hashCode() & 0xFFFFFFFFL;
+    }
+
+    private static long misturar(long x) {
+        // SplitMix64 finaliser: every input bit reaches every output bit
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    private static String texto(String texto) {
+        return texto != null ? texto : "";
+    }
+
+    private interface OuvinteCursos {
+        void curso(Unidade unidade, String chave, Curso curso);
+    }
+
+    private static final class CursoAntigo {
+        final String unidade;
+        final String nome;
+        final long hash;
+        boolean visto;
+
+        CursoAntigo(String unidade, String nome, long hash) {
+            this.unidade = unidade;
+            this.nome = nome;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Uma disciplina em um curso e as listas em que aparece: bit 0 obrigatórias, 1 eletivas,
+     * 2 livres. {@code versoes} guarda, por lista, todas as entradas do código, já que o
+     * catálogo mantém versões diferentes de um mesmo código.
+     */
+    static final class Ocorrencia {
+        final Disciplina disciplina;
+        final List<List<Disciplina>> versoes = Arrays.asList(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        int listas;
+
+        Ocorrencia(Disciplina disciplina) {
+            this.disciplina = disciplina;
+        }
+
+        String nomesListas() {
+            StringJoiner nomes = new StringJoiner("+");
+            for (int l = 0; l < LISTAS.length; l++) {
+                if ((listas & 1 << l) != 0) nomes.add(LISTAS[l]);
+            }
+            return nomes.toString();
+        }
+    }
+
+    /**
+     * Número de entradas de um código em uma lista do curso, quando muda entre os arquivos.
+     */
+    static final class Entradas {
+        final Disciplina disciplina;
+        final int lista;
+        final int antes;
+        final int depois;
+
+        Entradas(Disciplina disciplina, int lista, int antes, int depois) {
+            this.disciplina = disciplina;
+            this.lista = lista;
+            this.antes = antes;
+            this.depois = depois;
+        }
+    }
+
+    /**
+     * O que mudou em um curso presente nos dois arquivos.
+     */
+    static final class MudancaCurso {
+        final String unidade;
+        final String nome;
+        // Field name, old value, new value
+        final List<String[]> campos = new ArrayList<>();
+        final List<Ocorrencia> adicionadas = new ArrayList<>();
+        final List<Ocorrencia> removidas = new ArrayList<>();
+        // Old and new occurrence of a discipline that changed lists
+        final List<Ocorrencia[]> movidas = new ArrayList<>();
+        final List<Entradas> entradas = new ArrayList<>();
+        // Keys of discipline changes (code and both versions); the details are in Relatorio.disciplinasAlteradas
+        final List<String> alteradas = new ArrayList<>();
+
+        MudancaCurso(String unidade, String nome) {
+            this.unidade = unidade;
+            this.nome = nome;
+        }
+    }
+
+    /**
+     * Resultado da comparação, gravado em JSON por {@link #gravar}.
+     */
+    public static final class Relatorio {
+        final String antigo;
+        final String novo;
+        int cursosAntigo;
+        int cursosNovo;
+        int cursosIguais;
+        final List<String> unidadesAdicionadas = new ArrayList<>();
+        final List<String> unidadesRemovidas = new ArrayList<>();
+        // Unit and name of each course
+        final List<String[]> cursosAdicionados = new ArrayList<>();
+        final List<String[]> cursosRemovidos = new ArrayList<>();
+        final List<MudancaCurso> cursosAlterados = new ArrayList<>();
+        // Discipline key and both versions -> old and new version
+        final Map<String, Disciplina[]> disciplinasAlteradas = new LinkedHashMap<>();
+
+        Relatorio(String antigo, String novo) {
+            this.antigo = antigo;
+            this.novo = novo;
+        }
+
+        public int cursosIguais() {
+            return cursosIguais;
+        }
+
+        public int cursosAdicionados() {
+            return cursosAdicionados.size();
+        }
+
+        public int cursosRemovidos() {
+            return cursosRemovidos.size();
+        }
+
+        public int cursosAlterados() {
+            return cursosAlterados.size();
+        }
+
+        public int disciplinasAlteradas() {
+            return disciplinasAlteradas.size();
+        }
+
+        public void gravar(String arquivo) throws IOException {
+            Files.write(Paths.get(arquivo), json().getBytes(StandardCharsets.UTF_8));
+        }
+
+        String json() {
+            EscritorJson json = new EscritorJson().objeto()
+                .campo("old", antigo)
+                .campo("new", novo)
+                .objeto("summary")
+                .campo("courses_old", cursosAntigo)
+                .campo("courses_new", cursosNovo)
+                .campo("unchanged", cursosIguais)
+                .campo("added", cursosAdicionados.size())
+                .campo("removed", cursosRemovidos.size())
+                .campo("changed", cursosAlterados.size())
+                .campo("disciplines_changed", disciplinasAlteradas.size())
+                .fim();
+
+            json.lista("units_added");
+            for (String unidade : unidadesAdicionadas) json.valor(unidade);
+            json.fim().lista("units_removed");
+            for (String unidade : unidadesRemovidas) json.valor(unidade);
+            json.fim();
+            cursos(json, "courses_added", cursosAdicionados);
+            cursos(json, "courses_removed", cursosRemovidos);
+
+            json.lista("courses_changed");
+            for (MudancaCurso mudanca : cursosAlterados) {
+                json.objeto().campo("unit", mudanca.unidade).campo("name", mudanca.nome);
+                json.lista("fields");
+                for (String[] campo : mudanca.campos) {
+                    json.objeto().campo("field", campo[0]).campo("old", campo[1]).campo("new", campo[2]).fim();
+                }
+                json.fim();
+                ocorrencias(json, "disciplines_added", mudanca.adicionadas);
+                ocorrencias(json, "disciplines_removed", mudanca.removidas);
+                json.lista("disciplines_moved");
+                for (Ocorrencia[] movida : mudanca.movidas) {
+                    json.objeto().campo("code", movida[1].disciplina.codigo).campo("name", movida[1].disciplina.nome)
+                        .campo("from", movida[0].nomesListas()).campo("to", movida[1].nomesListas()).fim();
+                }
+                json.fim().lista("disciplines_entries");
+                for (Entradas entradas : mudanca.entradas) {
+                    json.objeto().campo("code", entradas.disciplina.codigo).campo("name", entradas.disciplina.nome)
+                        .campo("list", LISTAS[entradas.lista]).campo("old", entradas.antes).campo("new", entradas.depois).fim();
+                }
+                json.fim().lista("disciplines_changed");
+                for (String chave : mudanca.alteradas) json.valor(disciplinasAlteradas.get(chave)[1].codigo);
+                json.fim().fim();
+            }
+            json.fim();
+
+            json.lista("disciplines_changed");
+            for (Disciplina[] versoes : disciplinasAlteradas.values()) {
+                Disciplina anterior = versoes[0], atual = versoes[1];
+                json.objeto().campo("code", atual.codigo).campo("name", atual.nome).lista("fields");
+                if (!texto(anterior.nome).equals(texto(atual.nome))) {
+                    json.objeto().campo("field", "name").campo("old", anterior.nome).campo("new", atual.nome).fim();
+                }
+                numero(json, "credits_class", anterior.creditosAula, atual.creditosAula);
+                numero(json, "credits_work", anterior.creditosTrabalho, atual.creditosTrabalho);
+                numero(json, "hours", anterior.cargaHoraria, atual.cargaHoraria);
+                numero(json, "internship_hours", anterior.cargaEstagio, atual.cargaEstagio);
+                numero(json, "pcc_hours", anterior.cargaPCC, atual.cargaPCC);
+                numero(json, "atpa_hours", anterior.cargaATPA, atual.cargaATPA);
+                json.fim().fim();
+            }
+            return json.fim().fim().toString();
+        }
+
+        private static void cursos(EscritorJson json, String nome, List<String[]> cursos) {
+            json.lista(nome);
+            for (String[] curso : cursos) {
+                json.objeto().campo("unit", curso[0]).campo("name", curso[1]).fim();
+            }
+            json.fim();
+        }
+
+        private static void ocorrencias(EscritorJson json, String nome, List<Ocorrencia> ocorrencias) {
+            json.lista(nome);
+            for (Ocorrencia ocorrencia : ocorrencias) {
+                json.objeto().campo("code", ocorrencia.disciplina.codigo).campo("name", ocorrencia.disciplina.nome)
+                    .campo("list", ocorrencia.nomesListas()).fim();
+            }
+            json.fim();
+        }
+
+        private static void numero(EscritorJson json, String campo, int anterior, int atual) {
+            if (anterior != atual) {
+                json.objeto().campo("field", campo).campo("old", anterior).campo("new", atual).fim();
+            }
+        }
+    }
+}
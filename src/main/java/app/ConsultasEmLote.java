@@ -0,0 +1,184 @@
+package app;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * ConsultasEmLote executa um arquivo de comandos de consulta, um por linha, como no modo
+ * interativo (linhas vazias e começadas por '#' são ignoradas). As consultas só leem o modelo,
+ * então rodam em paralelo em várias threads; cada uma escreve em um buffer próprio, e nada
+ * vai para o console.
+ *
+ * Os resultados são gravados na ordem do arquivo, em JSON Lines (um objeto por linha) ou, se o
+ * nome de saída terminar em ".csv", em CSV, com o tempo de cada consulta em microssegundos.
+ */
+class ConsultasEmLote {
+    static final String STATUS_OK = "ok";
+    static final String STATUS_DESCONHECIDO = "unknown";
+    static final String STATUS_ERRO = "error";
+
+    private final ConsultasManager consultas;
+    private final int threads;
+
+    ConsultasEmLote(ConsultasManager consultas, int threads) {
+        this.consultas = consultas;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Comandos do arquivo, com o número da linha de cada um.
+     */
+    static List<Comando> lerComandos(String arquivo) throws IOException {
+        List<Comando> comandos = new ArrayList<>();
+        List<String> linhas = Files.readAllLines(Paths.get(arquivo), StandardCharsets.UTF_8);
+        for (int i = 0; i < linhas.size(); i++) {
+            String linha = linhas.get(i).trim();
+            if (linha.isEmpty() || linha.startsWith("#")) continue;
+            String[] parts = linha.split("\\s+", 2);
+            comandos.add(new Comando(i + 1, parts[0].toLowerCase(), parts.length > 1 ? parts[1] : ""));
+        }
+        return comandos;
+    }
+
+    /**
+     * Executa os comandos e devolve os resultados na mesma ordem.
+     */
+    List<Resultado> executar(List<Comando> comandos) throws InterruptedException {
+        if (threads == 1) {
+            List<Resultado> resultados = new ArrayList<>(comandos.size());
+            for (Comando comando : comandos) {
+                resultados.add(executar(comando));
+            }
+            return resultados;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Resultado>> pendentes = new ArrayList<>(comandos.size());
+            for (Comando comando : comandos) {
+                pendentes.add(executor.submit(() -> executar(comando)));
+            }
+            List<Resultado> resultados = new ArrayList<>(comandos.size());
+            for (Future<Resultado> pendente : pendentes) {
+                try {
+                    resultados.add(pendente.get());
+                } catch (ExecutionException e) {
+                    // executar(Comando) already turns query failures into results
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Resultado executar(Comando comando) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        String status;
+        String erro = null;
+        long inicio = System.nanoTime();
+        try {
+            status = consultas.consultar(comando.comando, comando.parametro, out) ? STATUS_OK : STATUS_DESCONHECIDO;
+        } catch (RuntimeException e) {
+            status = STATUS_ERRO;
+            erro = String.valueOf(e.getMessage());
+        }
+        long micros = (System.nanoTime() - inicio) / 1_000;
+        out.flush();
+        return new Resultado(comando, status, micros, buffer.toString(StandardCharsets.UTF_8), erro);
+    }
+
+    static void gravar(List<Resultado> resultados, String arquivo) throws IOException {
+        boolean csv = arquivo.endsWith(".csv");
+        try (Writer writer = Files.newBufferedWriter(Paths.get(arquivo), StandardCharsets.UTF_8)) {
+            if (csv) {
+                writer.write("line,command,argument,status,micros,output,error\n");
+            }
+            for (Resultado resultado : resultados) {
+                if (csv) {
+                    gravarCsv(writer, resultado);
+                } else {
+                    gravarJson(writer, resultado);
+                }
+            }
+        }
+    }
+
+    private static void gravarJson(Writer writer, Resultado resultado) throws IOException {
+        EscritorJson json = new EscritorJson().objeto()
+            .campo("line", resultado.comando.linha)
+            .campo("command", resultado.comando.comando)
+            .campo("argument", resultado.comando.parametro)
+            .campo("status", resultado.status)
+            .campo("micros", resultado.micros)
+            .campo("output", resultado.saida);
+        if (resultado.erro != null) {
+            json.campo("error", resultado.erro);
+        }
+        writer.write(json.fim().toString());
+        writer.write('\n');
+    }
+
+    private static void gravarCsv(Writer writer, Resultado resultado) throws IOException {
+        writer.write(Integer.toString(resultado.comando.linha));
+        writer.write(',');
+        writer.write(textoCsv(resultado.comando.comando));
+        writer.write(',');
+        writer.write(textoCsv(resultado.comando.parametro));
+        writer.write(',');
+        writer.write(resultado.status);
+        writer.write(',');
+        writer.write(Long.toString(resultado.micros));
+        writer.write(',');
+        writer.write(textoCsv(resultado.saida));
+        writer.write(',');
+        writer.write(resultado.erro != null ? textoCsv(resultado.erro) : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Campo CSV entre aspas quando tem vírgula, aspas ou quebra de linha (a saída das consultas
+     * quase sempre tem).
+     */
+    private static String textoCsv(String valor) {
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+
+    static final class Comando {
+        final int linha;
+        final String comando;
+        final String parametro;
+
+        Comando(int linha, String comando, String parametro) {
+            this.linha = linha;
+            this.comando = comando;
+            this.parametro = parametro;
+        }
+    }
+
+    static final class Resultado {
+        final Comando comando;
+        final String status;
+        final long micros;
+        final String saida;
+        final String erro;
+
+        Resultado(Comando comando, String status, long micros, String saida, String erro) {
+            this.comando = comando;
+            this.status = status;
+            this.micros = micros;
+            this.saida = saida;
+            this.erro = erro;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package app;
 
 import models.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * ConsultasManager fornece capacidades de consulta interativa para dados de cursos USP processados.
@@ -11,9 +19,204 @@ public class ConsultasManager {
     private List<Unidade> unidades;
     private Scanner scanner;
 
+    private static final int LIMITE_SUGESTOES = 10;
+    private static final int FAIXAS_HISTOGRAMA = 10;
+    private static final int LIMITE_LISTAGEM = 50;
+    private static final int LIMITE_SIMILARES = 10;
+    static final long LIMITE_CACHE_PADRAO = 64L << 20;
+
+    // Names are compared by their normalized key (no accents, lowercase), computed once per name
+    private final ChaveBusca chaves = new ChaveBusca();
+    private final List<String> chavesUnidades = new ArrayList<>();
+
+    // Substring indexes over the keys, built once; ids follow the unit/course/list order
+    private final IndiceTrigramas indiceCursos = new IndiceTrigramas();
+    private final List<Curso> cursosIndexados = new ArrayList<>();
+    private final List<String> chavesCursos = new ArrayList<>();
+    private final IndiceTrigramas indiceDisciplinas = new IndiceTrigramas();
+    private final List<Curso> cursoDaOcorrencia = new ArrayList<>();
+    private final List<Disciplina> disciplinaDaOcorrencia = new ArrayList<>();
+
+    // Prefix tries over the same keys, for autocomplete
+    private final TriePrefixos<String> prefixosUnidades = new TriePrefixos<>();
+    private final TriePrefixos<String> prefixosCursos = new TriePrefixos<>();
+    private final TriePrefixos<String> prefixosDisciplinas = new TriePrefixos<>();
+
+    // Exact-match lookups by key: point queries answered without scanning
+    private final Map<String, Unidade> unidadesPorNome = new HashMap<>();
+    private final Map<String, List<Curso>> cursosPorNome = new HashMap<>();
+    private final Map<String, OfertaDisciplina> ofertasPorCodigo = new HashMap<>();
+    // Caller's unit -> own copy; courses are added to the copy only
+    private final Map<Unidade, Unidade> copias = new IdentityHashMap<>();
+
+    // Queries read under the read lock; adicionarCurso is the only writer
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    // Counts and credit/workload distributions, computed once and then kept up to date
+    private final MotorEstatisticas estatisticas;
+
+    // Rendered results of the heavier commands, by command and normalized argument
+    private final CacheConsultas<Listagem> cache;
+
+    // Column copy of the numeric fields for catalogue-wide filters and sorts, built on first use
+    private ColunasDisciplinas colunas;
+    // Curriculum bitsets for similarity queries, built on first use
+    private SimilaridadeCursos similaridade;
+
     public ConsultasManager(List<Unidade> unidades) {
-        this.unidades = unidades;
+        this(unidades, LIMITE_CACHE_PADRAO);
+    }
+
+    /**
+     * @param limiteCacheBytes memória estimada para o cache de resultados; 0 desliga o cache
+     */
+    public ConsultasManager(List<Unidade> unidades, long limiteCacheBytes) {
+        // Own copies of the list and of each unit, so courses added later do not change the caller's units
+        this.unidades = new ArrayList<>(unidades.size());
         this.scanner = new Scanner(System.in);
+        this.cache = new CacheConsultas<>(limiteCacheBytes, listagem -> 2L * listagem.texto.length());
+        for (Unidade original : unidades) {
+            Unidade unidade = copiar(original);
+            unidade.cursos.addAll(original.cursos);
+            this.unidades.add(unidade);
+            indexarUnidade(unidade);
+            for (Curso curso : unidade.cursos) {
+                indexar(curso);
+            }
+        }
+        this.estatisticas = MotorEstatisticas.calcular(this.unidades, true);
+    }
+
+    /**
+     * Acrescenta um curso à unidade (e a unidade à lista, se for nova) depois da criação,
+     * atualizando índices e estatísticas sem recalcular o que já estava pronto. Nas buscas,
+     * o curso aparece depois dos que já existiam. Os resultados em cache são descartados.
+     *
+     * O curso entra na cópia da unidade que este ConsultasManager guarda; a Unidade recebida
+     * não é alterada. De uma unidade nova, só os cursos acrescentados por aqui são
+     * considerados. A atualização espera as consultas em andamento terminarem e segura as
+     * próximas até acabar.
+     */
+    void adicionarCurso(Unidade unidade, Curso curso) {
+        trava.writeLock().lock();
+        try {
+            Unidade propria = copias.get(unidade);
+            if (propria == null) {
+                propria = copiar(unidade);
+                unidades.add(propria);
+                indexarUnidade(propria);
+            }
+            propria.cursos.add(curso);
+            indexar(curso);
+            estatisticas.adicionarCurso(propria, curso);
+            cache.invalidar();
+            synchronized (this) {
+                colunas = null;
+                similaridade = null;
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private Unidade copiar(Unidade original) {
+        Unidade copia = new Unidade(original.nome);
+        copias.put(original, copia);
+        return copia;
+    }
+
+    /**
+     * Executa uma leitura do modelo fora de {@link #consultar} (como as do ServidorConsultas)
+     * sob a trava de leitura, para que não cruze com {@link #adicionarCurso}.
+     */
+    <T> T lendo(Supplier<T> leitura) {
+        trava.readLock().lock();
+        try {
+            return leitura.get();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    List<Unidade> unidades() {
+        return Collections.unmodifiableList(unidades);
+    }
+
+    MotorEstatisticas estatisticas() {
+        return estatisticas;
+    }
+
+    synchronized ColunasDisciplinas colunas() {
+        if (colunas == null) {
+            colunas = ColunasDisciplinas.montar(unidades);
+        }
+        return colunas;
+    }
+
+    synchronized SimilaridadeCursos similaridade() {
+        if (similaridade == null) {
+            similaridade = SimilaridadeCursos.montar(unidades);
+        }
+        return similaridade;
+    }
+
+    private void indexarUnidade(Unidade unidade) {
+        String chave = unidade.nome != null ? chaves.chave(unidade.nome) : "";
+        chavesUnidades.add(chave);
+        if (unidade.nome != null) {
+            prefixosUnidades.adicionar(chave, unidade.nome);
+            unidadesPorNome.putIfAbsent(chave, unidade);
+        }
+    }
+
+    private void indexar(Curso curso) {
+        int idCurso = cursosIndexados.size();
+        cursosIndexados.add(curso);
+        chavesCursos.add(curso.nome != null ? chaves.chave(curso.nome) : "");
+        if (curso.nome != null) {
+            String chave = chavesCursos.get(idCurso);
+            indiceCursos.adicionar(idCurso, chave);
+            prefixosCursos.adicionar(chave, curso.nome);
+            cursosPorNome.computeIfAbsent(chave, k -> new ArrayList<>(1)).add(curso);
+        }
+
+        for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+            for (Disciplina disciplina : lista) {
+                int idOcorrencia = disciplinaDaOcorrencia.size();
+                cursoDaOcorrencia.add(curso);
+                disciplinaDaOcorrencia.add(disciplina);
+                if (disciplina.codigo != null) {
+                    String chave = chaves.chave(disciplina.codigo);
+                    indiceDisciplinas.adicionar(idOcorrencia, chave);
+                    prefixosDisciplinas.adicionar(chave, disciplina.codigo);
+                    indexarCodigo(chave, disciplina, curso);
+                }
+                if (disciplina.nome != null) {
+                    String chave = chaves.chave(disciplina.nome);
+                    indiceDisciplinas.adicionar(idOcorrencia, chave);
+                    prefixosDisciplinas.adicionar(chave, disciplina.nome);
+                }
+            }
+        }
+    }
+
+    private void indexarCodigo(String chave, Disciplina disciplina, Curso curso) {
+        OfertaDisciplina oferta = ofertasPorCodigo.computeIfAbsent(chave, k -> new OfertaDisciplina());
+        // Usually one shared instance per code; a version with different data is kept too
+        boolean conhecida = false;
+        for (Disciplina versao : oferta.versoes) {
+            if (versao == disciplina || CatalogoDisciplinas.mesmosDados(versao, disciplina)) {
+                conhecida = true;
+                break;
+            }
+        }
+        if (!conhecida) {
+            oferta.versoes.add(disciplina);
+        }
+        // A course may list the same discipline in more than one category
+        if (oferta.cursos.isEmpty() || oferta.cursos.get(oferta.cursos.size() - 1) != curso) {
+            oferta.cursos.add(curso);
+        }
     }
 
     public void startInteractiveMode() {
@@ -24,9 +227,16 @@ public class ConsultasManager {
         System.out.println("3. search-course [nome] - Buscar cursos por nome");
         System.out.println("4. search-discipline [nome] - Buscar disciplinas por nome ou código");
         System.out.println("5. course-details [curso] - Mostrar informações detalhadas sobre um curso");
-        System.out.println("6. statistics - Mostrar estatísticas gerais");
-        System.out.println("7. export [arquivo] - Exportar dados para CSV");
-        System.out.println("8. exit - Sair do sistema");
+        System.out.println("6. statistics [unidade ou curso] - Mostrar estatísticas gerais, de uma unidade ou de um curso");
+        System.out.println("7. export [arquivo] [colunas] - Exportar dados para CSV (.csv.gz para comprimir)");
+        System.out.println("8. autocomplete [prefixo] - Sugerir nomes que começam com o prefixo");
+        System.out.println("9. discipline-code [código] - Mostrar uma disciplina e os cursos que a oferecem");
+        System.out.println("10. workload [mínimo] [máximo] - Listar disciplinas com carga horária na faixa, da maior para a menor");
+        System.out.println("11. cache-stats - Mostrar acertos, faltas e uso de memória do cache de consultas");
+        System.out.println("12. similar-courses [curso] - Cursos com mais disciplinas obrigatórias em comum");
+        System.out.println("13. similar-pairs [quantidade] - Pares de cursos mais parecidos de todo o catálogo");
+        System.out.println("14. shared-disciplines [curso] | [curso] - Disciplinas em comum entre dois cursos");
+        System.out.println("15. exit - Sair do sistema");
         System.out.println();
 
         while (true) {
@@ -41,32 +251,19 @@ public class ConsultasManager {
 
             try {
                 switch (command) {
-                    case "list-units":
-                        listUnits();
-                        break;
-                    case "list-courses":
-                        listCourses(parameter);
-                        break;
-                    case "search-course":
-                        searchCourses(parameter);
-                        break;
-                    case "search-discipline":
-                        searchDisciplines(parameter);
-                        break;
-                    case "course-details":
-                        showCourseDetails(parameter);
-                        break;
-                    case "statistics":
-                        showStatistics();
-                        break;
                     case "export":
-                        exportData(parameter);
+                        lendo(() -> {
+                            exportData(parameter);
+                            return null;
+                        });
                         break;
                     case "exit":
                         System.out.println("Saindo do sistema de consultas. Até logo!");
                         return;
                     default:
-                        System.out.println("Comando desconhecido: " + command);
+                        if (!consultar(command, parameter, System.out)) {
+                            System.out.println("Comando desconhecido: " + command);
+                        }
                         break;
                 }
             } catch (Exception e) {
@@ -77,226 +274,703 @@ public class ConsultasManager {
         }
     }
 
-    private void listUnits() {
-        System.out.println("Unidades Acadêmicas (" + unidades.size() + " total):");
+    /**
+     * Executa um comando de consulta (os que só leem o modelo, sem export nem exit), escrevendo
+     * o resultado em {@code out}. Devolve false se o comando não é de consulta.
+     *
+     * As consultas só leem o modelo, então várias delas podem rodar ao mesmo tempo, cada uma
+     * com a sua saída; todas ficam sob a trava de leitura, que só {@link #adicionarCurso} toma
+     * para escrita.
+     */
+    boolean consultar(String command, String parameter, PrintStream out) {
+        trava.readLock().lock();
+        try {
+            return executarConsulta(command, parameter, out);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private boolean executarConsulta(String command, String parameter, PrintStream out) {
+        switch (command) {
+            case "list-units":
+                listUnits(out);
+                return true;
+            case "list-courses":
+                listCourses(parameter, out);
+                return true;
+            case "search-course":
+                searchCourses(parameter, out);
+                return true;
+            case "search-discipline":
+                searchDisciplines(parameter, out);
+                return true;
+            case "course-details":
+                showCourseDetails(parameter, out);
+                return true;
+            case "statistics":
+                showStatistics(parameter, out);
+                return true;
+            case "autocomplete":
+                autocomplete(parameter, out);
+                return true;
+            case "discipline-code":
+                showDisciplineByCode(parameter, out);
+                return true;
+            case "workload":
+                out.print(emCache("workload", parameter, saida -> printWorkload(parameter, saida)).texto);
+                return true;
+            case "cache-stats":
+                showCacheStats(out);
+                return true;
+            case "similar-courses":
+                showSimilarCourses(parameter, out);
+                return true;
+            case "similar-pairs":
+                out.print(emCache("similar-pairs", parameter, saida -> printSimilarPairs(parameter, saida)).texto);
+                return true;
+            case "shared-disciplines":
+                showSharedDisciplines(parameter, out);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void listUnits(PrintStream out) {
+        out.println("Unidades Acadêmicas (" + unidades.size() + " total):");
         for (int i = 0; i < unidades.size(); i++) {
             Unidade unidade = unidades.get(i);
-            System.out.printf("%d. %s (%d cursos)\n", 
+            out.printf("%d. %s (%d cursos)\n", 
                 i + 1, unidade.nome, unidade.cursos.size());
         }
     }
 
-    private void listCourses(String unitName) {
-        if (unitName.isEmpty()) {
-            System.out.println("Todos os cursos:");
-            for (Unidade unidade : unidades) {
-                System.out.println("\n" + unidade.nome + ":");
-                for (Curso curso : unidade.cursos) {
-                    int totalDisciplines = curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
-                    System.out.printf("  - %s (%d disciplinas)\n", curso.nome, totalDisciplines);
+    private void listCourses(String unitName, PrintStream out) {
+        Listagem listagem = emCache("list-courses", unitName, saida -> {
+            List<Unidade> foundUnits = unitName.isEmpty() ? unidades : buscarUnidades(unitName);
+            for (Unidade foundUnit : foundUnits) {
+                if (unitName.isEmpty()) {
+                    saida.println("\n" + foundUnit.nome + ":");
+                } else {
+                    if (foundUnits.size() > 1) saida.println();
+                    saida.println("Cursos em " + foundUnit.nome + ":");
                 }
-            }
-        } else {
-            Unidade foundUnit = findUnitByName(unitName);
-            if (foundUnit != null) {
-                System.out.println("Cursos em " + foundUnit.nome + ":");
                 for (Curso curso : foundUnit.cursos) {
                     int totalDisciplines = curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
-                    System.out.printf("  - %s (%d disciplinas)\n", curso.nome, totalDisciplines);
+                    saida.printf("  - %s (%d disciplinas)\n", curso.nome, totalDisciplines);
                 }
-            } else {
-                System.out.println("Unidade não encontrada: " + unitName);
             }
+            return foundUnits.size();
+        });
+
+        if (unitName.isEmpty()) {
+            out.println("Todos os cursos:");
+        } else if (listagem.quantidade == 0) {
+            out.println("Unidade não encontrada: " + unitName);
+            return;
+        } else if (listagem.quantidade > 1) {
+            out.println(listagem.quantidade + " unidades correspondem a '" + unitName + "' (da mais à menos relevante):");
         }
+        out.print(listagem.texto);
     }
 
-    private void searchCourses(String searchTerm) {
-        if (searchTerm.isEmpty()) {
-            System.out.println("Por favor, forneça um termo de busca.");
-            return;
+    /**
+     * Cursos cujo nome contém o termo, sem diferenciar maiúsculas nem acentos, na ordem das unidades.
+     */
+    List<Curso> buscarCursos(String termo) {
+        List<Curso> encontrados = new ArrayList<>();
+        for (int id : indiceCursos.buscar(ChaveBusca.normalizar(termo))) {
+            encontrados.add(cursosIndexados.get(id));
         }
+        return encontrados;
+    }
 
-        List<Curso> matches = new ArrayList<>();
-        for (Unidade unidade : unidades) {
-            for (Curso curso : unidade.cursos) {
-                if (curso.nome.toLowerCase().contains(searchTerm.toLowerCase())) {
-                    matches.add(curso);
-                }
-            }
+    void searchCourses(String searchTerm, PrintStream out) {
+        if (searchTerm.isEmpty()) {
+            out.println("Por favor, forneça um termo de busca.");
+            return;
         }
 
-        if (matches.isEmpty()) {
-            System.out.println("Nenhum curso encontrado correspondente a: " + searchTerm);
-        } else {
-            System.out.println("Encontrado(s) " + matches.size() + " curso(s) correspondente(s) a '" + searchTerm + "':");
-            for (Curso curso : matches) {
+        Listagem matches = emCache("search-course", searchTerm, saida -> {
+            List<Curso> cursos = buscarCursos(searchTerm);
+            for (Curso curso : cursos) {
                 int totalDisciplines = curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
-                System.out.printf("  - %s (%s) - %d disciplinas\n", 
+                saida.printf("  - %s (%s) - %d disciplinas\n", 
                     curso.nome, curso.unidade, totalDisciplines);
             }
+            return cursos.size();
+        });
+
+        if (matches.quantidade == 0) {
+            out.println("Nenhum curso encontrado correspondente a: " + searchTerm);
+        } else {
+            out.println("Encontrado(s) " + matches.quantidade + " curso(s) correspondente(s) a '" + searchTerm + "':");
+            out.print(matches.texto);
         }
     }
 
-    private void searchDisciplines(String searchTerm) {
+    /**
+     * Disciplinas cujo código ou nome contém o termo (sem diferenciar maiúsculas nem acentos),
+     * agrupadas por "código - nome", com os cursos em que aparecem (um por ocorrência).
+     */
+    Map<String, List<String>> buscarDisciplinas(String termo) {
+        // Occurrences come back in scan order, so the HashMap sees the same insertions as a full scan
+        Map<String, List<String>> encontradas = new HashMap<>();
+        buscarOcorrencias(termo, (disciplina, curso) -> {
+            String key = disciplina.codigo + " - " + disciplina.nome;
+            encontradas.computeIfAbsent(key, k -> new ArrayList<>()).add(curso.nome);
+        });
+        return encontradas;
+    }
+
+    /**
+     * Cada ocorrência (disciplina em um curso) cujo código ou nome contém o termo, na ordem
+     * das unidades e cursos.
+     */
+    void buscarOcorrencias(String termo, BiConsumer<Disciplina, Curso> ocorrencia) {
+        for (int id : indiceDisciplinas.buscar(ChaveBusca.normalizar(termo))) {
+            ocorrencia.accept(disciplinaDaOcorrencia.get(id), cursoDaOcorrencia.get(id));
+        }
+    }
+
+    void searchDisciplines(String searchTerm, PrintStream out) {
         if (searchTerm.isEmpty()) {
-            System.out.println("Por favor, forneça um termo de busca.");
+            out.println("Por favor, forneça um termo de busca.");
             return;
         }
 
-        Map<String, List<String>> disciplineMap = new HashMap<>();
-        
-        for (Unidade unidade : unidades) {
-            for (Curso curso : unidade.cursos) {
-                List<Disciplina> allDisciplines = new ArrayList<>();
-                allDisciplines.addAll(curso.obrigatorias);
-                allDisciplines.addAll(curso.optativasEletivas);
-                allDisciplines.addAll(curso.optativasLivres);
-                
-                for (Disciplina disciplina : allDisciplines) {
-                    if (disciplina.codigo.toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        disciplina.nome.toLowerCase().contains(searchTerm.toLowerCase())) {
-                        
-                        String key = disciplina.codigo + " - " + disciplina.nome;
-                        disciplineMap.computeIfAbsent(key, k -> new ArrayList<>()).add(curso.nome);
-                    }
-                }
+        Listagem disciplinas = emCache("search-discipline", searchTerm, saida -> {
+            Map<String, List<String>> disciplineMap = buscarDisciplinas(searchTerm);
+            for (Map.Entry<String, List<String>> entry : disciplineMap.entrySet()) {
+                saida.printf("  - %s\n", entry.getKey());
+                saida.printf("    Encontrada em: %s\n", String.join(", ", entry.getValue()));
             }
-        }
+            return disciplineMap.size();
+        });
 
-        if (disciplineMap.isEmpty()) {
-            System.out.println("Nenhuma disciplina encontrada correspondente a: " + searchTerm);
+        if (disciplinas.quantidade == 0) {
+            out.println("Nenhuma disciplina encontrada correspondente a: " + searchTerm);
         } else {
-            System.out.println("Disciplinas encontradas correspondentes a '" + searchTerm + "':");
-            for (Map.Entry<String, List<String>> entry : disciplineMap.entrySet()) {
-                System.out.printf("  - %s\n", entry.getKey());
-                System.out.printf("    Encontrada em: %s\n", String.join(", ", entry.getValue()));
-            }
+            out.println("Disciplinas encontradas correspondentes a '" + searchTerm + "':");
+            out.print(disciplinas.texto);
         }
     }
 
-    private void showCourseDetails(String courseName) {
+    private void showCourseDetails(String courseName, PrintStream out) {
         if (courseName.isEmpty()) {
-            System.out.println("Por favor, forneça o nome de um curso.");
+            out.println("Por favor, forneça o nome de um curso.");
             return;
         }
 
-        Curso foundCourse = null;
-        for (Unidade unidade : unidades) {
-            for (Curso curso : unidade.cursos) {
-                if (curso.nome.toLowerCase().contains(courseName.toLowerCase())) {
-                    foundCourse = curso;
-                    break;
-                }
-            }
-            if (foundCourse != null) break;
-        }
-
-        if (foundCourse == null) {
-            System.out.println("Curso não encontrado: " + courseName);
+        List<Curso> matches = buscarCursosPorNome(courseName);
+        if (matches.isEmpty()) {
+            out.println("Curso não encontrado: " + courseName);
             return;
         }
+        if (matches.size() > 1) {
+            out.println(matches.size() + " cursos correspondem a '" + courseName + "' (do mais ao menos relevante):");
+            for (Curso curso : matches) {
+                out.printf("  - %s (%s)\n", curso.nome, curso.unidade);
+            }
+            out.println("Mostrando o primeiro; use o nome completo para ver outro.\n");
+        }
+        Curso foundCourse = matches.get(0);
 
-        System.out.println("=== Detalhes do Curso ===");
-        System.out.println("Nome: " + foundCourse.nome);
-        System.out.println("Unidade: " + foundCourse.unidade);
-        System.out.println("Duração Ideal: " + (foundCourse.duracaoIdeal != null ? foundCourse.duracaoIdeal : "N/A"));
-        System.out.println("Duração Mínima: " + (foundCourse.duracaoMin != null ? foundCourse.duracaoMin : "N/A"));
-        System.out.println("Duração Máxima: " + (foundCourse.duracaoMax != null ? foundCourse.duracaoMax : "N/A"));
+        out.println("=== Detalhes do Curso ===");
+        out.println("Nome: " + foundCourse.nome);
+        out.println("Unidade: " + foundCourse.unidade);
+        out.println("Duração Ideal: " + (foundCourse.duracaoIdeal != null ? foundCourse.duracaoIdeal : "N/A"));
+        out.println("Duração Mínima: " + (foundCourse.duracaoMin != null ? foundCourse.duracaoMin : "N/A"));
+        out.println("Duração Máxima: " + (foundCourse.duracaoMax != null ? foundCourse.duracaoMax : "N/A"));
         
-        System.out.println("\nDisciplinas Obrigatórias (" + foundCourse.obrigatorias.size() + "):");
+        out.println("\nDisciplinas Obrigatórias (" + foundCourse.obrigatorias.size() + "):");
         for (Disciplina d : foundCourse.obrigatorias) {
-            System.out.printf("  - %s - %s\n", d.codigo, d.nome);
+            out.printf("  - %s - %s\n", d.codigo, d.nome);
         }
         
-        System.out.println("\nDisciplinas Optativas Eletivas (" + foundCourse.optativasEletivas.size() + "):");
+        out.println("\nDisciplinas Optativas Eletivas (" + foundCourse.optativasEletivas.size() + "):");
         for (Disciplina d : foundCourse.optativasEletivas) {
-            System.out.printf("  - %s - %s\n", d.codigo, d.nome);
+            out.printf("  - %s - %s\n", d.codigo, d.nome);
         }
         
-        System.out.println("\nDisciplinas Optativas Livres (" + foundCourse.optativasLivres.size() + "):");
+        out.println("\nDisciplinas Optativas Livres (" + foundCourse.optativasLivres.size() + "):");
         for (Disciplina d : foundCourse.optativasLivres) {
-            System.out.printf("  - %s - %s\n", d.codigo, d.nome);
+            out.printf("  - %s - %s\n", d.codigo, d.nome);
         }
     }
 
-    private void showStatistics() {
-        int totalCourses = 0;
-        int totalMandatory = 0;
-        int totalElectives = 0;
-        int totalFreeElectives = 0;
-        
-        for (Unidade unidade : unidades) {
-            totalCourses += unidade.cursos.size();
-            for (Curso curso : unidade.cursos) {
-                totalMandatory += curso.obrigatorias.size();
-                totalElectives += curso.optativasEletivas.size();
-                totalFreeElectives += curso.optativasLivres.size();
+    /**
+     * Estatísticas do catálogo inteiro ou, com um nome, da unidade ou do curso correspondente.
+     * Tudo vem do MotorEstatisticas, sem percorrer as disciplinas de novo.
+     */
+    void showStatistics(String scope, PrintStream out) {
+        Listagem listagem = emCache("statistics", scope, saida -> printStatistics(scope, saida));
+        if (listagem.quantidade == 0) {
+            out.println("Nenhuma unidade ou curso encontrado: " + scope);
+            return;
+        }
+        out.print(listagem.texto);
+    }
+
+    /**
+     * Escreve as estatísticas do escopo e devolve 1, ou 0 se nenhuma unidade ou curso corresponde.
+     */
+    private int printStatistics(String scope, PrintStream out) {
+        if (scope.isEmpty()) {
+            MotorEstatisticas.Resumo geral = estatisticas.geral();
+            out.println("=== Estatísticas de Cursos USP ===");
+            out.println("Unidades Acadêmicas: " + geral.unidades);
+            out.println("Total de Cursos: " + geral.cursos);
+            printCounts(out, geral);
+
+            if (geral.cursos > 0) {
+                out.printf("Média de Cursos por Unidade: %.1f\n", (double) geral.cursos / geral.unidades);
+                out.printf("Média de Disciplinas por Curso: %.1f\n", (double) geral.disciplinas() / geral.cursos);
             }
+            printDistributions(out, geral);
+            return 1;
         }
 
-        System.out.println("=== Estatísticas de Cursos USP ===");
-        System.out.println("Unidades Acadêmicas: " + unidades.size());
-        System.out.println("Total de Cursos: " + totalCourses);
-        System.out.println("Total de Disciplinas: " + (totalMandatory + totalElectives + totalFreeElectives));
-        System.out.println("  - Obrigatórias: " + totalMandatory);
-        System.out.println("  - Eletivas: " + totalElectives);
-        System.out.println("  - Optativas Livres: " + totalFreeElectives);
-        
-        if (totalCourses > 0) {
-            System.out.printf("Média de Cursos por Unidade: %.1f\n", (double) totalCourses / unidades.size());
-            System.out.printf("Média de Disciplinas por Curso: %.1f\n", 
-                (double) (totalMandatory + totalElectives + totalFreeElectives) / totalCourses);
+        List<Unidade> foundUnits = buscarUnidades(scope);
+        if (!foundUnits.isEmpty()) {
+            Unidade unidade = foundUnits.get(0);
+            MotorEstatisticas.Resumo resumo = estatisticas.daUnidade(unidade);
+            out.println("=== Estatísticas de " + unidade.nome + " ===");
+            out.println("Total de Cursos: " + resumo.cursos);
+            printCounts(out, resumo);
+            if (resumo.cursos > 0) {
+                out.printf("Média de Disciplinas por Curso: %.1f\n", (double) resumo.disciplinas() / resumo.cursos);
+            }
+            printDistributions(out, resumo);
+            printOtherMatches(out, foundUnits.size() - 1, "outra(s) unidade(s) também corresponde(m)");
+            return 1;
         }
+
+        List<Curso> foundCourses = buscarCursosPorNome(scope);
+        if (!foundCourses.isEmpty()) {
+            Curso curso = foundCourses.get(0);
+            MotorEstatisticas.Resumo resumo = estatisticas.doCurso(curso);
+            out.println("=== Estatísticas de " + curso.nome + " (" + curso.unidade + ") ===");
+            printCounts(out, resumo);
+            printDistributions(out, resumo);
+            printOtherMatches(out, foundCourses.size() - 1, "outro(s) curso(s) também corresponde(m)");
+            return 1;
+        }
+        return 0;
+    }
+
+    private void printCounts(PrintStream out, MotorEstatisticas.Resumo resumo) {
+        out.println("Total de Disciplinas: " + resumo.disciplinas());
+        out.println("  - Obrigatórias: " + resumo.obrigatorias);
+        out.println("  - Eletivas: " + resumo.eletivas);
+        out.println("  - Optativas Livres: " + resumo.livres);
     }
 
-    private void exportData(String filename) {
+    private void printDistributions(PrintStream out, MotorEstatisticas.Resumo resumo) {
+        if (resumo.disciplinas() == 0) return;
+        printDistribution(out, "Créditos Aula", resumo.creditosAula, "");
+        printDistribution(out, "Créditos Trabalho", resumo.creditosTrabalho, "");
+        printDistribution(out, "Carga Horária", resumo.cargaHoraria, " h");
+    }
+
+    private void printDistribution(PrintStream out, String title, MotorEstatisticas.Distribuicao distribuicao, String unit) {
+        out.printf("\n%s: soma %d%s, média %.1f, mediana %d, p90 %d, mín %d, máx %d\n",
+            title, distribuicao.soma(), unit, distribuicao.media(), distribuicao.percentil(50),
+            distribuicao.percentil(90), distribuicao.minimo(), distribuicao.maximo());
+        for (long[] faixa : distribuicao.faixas(FAIXAS_HISTOGRAMA)) {
+            String label = faixa[0] == faixa[1] ? faixa[0] + unit : faixa[0] + "-" + faixa[1] + unit;
+            double share = 100.0 * faixa[2] / distribuicao.total();
+            out.printf("  %12s | %-30s %d (%.1f%%)\n", label, "#".repeat((int) Math.round(share * 30 / 100)), faixa[2], share);
+        }
+    }
+
+    private void printOtherMatches(PrintStream out, int others, String message) {
+        if (others > 0) {
+            out.println("\n(" + others + " " + message + "; use o nome completo para escolher.)");
+        }
+    }
+
+    /**
+     * Resultado do comando para o argumento (sem diferenciar maiúsculas nem acentos), do cache
+     * ou escrito agora por {@code escrever}, que devolve quantos itens encontrou. As linhas que
+     * repetem o argumento como foi digitado ficam fora, com quem chama.
+     */
+    private Listagem emCache(String command, String argument, ToIntFunction<PrintStream> escrever) {
+        return cache.obter(command + '\u0000' + ChaveBusca.normalizar(argument), () -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            PrintStream saida = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+            int quantidade = escrever.applyAsInt(saida);
+            saida.flush();
+            return new Listagem(quantidade, buffer.toString(StandardCharsets.UTF_8));
+        });
+    }
+
+    private void showCacheStats(PrintStream out) {
+        long consultas = cache.acertos() + cache.faltas();
+        out.println("=== Cache de Consultas ===");
+        if (cache.limiteBytes() == 0) {
+            out.println("Desligado (--query-cache-mb=0)");
+        }
+        out.printf("Entradas: %d, memória estimada: %.1f MB de %.1f MB\n",
+            cache.tamanho(), cache.bytes() / 1048576.0, cache.limiteBytes() / 1048576.0);
+        out.printf("Acertos: %d (%.1f%%), faltas: %d\n",
+            cache.acertos(), consultas > 0 ? 100.0 * cache.acertos() / consultas : 0, cache.faltas());
+        out.println("Remoções por LRU: " + cache.remocoes() + ", invalidações: " + cache.invalidacoes());
+    }
+
+    /**
+     * Exporta as disciplinas de todos os cursos em CSV (UTF-8). O parâmetro é o nome do arquivo
+     * (".csv" é acrescentado se faltar; terminado em ".csv.gz", sai comprimido) seguido,
+     * opcionalmente, das colunas desejadas separadas por vírgula.
+     */
+    void exportData(String parameter) {
+        String[] parts = parameter.trim().split("\\s+", 2);
+        String filename = parts[0];
         if (filename.isEmpty()) {
             filename = "exportacao_cursos_usp.csv";
         }
-        if (!filename.endsWith(".csv")) {
+        if (!filename.endsWith(".csv") && !filename.endsWith(".csv.gz")) {
             filename += ".csv";
         }
 
-        try (java.io.PrintWriter writer = new java.io.PrintWriter(filename)) {
-            writer.println("Unidade,Curso,Tipo_Disciplina,Codigo,Nome,Creditos_Aula,Creditos_Trabalho,Horas");
-            
-            for (Unidade unidade : unidades) {
-                for (Curso curso : unidade.cursos) {
-                    exportDisciplines(writer, unidade.nome, curso.nome, "Obrigatoria", curso.obrigatorias);
-                    exportDisciplines(writer, unidade.nome, curso.nome, "Eletiva", curso.optativasEletivas);
-                    exportDisciplines(writer, unidade.nome, curso.nome, "Optativa_Livre", curso.optativasLivres);
-                }
-            }
-            
+        try {
+            int[] colunas = ExportadorCsv.colunas(parts.length > 1 ? parts[1] : "");
+            new ExportadorCsv(colunas, Runtime.getRuntime().availableProcessors()).exportar(unidades, filename);
             System.out.println("Dados exportados para: " + filename);
-        } catch (java.io.FileNotFoundException e) {
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        } catch (java.io.IOException e) {
             System.err.println("Erro ao criar arquivo de exportação: " + e.getMessage());
         }
     }
 
-    private void exportDisciplines(java.io.PrintWriter writer, String unit, String course, 
-                                 String type, List<Disciplina> disciplines) {
-        for (Disciplina disciplina : disciplines) {
-            writer.printf("%s,%s,%s,%s,%s,%d,%d,%d\n",
-                escapeCsv(unit), escapeCsv(course), type, escapeCsv(disciplina.codigo),
-                escapeCsv(disciplina.nome), disciplina.creditosAula, 
-                disciplina.creditosTrabalho, disciplina.cargaHoraria);
+    /**
+     * Nomes de unidades e cursos, e nomes ou códigos de disciplinas, que começam com o prefixo,
+     * sem diferenciar maiúsculas nem acentos, em ordem alfabética e até o limite por grupo.
+     */
+    Map<String, List<String>> sugerir(String prefixo, int limite) {
+        String chave = ChaveBusca.normalizar(prefixo);
+        Map<String, List<String>> sugestoes = new LinkedHashMap<>();
+        sugestoes.put("Unidades", prefixosUnidades.buscar(chave, limite));
+        sugestoes.put("Cursos", prefixosCursos.buscar(chave, limite));
+        sugestoes.put("Disciplinas", prefixosDisciplinas.buscar(chave, limite));
+        return sugestoes;
+    }
+
+    private void autocomplete(String prefix, PrintStream out) {
+        if (prefix.isEmpty()) {
+            out.println("Por favor, forneça o início de um nome ou código.");
+            return;
+        }
+
+        String chave = ChaveBusca.normalizar(prefix);
+        Map<String, Integer> totais = new HashMap<>();
+        totais.put("Unidades", prefixosUnidades.contar(chave));
+        totais.put("Cursos", prefixosCursos.contar(chave));
+        totais.put("Disciplinas", prefixosDisciplinas.contar(chave));
+
+        boolean encontrou = false;
+        for (Map.Entry<String, List<String>> grupo : sugerir(prefix, LIMITE_SUGESTOES).entrySet()) {
+            if (grupo.getValue().isEmpty()) continue;
+            encontrou = true;
+            int total = totais.get(grupo.getKey());
+            out.println(grupo.getKey() + " (" + total + (total > grupo.getValue().size() ?
+                ", mostrando " + grupo.getValue().size() : "") + "):");
+            for (String sugestao : grupo.getValue()) {
+                out.println("  - " + sugestao);
+            }
+        }
+        if (!encontrou) {
+            out.println("Nenhum nome começa com: " + prefix);
+        }
+    }
+
+    /**
+     * Versões da disciplina com o código exato (sem diferenciar maiúsculas nem acentos);
+     * normalmente uma só. Lista vazia se o código não existe.
+     */
+    List<Disciplina> buscarPorCodigo(String codigo) {
+        OfertaDisciplina oferta = ofertasPorCodigo.get(ChaveBusca.normalizar(codigo));
+        return oferta != null ? Collections.unmodifiableList(oferta.versoes) : Collections.emptyList();
+    }
+
+    /**
+     * Cursos que oferecem a disciplina com o código exato, na ordem das unidades.
+     */
+    List<Curso> cursosComDisciplina(String codigo) {
+        OfertaDisciplina oferta = ofertasPorCodigo.get(ChaveBusca.normalizar(codigo));
+        return oferta != null ? Collections.unmodifiableList(oferta.cursos) : Collections.emptyList();
+    }
+
+    private void showDisciplineByCode(String code, PrintStream out) {
+        if (code.isEmpty()) {
+            out.println("Por favor, forneça o código de uma disciplina.");
+            return;
+        }
+
+        List<Disciplina> versoes = buscarPorCodigo(code);
+        if (versoes.isEmpty()) {
+            out.println("Nenhuma disciplina com o código: " + code);
+            out.println("Use search-discipline para buscar por parte do código ou do nome.");
+            return;
+        }
+
+        for (Disciplina d : versoes) {
+            out.printf("%s - %s\n", d.codigo, d.nome);
+            out.printf("  Créditos Aula: %d, Créditos Trabalho: %d, Carga Horária: %d\n",
+                d.creditosAula, d.creditosTrabalho, d.cargaHoraria);
+        }
+        List<Curso> cursos = cursosComDisciplina(code);
+        out.println("Oferecida em " + cursos.size() + " curso(s):");
+        for (Curso curso : cursos) {
+            out.printf("  - %s (%s)\n", curso.nome, curso.unidade);
+        }
+    }
+
+    /**
+     * Disciplinas com carga horária na faixa, da maior para a menor, cada uma com o número de
+     * cursos que a oferecem. Filtro e ordenação correm sobre a coluna de cargas do catálogo.
+     */
+    private int printWorkload(String range, PrintStream out) {
+        String[] limites = range.trim().split("[\\s-]+");
+        int minimo, maximo;
+        try {
+            minimo = limites[0].isEmpty() ? 0 : Integer.parseInt(limites[0]);
+            maximo = limites.length > 1 ? Integer.parseInt(limites[1]) : Integer.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            out.println("Use: workload [mínimo] [máximo], em horas (ex.: workload 60 90)");
+            return 0;
         }
+
+        ColunasDisciplinas colunas = colunas();
+        int[] encontradas = colunas.filtrar(colunas.cargaHoraria, minimo, maximo);
+        int[] ordenadas = colunas.ordenarDecrescente(colunas.cargaHoraria, encontradas);
+
+        // One line per code (and workload, should a code have versions with different ones)
+        Set<String> vistas = new HashSet<>();
+        List<Disciplina> distintas = new ArrayList<>();
+        for (int o : ordenadas) {
+            Disciplina d = colunas.disciplinas[o];
+            if (vistas.add(d.codigo + ' ' + d.cargaHoraria)) {
+                distintas.add(d);
+            }
+        }
+
+        String faixa = maximo == Integer.MAX_VALUE ? "de pelo menos " + minimo + " h" : "entre " + minimo + " e " + maximo + " h";
+        if (distintas.isEmpty()) {
+            out.println("Nenhuma disciplina com carga horária " + faixa);
+            return 0;
+        }
+        out.println("Disciplinas com carga horária " + faixa + ": " + distintas.size()
+            + " (" + encontradas.length + " ocorrências em cursos)");
+        for (Disciplina d : distintas.subList(0, Math.min(LIMITE_LISTAGEM, distintas.size()))) {
+            out.printf("  %5d h  %s - %s (%d curso(s))\n", d.cargaHoraria, d.codigo, d.nome, cursosComDisciplina(d.codigo).size());
+        }
+        if (distintas.size() > LIMITE_LISTAGEM) {
+            out.println("  ... e mais " + (distintas.size() - LIMITE_LISTAGEM) + "; estreite a faixa para ver as outras.");
+        }
+        return distintas.size();
     }
 
-    private String escapeCsv(String value) {
-        if (value.contains(",") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    /**
+     * Cursos com mais obrigatórias em comum com o curso dado, pelo índice de Jaccard. Compara
+     * um curso com os outros, então é rápido o bastante para não passar pelo cache.
+     */
+    private void showSimilarCourses(String courseName, PrintStream out) {
+        if (courseName.isEmpty()) {
+            out.println("Por favor, forneça o nome de um curso.");
+            return;
+        }
+        Curso curso = cursoParaComparar(courseName, out);
+        if (curso == null) return;
+
+        SimilaridadeCursos similaridade = similaridade();
+        int c = similaridade.posicao(curso);
+        if (similaridade.obrigatorias(c) == 0) {
+            out.printf("%s (%s) não tem disciplinas obrigatórias para comparar.\n", curso.nome, curso.unidade);
+            return;
+        }
+        List<SimilaridadeCursos.Par> pares = similaridade.maisParecidos(c, LIMITE_SIMILARES);
+        if (pares.isEmpty()) {
+            out.printf("Nenhum curso tem obrigatórias em comum com %s (%s).\n", curso.nome, curso.unidade);
+            return;
+        }
+        out.printf("Cursos mais parecidos com %s (%s), por obrigatórias em comum (%d obrigatórias):\n",
+            curso.nome, curso.unidade, similaridade.obrigatorias(c));
+        int posicao = 1;
+        for (SimilaridadeCursos.Par par : pares) {
+            Curso outro = similaridade.cursos[par.b];
+            out.printf("  %2d. %s (%s): %d em comum, Jaccard %.2f, sobreposição %.2f\n",
+                posicao++, outro.nome, outro.unidade, par.comuns, par.jaccard(), par.sobreposicao());
         }
-        return value;
     }
 
-    private Unidade findUnitByName(String name) {
-        for (Unidade unidade : unidades) {
-            if (unidade.nome.toLowerCase().contains(name.toLowerCase())) {
-                return unidade;
+    /**
+     * Os pares de cursos mais parecidos do catálogo inteiro; todos os pares são comparados.
+     */
+    private int printSimilarPairs(String quantity, PrintStream out) {
+        int k;
+        try {
+            k = quantity.trim().isEmpty() ? LIMITE_SIMILARES : Integer.parseInt(quantity.trim());
+        } catch (NumberFormatException e) {
+            out.println("Use: similar-pairs [quantidade] (ex.: similar-pairs 20)");
+            return 0;
+        }
+        k = Math.max(1, Math.min(k, LIMITE_LISTAGEM));
+
+        SimilaridadeCursos similaridade = similaridade();
+        List<SimilaridadeCursos.Par> pares = similaridade.paresMaisParecidos(k);
+        if (pares.isEmpty()) {
+            out.println("Nenhum par de cursos tem disciplinas obrigatórias em comum.");
+            return 0;
+        }
+        long total = (long) similaridade.cursos.length * (similaridade.cursos.length - 1) / 2;
+        out.printf("Pares de cursos mais parecidos, por obrigatórias em comum (%d pares comparados):\n", total);
+        int posicao = 1;
+        for (SimilaridadeCursos.Par par : pares) {
+            Curso a = similaridade.cursos[par.a], b = similaridade.cursos[par.b];
+            out.printf("  %2d. %s (%s) e %s (%s): %d em comum, Jaccard %.2f, sobreposição %.2f\n",
+                posicao++, a.nome, a.unidade, b.nome, b.unidade, par.comuns, par.jaccard(), par.sobreposicao());
+        }
+        return pares.size();
+    }
+
+    /**
+     * Disciplinas que dois cursos (separados por |) têm em comum: primeiro as obrigatórias nos
+     * dois, depois as que aparecem nos dois currículos em alguma outra categoria.
+     */
+    private void showSharedDisciplines(String pair, PrintStream out) {
+        String[] nomes = pair.split("\\|", 2);
+        if (nomes.length < 2 || nomes[0].trim().isEmpty() || nomes[1].trim().isEmpty()) {
+            out.println("Use: shared-disciplines [curso] | [curso] (ex.: shared-disciplines Economia | Administração)");
+            return;
+        }
+        Curso cursoA = cursoParaComparar(nomes[0].trim(), out);
+        Curso cursoB = cursoParaComparar(nomes[1].trim(), out);
+        if (cursoA == null || cursoB == null) return;
+
+        SimilaridadeCursos similaridade = similaridade();
+        int a = similaridade.posicao(cursoA), b = similaridade.posicao(cursoB);
+        BitSet obrigatorias = similaridade.emComum(a, b, false);
+        BitSet outras = similaridade.emComum(a, b, true);
+        outras.andNot(obrigatorias);
+
+        out.println("=== Disciplinas em Comum ===");
+        out.printf("%s (%s): %d obrigatórias\n", cursoA.nome, cursoA.unidade, similaridade.obrigatorias(a));
+        out.printf("%s (%s): %d obrigatórias\n", cursoB.nome, cursoB.unidade, similaridade.obrigatorias(b));
+        int comuns = obrigatorias.cardinality();
+        int uniao = similaridade.obrigatorias(a) + similaridade.obrigatorias(b) - comuns;
+        out.printf("\nObrigatórias nos dois (%d, Jaccard %.2f):\n", comuns, uniao > 0 ? (double) comuns / uniao : 0);
+        printDisciplinas(similaridade, obrigatorias, out);
+        out.println("\nEm comum em outras categorias (" + outras.cardinality() + "):");
+        printDisciplinas(similaridade, outras, out);
+    }
+
+    private void printDisciplinas(SimilaridadeCursos similaridade, BitSet numeros, PrintStream out) {
+        for (int d = numeros.nextSetBit(0); d >= 0; d = numeros.nextSetBit(d + 1)) {
+            out.printf("  - %s - %s\n", similaridade.codigos[d], similaridade.disciplinas[d].nome);
+        }
+    }
+
+    /**
+     * O curso mais relevante para o nome, avisando quando outros também correspondem, ou null
+     * (com a mensagem) se nenhum corresponde.
+     */
+    private Curso cursoParaComparar(String courseName, PrintStream out) {
+        List<Curso> matches = buscarCursosPorNome(courseName);
+        if (matches.isEmpty()) {
+            out.println("Curso não encontrado: " + courseName);
+            return null;
+        }
+        if (matches.size() > 1) {
+            out.printf("(%d cursos correspondem a '%s'; usando %s (%s).)\n",
+                matches.size(), courseName, matches.get(0).nome, matches.get(0).unidade);
+        }
+        return matches.get(0);
+    }
+
+    /**
+     * Cursos com o nome exato, se houver; senão os que contêm o termo, do mais ao menos relevante.
+     */
+    List<Curso> buscarCursosPorNome(String nome) {
+        String termo = ChaveBusca.normalizar(nome);
+        List<Curso> exatos = cursosPorNome.get(termo);
+        if (exatos != null) {
+            return Collections.unmodifiableList(exatos);
+        }
+        // Keys stored at index time: queries run on several threads and must not touch ChaveBusca
+        List<Integer> encontrados = new ArrayList<>();
+        for (int id : indiceCursos.buscar(termo)) {
+            encontrados.add(id);
+        }
+        encontrados.sort(Comparator.comparingInt((Integer id) -> relevancia(chavesCursos.get(id), termo))
+            .thenComparingInt(id -> cursosIndexados.get(id).nome.length()));
+        List<Curso> resultado = new ArrayList<>();
+        for (int id : encontrados) {
+            resultado.add(cursosIndexados.get(id));
+        }
+        return resultado;
+    }
+
+    /**
+     * Unidade com o nome exato, se houver; senão as que contêm o termo, da mais à menos relevante.
+     */
+    List<Unidade> buscarUnidades(String nome) {
+        String termo = ChaveBusca.normalizar(nome);
+        Unidade exata = unidadesPorNome.get(termo);
+        if (exata != null) {
+            return Collections.singletonList(exata);
+        }
+        // Units are few; a scan over their keys is enough for partial names
+        List<Integer> encontradas = new ArrayList<>();
+        for (int i = 0; i < unidades.size(); i++) {
+            if (chavesUnidades.get(i).contains(termo)) {
+                encontradas.add(i);
             }
         }
-        return null;
+        encontradas.sort(Comparator.comparingInt((Integer i) -> relevancia(chavesUnidades.get(i), termo))
+            .thenComparingInt(i -> chavesUnidades.get(i).length()));
+        List<Unidade> resultado = new ArrayList<>();
+        for (int i : encontradas) {
+            resultado.add(unidades.get(i));
+        }
+        return resultado;
+    }
+
+    /**
+     * Quão bem a chave casa com o termo que ela contém: 0 se igual, 1 se começa com o termo,
+     * 2 se alguma palavra começa com o termo, 3 se o termo está no meio de uma palavra.
+     */
+    private static int relevancia(String chave, String termo) {
+        if (chave.equals(termo)) return 0;
+        if (chave.startsWith(termo)) return 1;
+        int i = chave.indexOf(termo);
+        while (i > 0) {
+            if (!Character.isLetterOrDigit(chave.charAt(i - 1))) return 2;
+            i = chave.indexOf(termo, i + 1);
+        }
+        return 3;
+    }
+
+    /**
+     * Saída de um comando sem as linhas que repetem o argumento, e quantos itens ela lista.
+     */
+    private static final class Listagem {
+        final int quantidade;
+        final String texto;
+
+        Listagem(int quantidade, String texto) {
+            this.quantidade = quantidade;
+            this.texto = texto;
+        }
+    }
+
+    /**
+     * O que o índice por código guarda de cada disciplina: suas versões e os cursos que a oferecem.
+     */
+    private static final class OfertaDisciplina {
+        final List<Disciplina> versoes = new ArrayList<>(1);
+        final List<Curso> cursos = new ArrayList<>(2);
     }
 }
@@ -0,0 +1,124 @@
+package app;
+
+import java.util.Arrays;
+
+/**
+ * EscritorJson monta um documento JSON compacto em memória, cuidando das vírgulas e do escape
+ * dos textos. Serve para respostas pequenas (uma consulta, uma linha de resultado); para o
+ * catálogo inteiro há o ExportadorJson, que grava em fluxo.
+ */
+final class EscritorJson {
+    private final StringBuilder json = new StringBuilder(256);
+    // Per open object/list: the char that closes it, and whether nothing was written in it yet
+    private char[] fechamentos = new char[8];
+    private boolean[] vazios = new boolean[8];
+    private int nivel;
+
+    EscritorJson objeto() {
+        separar();
+        return abrir('{', '}');
+    }
+
+    EscritorJson objeto(String nome) {
+        nome(nome);
+        return abrir('{', '}');
+    }
+
+    EscritorJson lista(String nome) {
+        nome(nome);
+        return abrir('[', ']');
+    }
+
+    /**
+     * Fecha o último objeto ou lista aberto.
+     */
+    EscritorJson fim() {
+        json.append(fechamentos[--nivel]);
+        return this;
+    }
+
+    EscritorJson campo(String nome, String valor) {
+        nome(nome);
+        texto(json, valor);
+        return this;
+    }
+
+    EscritorJson campo(String nome, long valor) {
+        nome(nome);
+        json.append(valor);
+        return this;
+    }
+
+    EscritorJson campo(String nome, double valor) {
+        nome(nome);
+        // Two decimals are enough for means, and keep 4.4 from showing up as 4.3999999
+        json.append(Math.round(valor * 100) / 100.0);
+        return this;
+    }
+
+    /**
+     * Texto como elemento de uma lista.
+     */
+    EscritorJson valor(String valor) {
+        separar();
+        texto(json, valor);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    /**
+     * Escreve o texto entre aspas, com escape de aspas, barra invertida e caracteres de controle;
+     * null vira null.
+     */
+    static void texto(StringBuilder destino, String texto) {
+        if (texto == null) {
+            destino.append("null");
+            return;
+        }
+        destino.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '\\': destino.append("\\\\"); break;
+                case '"': destino.append("\\\""); break;
+                case '\n': destino.append("\\n"); break;
+                case '\r': destino.append("\\r"); break;
+                case '\t': destino.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+            }
+        }
+        destino.append('"');
+    }
+
+    private void nome(String nome) {
+        separar();
+        texto(json, nome);
+        json.append(':');
+    }
+
+    private void separar() {
+        if (nivel == 0) return;
+        if (!vazios[nivel - 1]) json.append(',');
+        vazios[nivel - 1] = false;
+    }
+
+    private EscritorJson abrir(char abertura, char fechamento) {
+        if (nivel == fechamentos.length) {
+            fechamentos = Arrays.copyOf(fechamentos, nivel * 2);
+            vazios = Arrays.copyOf(vazios, nivel * 2);
+        }
+        fechamentos[nivel] = fechamento;
+        vazios[nivel++] = true;
+        json.append(abertura);
+        return this;
+    }
+}
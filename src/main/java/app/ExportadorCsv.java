@@ -0,0 +1,275 @@
+package app;
+
+import models.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportadorCsv grava uma linha por disciplina em cada curso, em UTF-8 (comprimido com gzip se
+ * o nome terminar em ".gz"), com todas as colunas padrão ou só as escolhidas.
+ *
+ * As linhas de cada unidade são formatadas direto em bytes UTF-8, em paralelo, em buffers que
+ * voltam para um estoque depois de gravados; a gravação segue a ordem das unidades. Só algumas
+ * unidades são formatadas ao mesmo tempo, então a memória não cresce com o catálogo.
+ */
+final class ExportadorCsv {
+    static final String[] COLUNAS = {
+        "Unidade", "Curso", "Tipo_Disciplina", "Codigo", "Nome", "Creditos_Aula", "Creditos_Trabalho", "Horas",
+        "Horas_Estagio", "Horas_PCC", "Horas_ATPA"
+    };
+    // The first eight, as the export has always written them
+    static final int[] COLUNAS_PADRAO = {0, 1, 2, 3, 4, 5, 6, 7};
+
+    private static final int UNIDADE = 0, CURSO = 1, TIPO = 2, CODIGO = 3, NOME = 4, CREDITOS_AULA = 5,
+        CREDITOS_TRABALHO = 6, HORAS = 7, HORAS_ESTAGIO = 8, HORAS_PCC = 9, HORAS_ATPA = 10;
+    private static final String[] TIPOS = {"Obrigatoria", "Eletiva", "Optativa_Livre"};
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final int[] colunas;
+    private final int threads;
+
+    /**
+     * @param colunas posições em {@link #COLUNAS}, na ordem em que devem sair
+     * @param threads threads que formatam as unidades; 1 formata na própria thread
+     */
+    ExportadorCsv(int[] colunas, int threads) {
+        this.colunas = colunas.clone();
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Colunas pelos nomes separados por vírgula (sem diferenciar maiúsculas); vazio são as
+     * colunas padrão.
+     */
+    static int[] colunas(String nomes) {
+        if (nomes == null || nomes.trim().isEmpty()) return COLUNAS_PADRAO.clone();
+        String[] partes = nomes.split(",");
+        int[] colunas = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            colunas[i] = -1;
+            for (int c = 0; c < COLUNAS.length; c++) {
+                if (COLUNAS[c].equalsIgnoreCase(partes[i].trim())) colunas[i] = c;
+            }
+            if (colunas[i] < 0) {
+                throw new IllegalArgumentException("Coluna desconhecida: " + partes[i].trim()
+                    + " (disponíveis: " + String.join(",", COLUNAS) + ")");
+            }
+        }
+        return colunas;
+    }
+
+    /**
+     * Grava o arquivo e devolve quantas linhas de disciplinas foram escritas.
+     */
+    long exportar(List<Unidade> unidades, String arquivo) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(arquivo)), TAMANHO_BUFFER);
+        if (arquivo.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, TAMANHO_BUFFER);
+        }
+        try (OutputStream saida = out) {
+            Linhas cabecalho = new Linhas();
+            for (int i = 0; i < colunas.length; i++) {
+                if (i > 0) cabecalho.caractere(',');
+                cabecalho.campo(COLUNAS[colunas[i]]);
+            }
+            cabecalho.caractere('\n');
+            saida.write(cabecalho.bytes, 0, cabecalho.tamanho);
+            return threads == 1 ? gravarEmSequencia(unidades, saida) : gravarEmParalelo(unidades, saida);
+        }
+    }
+
+    private long gravarEmSequencia(List<Unidade> unidades, OutputStream saida) throws IOException {
+        Linhas linhas = new Linhas();
+        long total = 0;
+        for (Unidade unidade : unidades) {
+            linhas.limpar();
+            formatar(unidade, linhas);
+            saida.write(linhas.bytes, 0, linhas.tamanho);
+            total += linhas.quantidade;
+        }
+        return total;
+    }
+
+    private long gravarEmParalelo(List<Unidade> unidades, OutputStream saida) throws IOException {
+        // A few units per thread in flight keeps every thread busy while the writer catches up
+        int janela = 2 * threads;
+        ArrayDeque<Linhas> estoque = new ArrayDeque<>(janela);
+        ArrayDeque<Future<Linhas>> pendentes = new ArrayDeque<>(janela);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long total = 0;
+        try {
+            for (Unidade unidade : unidades) {
+                if (pendentes.size() == janela) {
+                    total += gravar(pendentes.poll(), saida, estoque);
+                }
+                Linhas linhas = estoque.isEmpty() ? new Linhas() : estoque.poll();
+                pendentes.add(executor.submit(() -> {
+                    linhas.limpar();
+                    formatar(unidade, linhas);
+                    return linhas;
+                }));
+            }
+            while (!pendentes.isEmpty()) {
+                total += gravar(pendentes.poll(), saida, estoque);
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int gravar(Future<Linhas> pendente, OutputStream saida, ArrayDeque<Linhas> estoque) throws IOException {
+        Linhas linhas;
+        try {
+            linhas = pendente.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportação interrompida");
+        }
+        saida.write(linhas.bytes, 0, linhas.tamanho);
+        estoque.add(linhas);
+        return linhas.quantidade;
+    }
+
+    private void formatar(Unidade unidade, Linhas linhas) {
+        for (Curso curso : unidade.cursos) {
+            List<List<Disciplina>> listas = Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres);
+            for (int l = 0; l < listas.size(); l++) {
+                for (Disciplina disciplina : listas.get(l)) {
+                    for (int i = 0; i < colunas.length; i++) {
+                        if (i > 0) linhas.caractere(',');
+                        switch (colunas[i]) {
+                            case UNIDADE: linhas.campo(unidade.nome); break;
+                            case CURSO: linhas.campo(curso.nome); break;
+                            case TIPO: linhas.campo(TIPOS[l]); break;
+                            case CODIGO: linhas.campo(disciplina.codigo); break;
+                            case NOME: linhas.campo(disciplina.nome); break;
+                            case CREDITOS_AULA: linhas.inteiro(disciplina.creditosAula); break;
+                            case CREDITOS_TRABALHO: linhas.inteiro(disciplina.creditosTrabalho); break;
+                            case HORAS: linhas.inteiro(disciplina.cargaHoraria); break;
+                            case HORAS_ESTAGIO: linhas.inteiro(disciplina.cargaEstagio); break;
+                            case HORAS_PCC: linhas.inteiro(disciplina.cargaPCC); break;
+                            case HORAS_ATPA: linhas.inteiro(disciplina.cargaATPA); break;
+                        }
+                    }
+                    linhas.caractere('\n');
+                    linhas.quantidade++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffer de bytes que cresce quando precisa e é reaproveitado entre unidades.
+     */
+    private static final class Linhas {
+        byte[] bytes = new byte[TAMANHO_BUFFER];
+        int tamanho;
+        int quantidade;
+
+        void limpar() {
+            tamanho = 0;
+            quantidade = 0;
+        }
+
+        void caractere(char c) {
+            garantir(1);
+            bytes[tamanho++] = (byte) c;
+        }
+
+        /**
+         * Texto em UTF-8; entre aspas, com as aspas dobradas, se tiver vírgula, aspas ou quebra
+         * de linha. null sai vazio.
+         */
+        void campo(String texto) {
+            if (texto == null) return;
+            int inicio = tamanho;
+            // Optimistic: most fields need no quoting, so encode first and redo only when one does
+            if (!codificar(texto, false)) {
+                tamanho = inicio;
+                caractere('"');
+                codificar(texto, true);
+                caractere('"');
+            }
+        }
+
+        /**
+         * Codifica o texto; sem {@code entreAspas}, para e devolve false no primeiro caractere
+         * que exige aspas.
+         */
+        private boolean codificar(String texto, boolean entreAspas) {
+            // Each char takes at most 3 bytes (a surrogate pair is 4 bytes for 2 chars), plus doubled quotes
+            garantir(3 * texto.length() + (entreAspas ? texto.length() : 0));
+            byte[] b = bytes;
+            int n = tamanho;
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c < 0x80) {
+                    if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                        if (!entreAspas) return false;
+                        if (c == '"') b[n++] = '"';
+                    }
+                    b[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    b[n++] = (byte) (0xC0 | c >> 6);
+                    b[n++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                    int ponto = Character.toCodePoint(c, texto.charAt(++i));
+                    b[n++] = (byte) (0xF0 | ponto >> 18);
+                    b[n++] = (byte) (0x80 | ponto >> 12 & 0x3F);
+                    b[n++] = (byte) (0x80 | ponto >> 6 & 0x3F);
+                    b[n++] = (byte) (0x80 | ponto & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate: '?', as String.getBytes does
+                    b[n++] = '?';
+                } else {
+                    b[n++] = (byte) (0xE0 | c >> 12);
+                    b[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    b[n++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            tamanho = n;
+            return true;
+        }
+
+        void inteiro(int valor) {
+            garantir(11);
+            if (valor < 0) {
+                if (valor == Integer.MIN_VALUE) {
+                    campo(Integer.toString(valor));
+                    return;
+                }
+                bytes[tamanho++] = '-';
+                valor = -valor;
+            }
+            int fim = tamanho + digitos(valor);
+            for (int i = fim - 1; i >= tamanho; i--) {
+                bytes[i] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            }
+            tamanho = fim;
+        }
+
+        private static int digitos(int valor) {
+            int digitos = 1;
+            while (valor >= 10) {
+                valor /= 10;
+                digitos++;
+            }
+            return digitos;
+        }
+
+        private void garantir(int mais) {
+            if (tamanho + mais > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, tamanho + mais));
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package app;
+
+import models.*;
+import scraper.OuvinteUnidades;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportadorJson grava o JSON de exportação diretamente no arquivo, unidade por unidade,
+ * sem montar o documento inteiro em memória. Pode ser alimentado durante o scraping
+ * (como OuvinteUnidades do Scraper), à medida que as unidades ficam prontas, ou de uma
+ * vez com {@link #exportar}.
+ *
+ * O arquivo é gravado em UTF-8; se o nome terminar em ".gz", a saída é comprimida com gzip.
+ */
+public class ExportadorJson implements OuvinteUnidades, Closeable {
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final Writer writer;
+    private int totalUnidades = -1;
+    private int unidadesEscritas;
+
+    public ExportadorJson(String arquivo) throws IOException {
+        OutputStream out = Files.newOutputStream(Paths.get(arquivo));
+        if (arquivo.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, TAMANHO_BUFFER);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    }
+
+    public static void exportar(List<Unidade> unidades, String arquivo) throws IOException {
+        try (ExportadorJson exportador = new ExportadorJson(arquivo)) {
+            exportador.iniciar(unidades.size());
+            for (Unidade unidade : unidades) {
+                exportador.escreverUnidade(unidade);
+            }
+            exportador.finalizar();
+        }
+    }
+
+    /**
+     * Escreve o cabeçalho. O total de unidades vem antes delas no arquivo, por isso
+     * precisa ser conhecido aqui.
+     */
+    @Override
+    public void iniciar(int totalUnidades) throws IOException {
+        if (this.totalUnidades >= 0) {
+            throw new IllegalStateException("Exportação já iniciada");
+        }
+        this.totalUnidades = totalUnidades;
+        writer.write("{\n");
+        writer.write("  \"timestamp\": \"");
+        writer.write(new java.util.Date().toString());
+        writer.write("\",\n");
+        writer.write("  \"total_units\": ");
+        writer.write(Integer.toString(totalUnidades));
+        writer.write(",\n");
+        writer.write("  \"units\": [\n");
+    }
+
+    @Override
+    public void unidadeConcluida(Unidade unidade) throws IOException {
+        escreverUnidade(unidade);
+    }
+
+    public void escreverUnidade(Unidade unidade) throws IOException {
+        if (totalUnidades < 0) {
+            throw new IllegalStateException("Exportação não iniciada");
+        }
+        if (unidadesEscritas == totalUnidades) {
+            throw new IllegalStateException("Mais unidades do que as " + totalUnidades + " anunciadas");
+        }
+        // The separator after the previous unit is written only now that we know another one follows
+        if (unidadesEscritas > 0) {
+            writer.write(",\n");
+        }
+        writer.write("    {\n");
+        writer.write("      \"name\": \"");
+        texto(unidade.nome);
+        writer.write("\",\n");
+        writer.write("      \"total_courses\": ");
+        writer.write(Integer.toString(unidade.cursos.size()));
+        writer.write(",\n");
+        writer.write("      \"courses\": [\n");
+
+        for (int j = 0; j < unidade.cursos.size(); j++) {
+            escreverCurso(unidade.cursos.get(j));
+            if (j < unidade.cursos.size() - 1) writer.write(",");
+            writer.write("\n");
+        }
+
+        writer.write("      ]\n");
+        writer.write("    }");
+        unidadesEscritas++;
+    }
+
+    /**
+     * Fecha o documento e o arquivo. O arquivo é fechado mesmo se faltarem unidades, caso em que
+     * fica incompleto e a exceção é lançada.
+     */
+    public void finalizar() throws IOException {
+        try (Writer saida = writer) {
+            if (unidadesEscritas != totalUnidades) {
+                throw new IllegalStateException("Exportadas " + unidadesEscritas + " de " + totalUnidades + " unidades");
+            }
+            if (unidadesEscritas > 0) {
+                saida.write("\n");
+            }
+            saida.write("  ]\n");
+            saida.write("}\n");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void escreverCurso(Curso curso) throws IOException {
+        writer.write("        {\n");
+        campoTexto("          \"name\": \"", curso.nome);
+        campoTexto("          \"unit\": \"", curso.unidade);
+
+        if (curso.duracaoIdeal != null) {
+            campoTexto("          \"duration_ideal\": \"", curso.duracaoIdeal);
+        }
+        if (curso.duracaoMin != null) {
+            campoTexto("          \"duration_min\": \"", curso.duracaoMin);
+        }
+        if (curso.duracaoMax != null) {
+            campoTexto("          \"duration_max\": \"", curso.duracaoMax);
+        }
+
+        writer.write("          \"mandatory_disciplines\": [\n");
+        escreverDisciplinas(curso.obrigatorias);
+        writer.write("          ],\n");
+
+        writer.write("          \"elective_disciplines\": [\n");
+        escreverDisciplinas(curso.optativasEletivas);
+        writer.write("          ],\n");
+
+        writer.write("          \"free_elective_disciplines\": [\n");
+        escreverDisciplinas(curso.optativasLivres);
+        writer.write("          ],\n");
+
+        writer.write("          \"statistics\": {\n");
+        campoNumero("            \"total_disciplines\": ", curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size(), ",\n");
+        campoNumero("            \"mandatory_count\": ", curso.obrigatorias.size(), ",\n");
+        campoNumero("            \"elective_count\": ", curso.optativasEletivas.size(), ",\n");
+        campoNumero("            \"free_elective_count\": ", curso.optativasLivres.size(), "\n");
+        writer.write("          }\n");
+
+        writer.write("        }");
+    }
+
+    private void escreverDisciplinas(List<Disciplina> disciplinas) throws IOException {
+        for (int k = 0; k < disciplinas.size(); k++) {
+            Disciplina disciplina = disciplinas.get(k);
+            writer.write("            {\n");
+            campoTexto("              \"code\": \"", disciplina.codigo);
+            campoTexto("              \"name\": \"", disciplina.nome);
+            campoNumero("              \"credits_class\": ", disciplina.creditosAula, ",\n");
+            campoNumero("              \"credits_work\": ", disciplina.creditosTrabalho, ",\n");
+            campoNumero("              \"hours\": ", disciplina.cargaHoraria, "\n");
+            writer.write("            }");
+            if (k < disciplinas.size() - 1) writer.write(",");
+            writer.write("\n");
+        }
+    }
+
+    private void campoTexto(String prefixo, String valor) throws IOException {
+        writer.write(prefixo);
+        texto(valor);
+        writer.write("\",\n");
+    }
+
+    private void campoNumero(String prefixo, int valor, String sufixo) throws IOException {
+        writer.write(prefixo);
+        writer.write(Integer.toString(valor));
+        writer.write(sufixo);
+    }
+
+    /**
+     * Escreve o texto com o mesmo escape de sempre: barra invertida, aspas, \n, \r e \t;
+     * null vira texto vazio.
+     */
+    private void texto(String str) throws IOException {
+        if (str == null) return;
+        int inicio = 0;
+        for (int i = 0; i < str.length(); i++) {
+            String escape;
+            switch (str.charAt(i)) {
+                case '\\': escape = "\\\\"; break;
+                case '"': escape = "\\\""; break;
+                case '\n': escape = "\\n"; break;
+                case '\r': escape = "\\r"; break;
+                case '\t': escape = "\\t"; break;
+                default: continue;
+            }
+            // Copy the unescaped run in one call instead of char by char
+            writer.write(str, inicio, i - inicio);
+            writer.write(escape);
+            inicio = i + 1;
+        }
+        writer.write(str, inicio, str.length() - inicio);
+    }
+}
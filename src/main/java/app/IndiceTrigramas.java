@@ -0,0 +1,119 @@
+package app;
+
+import java.util.*;
+
+/**
+ * IndiceTrigramas responde buscas por substring sobre textos associados a ids inteiros.
+ *
+ * Cada texto distinto é quebrado em trigramas (sequências de 3 caracteres) e cada trigrama aponta
+ * para a lista ordenada dos textos que o contêm. Uma busca intersecta as listas dos trigramas do
+ * termo e só confere com contains() os textos que sobraram. Termos com menos de 3 caracteres
+ * são conferidos contra todos os textos distintos.
+ *
+ * Os textos devem ser adicionados já no formato em que serão comparados (por exemplo, em
+ * minúsculas); o termo buscado não é transformado.
+ */
+class IndiceTrigramas {
+    private final Map<String, Integer> indicePorTexto = new HashMap<>();
+    private final List<String> textos = new ArrayList<>();
+    private final List<ListaInts> idsPorTexto = new ArrayList<>();
+    private final Map<Long, ListaInts> postagens = new HashMap<>();
+    private int maiorId = -1;
+
+    /**
+     * Associa o texto ao id. Os ids devem ser adicionados em ordem crescente.
+     */
+    void adicionar(int id, String texto) {
+        Integer indiceTexto = indicePorTexto.get(texto);
+        if (indiceTexto == null) {
+            indiceTexto = textos.size();
+            indicePorTexto.put(texto, indiceTexto);
+            textos.add(texto);
+            idsPorTexto.add(new ListaInts());
+            for (int i = 0; i + 3 <= texto.length(); i++) {
+                postagens.computeIfAbsent(trigrama(texto, i), k -> new ListaInts()).adicionarSeNovo(indiceTexto);
+            }
+        }
+        // The same id may come twice for one text (e.g. a code equal to the name)
+        idsPorTexto.get(indiceTexto).adicionarSeNovo(id);
+        maiorId = Math.max(maiorId, id);
+    }
+
+    /**
+     * Ids com algum texto que contém o termo, em ordem crescente e sem repetição.
+     */
+    int[] buscar(String termo) {
+        BitSet encontrados = new BitSet(maiorId + 1);
+        ListaInts candidatos = textosCandidatos(termo);
+        for (int c = 0; c < candidatos.tamanho; c++) {
+            int indiceTexto = candidatos.valores[c];
+            if (!textos.get(indiceTexto).contains(termo)) continue;
+            ListaInts ids = idsPorTexto.get(indiceTexto);
+            for (int i = 0; i < ids.tamanho; i++) {
+                encontrados.set(ids.valores[i]);
+            }
+        }
+        return encontrados.stream().toArray();
+    }
+
+    private ListaInts textosCandidatos(String termo) {
+        if (termo.length() < 3) {
+            ListaInts todos = new ListaInts();
+            for (int i = 0; i < textos.size(); i++) todos.adicionarSeNovo(i);
+            return todos;
+        }
+
+        List<ListaInts> listas = new ArrayList<>();
+        for (int i = 0; i + 3 <= termo.length(); i++) {
+            ListaInts lista = postagens.get(trigrama(termo, i));
+            if (lista == null) return new ListaInts();
+            listas.add(lista);
+        }
+        // Intersect starting from the rarest trigram so the candidate set shrinks as fast as possible
+        listas.sort(Comparator.comparingInt(l -> l.tamanho));
+        ListaInts candidatos = listas.get(0);
+        for (int i = 1; i < listas.size() && candidatos.tamanho > 0; i++) {
+            candidatos = candidatos.intersectar(listas.get(i));
+        }
+        return candidatos;
+    }
+
+    private static long trigrama(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+    }
+
+    /**
+     * Lista crescente de ints sem boxing.
+     */
+    private static final class ListaInts {
+        int[] valores = new int[2];
+        int tamanho;
+
+        void adicionarSeNovo(int valor) {
+            // Values arrive in increasing order, so a repeat can only be the last one
+            if (tamanho > 0 && valores[tamanho - 1] == valor) return;
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        ListaInts intersectar(ListaInts outra) {
+            ListaInts resultado = new ListaInts();
+            resultado.valores = new int[Math.max(1, Math.min(tamanho, outra.tamanho))];
+            int i = 0, j = 0;
+            while (i < tamanho && j < outra.tamanho) {
+                if (valores[i] < outra.valores[j]) {
+                    i++;
+                } else if (valores[i] > outra.valores[j]) {
+                    j++;
+                } else {
+                    resultado.valores[resultado.tamanho++] = valores[i];
+                    i++;
+                    j++;
+                }
+            }
+            return resultado;
+        }
+    }
+}
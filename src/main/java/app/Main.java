@@ -2,7 +2,6 @@ package app;
 
 import scraper.Scraper;
 import models.*;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 
@@ -15,6 +14,28 @@ public class Main {
         boolean interactiveMode = false;
         boolean exportJson = false;
         String jsonFileName = "dados_cursos_usp.json";
+        int sessoes = 1;
+        String baseUrl = Scraper.URL_PADRAO;
+        String backend = Scraper.BACKEND_SELENIUM;
+        boolean navegacaoCompleta = false;
+        String diretorioCache = null;
+        long validadeCacheHoras = 24 * 7;
+        boolean atualizarCache = false;
+        String arquivoCheckpoint = null;
+        String arquivoSnapshot = null;
+        String arquivoCarregar = null;
+        String salvarSnapshot = null;
+        String arquivoLote = null;
+        String saidaLote = "consultas_resultado.jsonl";
+        int threadsLote = Runtime.getRuntime().availableProcessors();
+        int portaServidor = -1;
+        long limiteCacheConsultas = ConsultasManager.LIMITE_CACHE_PADRAO;
+        String arquivosDiff = null;
+        String saidaDiff = "diferencas_catalogo.json";
+        String arquivoMetricas = null;
+        boolean metricasJmx = false;
+        int retentativas = Scraper.RETENTATIVAS_PADRAO;
+        boolean ritmoAdaptativo = true;
         
         for (String arg : args) {
             if (arg.equals("--interactive") || arg.equals("-i")) {
@@ -26,22 +47,126 @@ public class Main {
             } else if (arg.startsWith("--json=")) {
                 exportJson = true;
                 jsonFileName = arg.substring(7);
+            } else if (arg.startsWith("--sessions=")) {
+                sessoes = Integer.parseInt(arg.substring(11));
+            } else if (arg.startsWith("--backend=")) {
+                backend = arg.substring(10);
+            } else if (arg.equals("--full-navigation")) {
+                navegacaoCompleta = true;
+            } else if (arg.equals("--cache")) {
+                diretorioCache = ".cache_jupiter";
+            } else if (arg.startsWith("--cache=")) {
+                diretorioCache = arg.substring(8);
+            } else if (arg.equals("--no-cache")) {
+                diretorioCache = null;
+            } else if (arg.startsWith("--cache-ttl=")) {
+                validadeCacheHoras = Long.parseLong(arg.substring(12));
+            } else if (arg.equals("--refresh")) {
+                atualizarCache = true;
+            } else if (arg.equals("--checkpoint")) {
+                arquivoCheckpoint = "scraper_checkpoint.log";
+            } else if (arg.startsWith("--checkpoint=")) {
+                arquivoCheckpoint = arg.substring(13);
+            } else if (arg.startsWith("--snapshot=")) {
+                arquivoSnapshot = arg.substring(11);
+            } else if (arg.startsWith("--load=")) {
+                arquivoCarregar = arg.substring(7);
+            } else if (arg.equals("--save-snapshot")) {
+                salvarSnapshot = "dados_cursos_usp.snap";
+            } else if (arg.startsWith("--save-snapshot=")) {
+                salvarSnapshot = arg.substring(16);
+            } else if (arg.startsWith("--batch=")) {
+                arquivoLote = arg.substring(8);
+            } else if (arg.startsWith("--batch-output=")) {
+                saidaLote = arg.substring(15);
+            } else if (arg.startsWith("--batch-threads=")) {
+                threadsLote = Integer.parseInt(arg.substring(16));
+            } else if (arg.equals("--serve")) {
+                portaServidor = 8080;
+            } else if (arg.startsWith("--serve=")) {
+                portaServidor = Integer.parseInt(arg.substring(8));
+            } else if (arg.startsWith("--query-cache-mb=")) {
+                limiteCacheConsultas = Long.parseLong(arg.substring(17)) << 20;
+            } else if (arg.startsWith("--diff=")) {
+                arquivosDiff = arg.substring(7);
+            } else if (arg.startsWith("--diff-output=")) {
+                saidaDiff = arg.substring(14);
+            } else if (arg.equals("--metrics")) {
+                arquivoMetricas = "metricas_scraper.json";
+            } else if (arg.startsWith("--metrics=")) {
+                arquivoMetricas = arg.substring(10);
+            } else if (arg.equals("--metrics-jmx")) {
+                metricasJmx = true;
+            } else if (arg.startsWith("--retries=")) {
+                retentativas = Integer.parseInt(arg.substring(10));
+            } else if (arg.equals("--no-pacing")) {
+                ritmoAdaptativo = false;
+            } else if (arg.startsWith("--base-url=")) {
+                baseUrl = arg.substring(11);
             } else if (arg.matches("\\d+")) {
                 limite = Integer.parseInt(arg);
             }
         }
         
-        System.out.println("Processando " + limite + " unidades acadêmicas...");
+        if (arquivosDiff != null) {
+            // Comparing two exports needs neither scraping nor the query model
+            compararSnapshots(arquivosDiff, saidaDiff);
+            return;
+        }
         
-        Scraper scraper = new Scraper();
-        scraper.start(limite);
+        List<Unidade> unidades;
+        ExportadorJson exportador = null;
+        boolean exportacaoInterrompida = false;
+        if (arquivoSnapshot != null || arquivoCarregar != null) {
+            // Data from a saved snapshot or JSON export: no browser and no scraping
+            String origem = arquivoSnapshot != null ? arquivoSnapshot : arquivoCarregar;
+            long inicio = System.nanoTime();
+            try {
+                unidades = arquivoSnapshot != null ? SnapshotBinario.carregar(origem) : CarregadorJson.carregar(origem);
+            } catch (IOException e) {
+                System.err.println("Erro ao carregar " + origem + ": " + e.getMessage());
+                return;
+            }
+            System.out.printf("%s carregado em %d ms\n", origem, (System.nanoTime() - inicio) / 1_000_000);
+        } else {
+            System.out.println("Processando " + limite + " unidades acadêmicas...");
+        
+            Scraper scraper = new Scraper(backend, sessoes, baseUrl);
+            scraper.setReaproveitarNavegacao(!navegacaoCompleta);
+            if (diretorioCache != null) {
+                scraper.setCache(diretorioCache, validadeCacheHoras, atualizarCache);
+            }
+            if (arquivoCheckpoint != null) {
+                scraper.setCheckpoint(arquivoCheckpoint);
+            }
+            scraper.setArquivoMetricas(arquivoMetricas);
+            scraper.setMetricasJmx(metricasJmx);
+            scraper.setRetentativas(retentativas);
+            scraper.setRitmoAdaptativo(ritmoAdaptativo);
+
+            // Units are written to the JSON file as soon as they are scraped, in order
+            if (exportJson) {
+                exportador = new ExportadorJson(jsonFileName);
+                scraper.setOuvinteUnidades(exportador);
+            }
+            try {
+                scraper.start(limite);
+            } catch (Exception e) {
+                if (exportador != null) {
+                    exportador.close();
+                }
+                throw e;
+            }
+            unidades = scraper.unidades;
+            exportacaoInterrompida = scraper.entregaInterrompida();
+        }
 
         // Display summary
         System.out.println("\n=== Resumo do Processamento ===");
         int totalCourses = 0;
         int totalDisciplines = 0;
         
-        for (Unidade unidade : scraper.unidades) {
+        for (Unidade unidade : unidades) {
             System.out.println("Unidade: " + unidade.nome + " (" + unidade.cursos.size() + " cursos)");
             totalCourses += unidade.cursos.size();
             
@@ -54,120 +179,159 @@ public class Main {
             }
         }
         
-        System.out.println("\nTotal: " + scraper.unidades.size() + " unidades, " + totalCourses + " cursos, " + totalDisciplines + " disciplinas");
+        System.out.println("\nTotal: " + unidades.size() + " unidades, " + totalCourses + " cursos, " + totalDisciplines + " disciplinas");
         
         // Export to JSON if requested
         if (exportJson) {
             try {
-                exportToJson(scraper.unidades, jsonFileName);
+                if (exportador != null && !exportacaoInterrompida) {
+                    exportador.finalizar();
+                } else {
+                    if (exportador != null) {
+                        // Streaming stopped partway, but every unit is still in memory: write the file again
+                        try {
+                            exportador.close();
+                        } catch (IOException e) {
+                            System.err.println("Erro ao fechar " + jsonFileName + ": " + e.getMessage());
+                        }
+                        System.out.println("Exportação durante o scraping interrompida; gravando " + jsonFileName + " de novo");
+                    }
+                    ExportadorJson.exportar(unidades, jsonFileName);
+                }
                 System.out.println("Dados exportados para: " + jsonFileName);
-            } catch (IOException e) {
+            } catch (IOException | IllegalStateException e) {
                 System.err.println("Erro ao exportar para JSON: " + e.getMessage());
+            } finally {
+                if (exportador != null) {
+                    try {
+                        exportador.close();
+                    } catch (IOException e) {
+                        System.err.println("Erro ao fechar " + jsonFileName + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        
+        if (salvarSnapshot != null) {
+            try {
+                SnapshotBinario.gravar(unidades, salvarSnapshot);
+                System.out.println("Snapshot salvo em: " + salvarSnapshot);
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar snapshot: " + e.getMessage());
+            }
+        }
+        
+        ConsultasManager consultas = null;
+        if (arquivoLote != null) {
+            consultas = new ConsultasManager(unidades, limiteCacheConsultas);
+            executarLote(consultas, arquivoLote, saidaLote, threadsLote);
+        }
+        
+        ServidorConsultas servidor = null;
+        if (portaServidor >= 0) {
+            if (consultas == null) {
+                consultas = new ConsultasManager(unidades, limiteCacheConsultas);
             }
+            servidor = new ServidorConsultas(consultas);
+            // The JDK server writes headers and body separately; with Nagle on, each small response
+            // waits for the client's delayed ACK (~40 ms). Read once, when the first server is created
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            try {
+                servidor.iniciar(portaServidor);
+            } catch (IOException e) {
+                System.err.println("Erro ao iniciar o servidor de consultas: " + e.getMessage());
+                return;
+            }
+            System.out.println("\nServidor de consultas em http://localhost:" + servidor.porta() + "/ ("
+                + servidor.descricaoThreads() + ")");
         }
         
         // Launch interactive mode if requested
         if (interactiveMode) {
-            ConsultasManager consultas = new ConsultasManager(scraper.unidades);
+            if (consultas == null) {
+                consultas = new ConsultasManager(unidades, limiteCacheConsultas);
+            }
             consultas.startInteractiveMode();
+            // Leaving the interactive mode also stops the server started with it
+            if (servidor != null) {
+                servidor.parar();
+            }
+        } else if (servidor != null) {
+            System.out.println("Endpoints: /list-units, /list-courses, /search-course, /search-discipline, /course-details e /statistics (argumento em ?q=)");
+            System.out.println("Pressione Ctrl+C para encerrar.");
         } else {
             System.out.println("\nPara usar o modo de consulta interativo, execute com: --interactive");
             System.out.println("Para definir limite personalizado: --limit=N ou apenas N");
+            System.out.println("Para usar várias sessões do navegador em paralelo: --sessions=N");
+            System.out.println("Para buscar as páginas sem navegador: --backend=http");
+            if (arquivoSnapshot == null && arquivoCarregar == null) {
+                System.out.println("Para consultar depois sem novo scraping: --save-snapshot e, depois, --snapshot=arquivo --interactive");
+                System.out.println("Para consultar um JSON já exportado: --load=arquivo.json --interactive");
+            }
+            if (arquivoLote == null) {
+                System.out.println("Para executar um arquivo de consultas: --batch=arquivo [--batch-output=resultado.jsonl|.csv]");
+            }
+            System.out.println("Para servir as consultas por HTTP: --serve ou --serve=porta");
+            System.out.println("Para comparar dois arquivos exportados: --diff=antigo,novo [--diff-output=relatorio.json]");
             if (!exportJson) {
                 System.out.println("Para exportar JSON: --json ou --json=nome_arquivo.json");
             }
         }
     }
-    
-    private static void exportToJson(List<Unidade> unidades, String filename) throws IOException {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"timestamp\": \"").append(new java.util.Date().toString()).append("\",\n");
-        json.append("  \"total_units\": ").append(unidades.size()).append(",\n");
-        json.append("  \"units\": [\n");
-        
-        for (int i = 0; i < unidades.size(); i++) {
-            Unidade unidade = unidades.get(i);
-            json.append("    {\n");
-            json.append("      \"name\": \"").append(escapeJson(unidade.nome)).append("\",\n");
-            json.append("      \"total_courses\": ").append(unidade.cursos.size()).append(",\n");
-            json.append("      \"courses\": [\n");
-            
-            for (int j = 0; j < unidade.cursos.size(); j++) {
-                Curso curso = unidade.cursos.get(j);
-                json.append("        {\n");
-                json.append("          \"name\": \"").append(escapeJson(curso.nome)).append("\",\n");
-                json.append("          \"unit\": \"").append(escapeJson(curso.unidade)).append("\",\n");
-                
-                if (curso.duracaoIdeal != null) {
-                    json.append("          \"duration_ideal\": \"").append(escapeJson(curso.duracaoIdeal)).append("\",\n");
-                }
-                if (curso.duracaoMin != null) {
-                    json.append("          \"duration_min\": \"").append(escapeJson(curso.duracaoMin)).append("\",\n");
-                }
-                if (curso.duracaoMax != null) {
-                    json.append("          \"duration_max\": \"").append(escapeJson(curso.duracaoMax)).append("\",\n");
-                }
-                
-                json.append("          \"mandatory_disciplines\": [\n");
-                appendDisciplines(json, curso.obrigatorias);
-                json.append("          ],\n");
-                
-                json.append("          \"elective_disciplines\": [\n");
-                appendDisciplines(json, curso.optativasEletivas);
-                json.append("          ],\n");
-                
-                json.append("          \"free_elective_disciplines\": [\n");
-                appendDisciplines(json, curso.optativasLivres);
-                json.append("          ],\n");
-                
-                json.append("          \"statistics\": {\n");
-                json.append("            \"total_disciplines\": ").append(curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size()).append(",\n");
-                json.append("            \"mandatory_count\": ").append(curso.obrigatorias.size()).append(",\n");
-                json.append("            \"elective_count\": ").append(curso.optativasEletivas.size()).append(",\n");
-                json.append("            \"free_elective_count\": ").append(curso.optativasLivres.size()).append("\n");
-                json.append("          }\n");
-                
-                json.append("        }");
-                if (j < unidade.cursos.size() - 1) json.append(",");
-                json.append("\n");
-            }
-            
-            json.append("      ]\n");
-            json.append("    }");
-            if (i < unidades.size() - 1) json.append(",");
-            json.append("\n");
+
+    /**
+     * Compara dois arquivos exportados (JSON ou snapshot) e grava o relatório de mudanças; no
+     * console fica só o resumo.
+     */
+    private static void compararSnapshots(String arquivos, String saida) {
+        String[] nomes = arquivos.split(",", 2);
+        if (nomes.length < 2 || nomes[0].isEmpty() || nomes[1].isEmpty()) {
+            System.err.println("Use: --diff=antigo,novo (JSON exportado ou snapshot binário)");
+            return;
         }
-        
-        json.append("  ]\n");
-        json.append("}\n");
-        
-        try (FileWriter writer = new FileWriter(filename)) {
-            writer.write(json.toString());
+        try {
+            long inicio = System.nanoTime();
+            ComparadorSnapshots.Relatorio relatorio = ComparadorSnapshots.comparar(nomes[0], nomes[1]);
+            long millis = (System.nanoTime() - inicio) / 1_000_000;
+            relatorio.gravar(saida);
+            System.out.printf("Comparação de %s com %s em %d ms\n", nomes[0], nomes[1], millis);
+            System.out.printf("Cursos: %d iguais, %d alterados, %d adicionados, %d removidos; %d disciplinas com dados alterados\n",
+                relatorio.cursosIguais(), relatorio.cursosAlterados(), relatorio.cursosAdicionados(),
+                relatorio.cursosRemovidos(), relatorio.disciplinasAlteradas());
+            System.out.println("Relatório gravado em: " + saida);
+        } catch (IOException e) {
+            System.err.println("Erro ao comparar os arquivos: " + e.getMessage());
         }
     }
-    
-    private static void appendDisciplines(StringBuilder json, List<Disciplina> disciplinas) {
-        for (int k = 0; k < disciplinas.size(); k++) {
-            Disciplina disciplina = disciplinas.get(k);
-            json.append("            {\n");
-            json.append("              \"code\": \"").append(escapeJson(disciplina.codigo)).append("\",\n");
-            json.append("              \"name\": \"").append(escapeJson(disciplina.nome)).append("\",\n");
-            json.append("              \"credits_class\": ").append(disciplina.creditosAula).append(",\n");
-            json.append("              \"credits_work\": ").append(disciplina.creditosTrabalho).append(",\n");
-            json.append("              \"hours\": ").append(disciplina.cargaHoraria).append("\n");
-            json.append("            }");
-            if (k < disciplinas.size() - 1) json.append(",");
-            json.append("\n");
+
+    /**
+     * Executa o arquivo de consultas e grava os resultados; no console fica só o resumo.
+     */
+    private static void executarLote(ConsultasManager consultas, String arquivo, String saida, int threads) {
+        try {
+            List<ConsultasEmLote.Comando> comandos = ConsultasEmLote.lerComandos(arquivo);
+            long inicio = System.nanoTime();
+            List<ConsultasEmLote.Resultado> resultados = new ConsultasEmLote(consultas, threads).executar(comandos);
+            long millis = (System.nanoTime() - inicio) / 1_000_000;
+            ConsultasEmLote.gravar(resultados, saida);
+
+            int ok = 0, desconhecidos = 0, erros = 0;
+            for (ConsultasEmLote.Resultado resultado : resultados) {
+                switch (resultado.status) {
+                    case ConsultasEmLote.STATUS_OK: ok++; break;
+                    case ConsultasEmLote.STATUS_DESCONHECIDO: desconhecidos++; break;
+                    default: erros++; break;
+                }
+            }
+            System.out.printf("\nLote: %d consultas em %d ms com %d thread(s) (%d ok, %d desconhecidas, %d com erro)\n",
+                resultados.size(), millis, Math.max(1, threads), ok, desconhecidos, erros);
+            System.out.println("Resultados gravados em: " + saida);
+        } catch (IOException e) {
+            System.err.println("Erro no lote de consultas: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-    
-    private static String escapeJson(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
-    }
 }
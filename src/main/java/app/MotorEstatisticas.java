@@ -0,0 +1,274 @@
+package app;
+
+import models.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MotorEstatisticas calcula, em uma única passada pelo modelo, as contagens do comando statistics
+ * e as distribuições de créditos aula, créditos trabalho e carga horária, no total, por unidade
+ * e por curso. A passada inicial pode ser dividida por unidade entre as threads do ForkJoinPool.
+ *
+ * Depois disso os resultados são mantidos incrementalmente: cada curso acrescentado com
+ * {@link #adicionarCurso} é somado ao seu curso, à sua unidade e ao total, e as consultas só
+ * leem o que já está calculado. Cada ocorrência de disciplina conta uma vez, como nas contagens
+ * por tipo. Não é thread-safe fora da passada inicial.
+ */
+class MotorEstatisticas {
+    // Units per fork/join leaf: a unit holds a few hundred discipline occurrences
+    private static final int UNIDADES_POR_TAREFA = 4;
+
+    private final Resumo geral = new Resumo();
+    private final Map<Unidade, Resumo> porUnidade = new IdentityHashMap<>();
+    private final Map<Curso, Resumo> porCurso = new IdentityHashMap<>();
+
+    static MotorEstatisticas calcular(List<Unidade> unidades, boolean paralelo) {
+        Resumo[] resumosUnidades = new Resumo[unidades.size()];
+        Resumo[][] resumosCursos = new Resumo[unidades.size()][];
+        Passada passada = new Passada(unidades, resumosUnidades, resumosCursos, 0, unidades.size(), paralelo);
+        Resumo total = paralelo ? ForkJoinPool.commonPool().invoke(passada) : passada.compute();
+
+        MotorEstatisticas motor = new MotorEstatisticas();
+        motor.geral.juntar(total);
+        for (int i = 0; i < unidades.size(); i++) {
+            Unidade unidade = unidades.get(i);
+            motor.porUnidade.put(unidade, resumosUnidades[i]);
+            for (int j = 0; j < resumosCursos[i].length; j++) {
+                motor.porCurso.put(unidade.cursos.get(j), resumosCursos[i][j]);
+            }
+        }
+        return motor;
+    }
+
+    /**
+     * Soma um curso novo da unidade (que pode ser nova também) ao curso, à unidade e ao total.
+     */
+    void adicionarCurso(Unidade unidade, Curso curso) {
+        Resumo doCurso = resumir(curso);
+        porCurso.put(curso, doCurso);
+
+        Resumo daUnidade = porUnidade.get(unidade);
+        if (daUnidade == null) {
+            daUnidade = new Resumo();
+            daUnidade.unidades = 1;
+            porUnidade.put(unidade, daUnidade);
+            geral.unidades++;
+        }
+        daUnidade.juntar(doCurso);
+        geral.juntar(doCurso);
+    }
+
+    Resumo geral() {
+        return geral;
+    }
+
+    Resumo daUnidade(Unidade unidade) {
+        return porUnidade.get(unidade);
+    }
+
+    Resumo doCurso(Curso curso) {
+        return porCurso.get(curso);
+    }
+
+    private static Resumo resumir(Curso curso) {
+        Resumo resumo = new Resumo();
+        resumo.cursos = 1;
+        resumo.obrigatorias = curso.obrigatorias.size();
+        resumo.eletivas = curso.optativasEletivas.size();
+        resumo.livres = curso.optativasLivres.size();
+        for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+            for (Disciplina disciplina : lista) {
+                resumo.creditosAula.adicionar(disciplina.creditosAula);
+                resumo.creditosTrabalho.adicionar(disciplina.creditosTrabalho);
+                resumo.cargaHoraria.adicionar(disciplina.cargaHoraria);
+            }
+        }
+        return resumo;
+    }
+
+    /**
+     * Resume as unidades [inicio, fim): cada folha grava o resumo de suas unidades e cursos nas
+     * posições delas (sem disputa entre threads) e devolve a soma, que é juntada na subida.
+     */
+    private static final class Passada extends RecursiveTask<Resumo> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Unidade> unidades;
+        private final Resumo[] resumosUnidades;
+        private final Resumo[][] resumosCursos;
+        private final int inicio, fim;
+        private final boolean dividir;
+
+        Passada(List<Unidade> unidades, Resumo[] resumosUnidades, Resumo[][] resumosCursos,
+                int inicio, int fim, boolean dividir) {
+            this.unidades = unidades;
+            this.resumosUnidades = resumosUnidades;
+            this.resumosCursos = resumosCursos;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.dividir = dividir;
+        }
+
+        @Override
+        protected Resumo compute() {
+            if (dividir && fim - inicio > UNIDADES_POR_TAREFA) {
+                int meio = (inicio + fim) >>> 1;
+                Passada esquerda = new Passada(unidades, resumosUnidades, resumosCursos, inicio, meio, true);
+                esquerda.fork();
+                Resumo soma = new Passada(unidades, resumosUnidades, resumosCursos, meio, fim, true).compute();
+                soma.juntar(esquerda.join());
+                return soma;
+            }
+
+            Resumo soma = new Resumo();
+            for (int i = inicio; i < fim; i++) {
+                Unidade unidade = unidades.get(i);
+                Resumo daUnidade = new Resumo();
+                daUnidade.unidades = 1;
+                resumosCursos[i] = new Resumo[unidade.cursos.size()];
+                for (int j = 0; j < unidade.cursos.size(); j++) {
+                    Resumo doCurso = resumir(unidade.cursos.get(j));
+                    resumosCursos[i][j] = doCurso;
+                    daUnidade.juntar(doCurso);
+                }
+                resumosUnidades[i] = daUnidade;
+                soma.juntar(daUnidade);
+            }
+            return soma;
+        }
+    }
+
+    /**
+     * Contagens e distribuições de um curso, de uma unidade ou do catálogo inteiro.
+     */
+    static final class Resumo {
+        int unidades;
+        int cursos;
+        long obrigatorias;
+        long eletivas;
+        long livres;
+        final Distribuicao creditosAula = new Distribuicao();
+        final Distribuicao creditosTrabalho = new Distribuicao();
+        final Distribuicao cargaHoraria = new Distribuicao();
+
+        long disciplinas() {
+            return obrigatorias + eletivas + livres;
+        }
+
+        void juntar(Resumo outro) {
+            unidades += outro.unidades;
+            cursos += outro.cursos;
+            obrigatorias += outro.obrigatorias;
+            eletivas += outro.eletivas;
+            livres += outro.livres;
+            creditosAula.juntar(outro.creditosAula);
+            creditosTrabalho.juntar(outro.creditosTrabalho);
+            cargaHoraria.juntar(outro.cargaHoraria);
+        }
+    }
+
+    /**
+     * Histograma exato de valores inteiros: cada valor distinto e quantas vezes apareceu.
+     * Créditos e cargas horárias têm poucos valores distintos, então a soma, a média, os
+     * percentis e as faixas saem das contagens sem guardar cada ocorrência.
+     */
+    static final class Distribuicao {
+        // Distinct values in increasing order, and the count of each
+        private int[] valores = new int[4];
+        private long[] quantidades = new long[4];
+        private int distintos;
+        private long total;
+        private long soma;
+
+        void adicionar(int valor) {
+            adicionar(valor, 1);
+        }
+
+        void adicionar(int valor, long quantidade) {
+            int i = Arrays.binarySearch(valores, 0, distintos, valor);
+            if (i < 0) {
+                i = -i - 1;
+                if (distintos == valores.length) {
+                    valores = Arrays.copyOf(valores, distintos * 2);
+                    quantidades = Arrays.copyOf(quantidades, distintos * 2);
+                }
+                System.arraycopy(valores, i, valores, i + 1, distintos - i);
+                System.arraycopy(quantidades, i, quantidades, i + 1, distintos - i);
+                valores[i] = valor;
+                quantidades[i] = 0;
+                distintos++;
+            }
+            quantidades[i] += quantidade;
+            total += quantidade;
+            soma += (long) valor * quantidade;
+        }
+
+        void juntar(Distribuicao outra) {
+            for (int i = 0; i < outra.distintos; i++) {
+                adicionar(outra.valores[i], outra.quantidades[i]);
+            }
+        }
+
+        long total() {
+            return total;
+        }
+
+        long soma() {
+            return soma;
+        }
+
+        double media() {
+            return total > 0 ? (double) soma / total : 0;
+        }
+
+        int minimo() {
+            return distintos > 0 ? valores[0] : 0;
+        }
+
+        int maximo() {
+            return distintos > 0 ? valores[distintos - 1] : 0;
+        }
+
+        /**
+         * Menor valor que cobre pelo menos {@code p}% das ocorrências (percentil pelo posto mais próximo).
+         */
+        int percentil(double p) {
+            if (total == 0) return 0;
+            long posto = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+            long acumulado = 0;
+            for (int i = 0; i < distintos; i++) {
+                acumulado += quantidades[i];
+                if (acumulado >= posto) return valores[i];
+            }
+            return valores[distintos - 1];
+        }
+
+        /**
+         * Faixas [inicio, fim] com suas quantidades: uma por valor se houver até {@code maximoFaixas}
+         * valores distintos, senão faixas de largura igual entre o mínimo e o máximo.
+         */
+        List<long[]> faixas(int maximoFaixas) {
+            List<long[]> faixas = new ArrayList<>();
+            if (distintos <= maximoFaixas) {
+                for (int i = 0; i < distintos; i++) {
+                    faixas.add(new long[] {valores[i], valores[i], quantidades[i]});
+                }
+                return faixas;
+            }
+
+            long largura = ((long) maximo() - minimo() + maximoFaixas) / maximoFaixas;
+            int i = 0;
+            for (long inicio = minimo(); i < distintos; inicio += largura) {
+                long fimFaixa = inicio + largura - 1;
+                long quantidade = 0;
+                while (i < distintos && valores[i] <= fimFaixa) {
+                    quantidade += quantidades[i++];
+                }
+                faixas.add(new long[] {inicio, fimFaixa, quantidade});
+            }
+            return faixas;
+        }
+    }
+}
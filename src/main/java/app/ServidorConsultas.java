@@ -0,0 +1,337 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import models.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ServidorConsultas responde às consultas do ConsultasManager por HTTP, em JSON, sobre um modelo
+ * carregado uma vez. Cada comando de consulta vira um endpoint GET com o argumento em {@code q}:
+ *
+ * <pre>
+ * /list-units
+ * /list-courses?q=unidade        (sem q: todas as unidades)
+ * /search-course?q=termo
+ * /search-discipline?q=termo
+ * /course-details?q=curso
+ * /statistics?q=unidade ou curso (sem q: o catálogo inteiro)
+ * </pre>
+ *
+ * As requisições são atendidas em threads virtuais quando a JVM as tem (Java 21 ou mais novo);
+ * senão, por um pool fixo de threads. As consultas só leem o modelo; cada requisição roda sob a
+ * trava de leitura do ConsultasManager, que só é tomada para escrita ao acrescentar cursos.
+ *
+ * O servidor do JDK envia cabeçalhos e corpo separadamente; com o algoritmo de Nagle ligado,
+ * cada resposta pequena espera o ACK atrasado do cliente (~40 ms). Quem sobe o servidor deve
+ * definir {@code sun.net.httpserver.nodelay=true} antes do primeiro HttpServer da JVM, como
+ * Main faz; a propriedade é global e por isso não é alterada aqui.
+ */
+public class ServidorConsultas {
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    private final ConsultasManager consultas;
+    private HttpServer http;
+    private ExecutorService executor;
+
+    public ServidorConsultas(ConsultasManager consultas) {
+        this.consultas = consultas;
+    }
+
+    public void iniciar(int porta) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(porta), 0);
+        http.createContext("/", this::atender);
+        executor = criarExecutor();
+        http.setExecutor(executor);
+        http.start();
+    }
+
+    public void parar() {
+        http.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int porta() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Descrição das threads que atendem as requisições, para a mensagem de início.
+     */
+    public String descricaoThreads() {
+        return executor.getClass().getSimpleName().contains("ThreadPerTask")
+            ? "threads virtuais" : "pool de " + tamanhoPool() + " threads";
+    }
+
+    /**
+     * Uma thread virtual por requisição, se {@code Executors.newVirtualThreadPerTaskExecutor}
+     * existir nesta JVM. O projeto compila para Java 11, por isso a busca é por reflexão.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(tamanhoPool());
+        }
+    }
+
+    private static int tamanhoPool() {
+        // Queries are short and CPU-bound; a few extra threads cover slow clients
+        return Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    private Resposta consultar(String caminho, String q) {
+        switch (caminho) {
+            case "/list-units": return listUnits();
+            case "/list-courses": return listCourses(q);
+            case "/search-course": return searchCourse(q);
+            case "/search-discipline": return searchDiscipline(q);
+            case "/course-details": return courseDetails(q);
+            case "/statistics": return statistics(q);
+            default: return new Resposta(404, erro("Endpoint desconhecido: " + caminho));
+        }
+    }
+
+    private void atender(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                responder(exchange, 405, erro("Use GET"));
+                return;
+            }
+            String caminho = exchange.getRequestURI().getPath();
+            String q;
+            try {
+                q = parametro(exchange.getRequestURI().getRawQuery(), "q");
+            } catch (IllegalArgumentException e) {
+                // Malformed percent-escape, e.g. ?q=%zz
+                responder(exchange, 400, erro("Parâmetro q mal codificado: " + e.getMessage()));
+                return;
+            }
+            String argumento = q;
+            Resposta resposta = consultas.lendo(() -> consultar(caminho, argumento));
+            responder(exchange, resposta.status, resposta.json);
+        } catch (RuntimeException e) {
+            responder(exchange, 500, erro(String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Resposta listUnits() {
+        EscritorJson json = new EscritorJson().objeto();
+        json.campo("total", consultas.unidades().size()).lista("units");
+        for (Unidade unidade : consultas.unidades()) {
+            json.objeto().campo("name", unidade.nome).campo("courses", unidade.cursos.size()).fim();
+        }
+        return ok(json.fim().fim());
+    }
+
+    private Resposta listCourses(String unidade) {
+        List<Unidade> unidades = unidade.isEmpty() ? consultas.unidades() : consultas.buscarUnidades(unidade);
+        if (unidades.isEmpty()) {
+            return new Resposta(404, erro("Unidade não encontrada: " + unidade));
+        }
+        EscritorJson json = new EscritorJson().objeto().lista("units");
+        for (Unidade encontrada : unidades) {
+            json.objeto().campo("name", encontrada.nome).lista("courses");
+            for (Curso curso : encontrada.cursos) {
+                json.objeto().campo("name", curso.nome).campo("disciplines", totalDisciplinas(curso)).fim();
+            }
+            json.fim().fim();
+        }
+        return ok(json.fim().fim());
+    }
+
+    private Resposta searchCourse(String termo) {
+        if (termo.isEmpty()) {
+            return new Resposta(400, erro("Forneça o termo de busca em q"));
+        }
+        List<Curso> cursos = consultas.buscarCursos(termo);
+        EscritorJson json = new EscritorJson().objeto();
+        json.campo("query", termo).campo("total", cursos.size()).lista("courses");
+        for (Curso curso : cursos) {
+            json.objeto().campo("name", curso.nome).campo("unit", curso.unidade)
+                .campo("disciplines", totalDisciplinas(curso)).fim();
+        }
+        return ok(json.fim().fim());
+    }
+
+    private Resposta searchDiscipline(String termo) {
+        if (termo.isEmpty()) {
+            return new Resposta(400, erro("Forneça o termo de busca em q"));
+        }
+        // Grouped like search-discipline (same code and name), in catalogue order
+        Map<String, Disciplina> disciplinas = new LinkedHashMap<>();
+        Map<String, List<String>> cursos = new HashMap<>();
+        consultas.buscarOcorrencias(termo, (disciplina, curso) -> {
+            String chave = disciplina.codigo + " - " + disciplina.nome;
+            disciplinas.putIfAbsent(chave, disciplina);
+            cursos.computeIfAbsent(chave, k -> new ArrayList<>()).add(curso.nome);
+        });
+
+        EscritorJson json = new EscritorJson().objeto();
+        json.campo("query", termo).campo("total", disciplinas.size()).lista("disciplines");
+        for (Map.Entry<String, Disciplina> entrada : disciplinas.entrySet()) {
+            Disciplina disciplina = entrada.getValue();
+            json.objeto().campo("code", disciplina.codigo).campo("name", disciplina.nome).lista("courses");
+            for (String curso : cursos.get(entrada.getKey())) {
+                json.valor(curso);
+            }
+            json.fim().fim();
+        }
+        return ok(json.fim().fim());
+    }
+
+    private Resposta courseDetails(String nome) {
+        if (nome.isEmpty()) {
+            return new Resposta(400, erro("Forneça o nome do curso em q"));
+        }
+        List<Curso> cursos = consultas.buscarCursosPorNome(nome);
+        if (cursos.isEmpty()) {
+            return new Resposta(404, erro("Curso não encontrado: " + nome));
+        }
+        Curso curso = cursos.get(0);
+        EscritorJson json = new EscritorJson().objeto();
+        json.objeto("course")
+            .campo("name", curso.nome)
+            .campo("unit", curso.unidade)
+            .campo("duration_ideal", curso.duracaoIdeal)
+            .campo("duration_min", curso.duracaoMin)
+            .campo("duration_max", curso.duracaoMax);
+        disciplinas(json, "mandatory_disciplines", curso.obrigatorias);
+        disciplinas(json, "elective_disciplines", curso.optativasEletivas);
+        disciplinas(json, "free_elective_disciplines", curso.optativasLivres);
+        json.fim();
+        // Like the interactive command: the best match in full, the other candidates by name
+        json.lista("other_matches");
+        for (Curso outro : cursos.subList(1, cursos.size())) {
+            json.objeto().campo("name", outro.nome).campo("unit", outro.unidade).fim();
+        }
+        return ok(json.fim().fim());
+    }
+
+    private static void disciplinas(EscritorJson json, String nome, List<Disciplina> disciplinas) {
+        json.lista(nome);
+        for (Disciplina disciplina : disciplinas) {
+            json.objeto()
+                .campo("code", disciplina.codigo)
+                .campo("name", disciplina.nome)
+                .campo("credits_class", disciplina.creditosAula)
+                .campo("credits_work", disciplina.creditosTrabalho)
+                .campo("hours", disciplina.cargaHoraria)
+                .fim();
+        }
+        json.fim();
+    }
+
+    private Resposta statistics(String escopo) {
+        MotorEstatisticas estatisticas = consultas.estatisticas();
+        EscritorJson json = new EscritorJson().objeto();
+        MotorEstatisticas.Resumo resumo;
+        int outros;
+        if (escopo.isEmpty()) {
+            resumo = estatisticas.geral();
+            json.campo("scope", "all");
+            outros = 0;
+        } else {
+            // Same resolution as the statistics command: a unit first, then a course
+            List<Unidade> unidades = consultas.buscarUnidades(escopo);
+            if (!unidades.isEmpty()) {
+                resumo = estatisticas.daUnidade(unidades.get(0));
+                json.campo("scope", "unit").campo("name", unidades.get(0).nome);
+                outros = unidades.size() - 1;
+            } else {
+                List<Curso> cursos = consultas.buscarCursosPorNome(escopo);
+                if (cursos.isEmpty()) {
+                    return new Resposta(404, erro("Nenhuma unidade ou curso encontrado: " + escopo));
+                }
+                resumo = estatisticas.doCurso(cursos.get(0));
+                json.campo("scope", "course").campo("name", cursos.get(0).nome).campo("unit", cursos.get(0).unidade);
+                outros = cursos.size() - 1;
+            }
+        }
+
+        json.campo("units", resumo.unidades)
+            .campo("courses", resumo.cursos)
+            .campo("disciplines", resumo.disciplinas())
+            .campo("mandatory", resumo.obrigatorias)
+            .campo("elective", resumo.eletivas)
+            .campo("free_elective", resumo.livres)
+            .campo("other_matches", outros);
+        distribuicao(json, "credits_class", resumo.creditosAula);
+        distribuicao(json, "credits_work", resumo.creditosTrabalho);
+        distribuicao(json, "hours", resumo.cargaHoraria);
+        return ok(json.fim());
+    }
+
+    private static void distribuicao(EscritorJson json, String nome, MotorEstatisticas.Distribuicao distribuicao) {
+        json.objeto(nome)
+            .campo("sum", distribuicao.soma())
+            .campo("mean", distribuicao.media())
+            .campo("median", distribuicao.percentil(50))
+            .campo("p90", distribuicao.percentil(90))
+            .campo("min", distribuicao.minimo())
+            .campo("max", distribuicao.maximo())
+            .lista("histogram");
+        for (long[] faixa : distribuicao.faixas(10)) {
+            json.objeto().campo("from", faixa[0]).campo("to", faixa[1]).campo("count", faixa[2]).fim();
+        }
+        json.fim().fim();
+    }
+
+    private static int totalDisciplinas(Curso curso) {
+        return curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size();
+    }
+
+    /**
+     * Valor decodificado do parâmetro na query string, ou texto vazio se ele não estiver lá.
+     *
+     * @throws IllegalArgumentException se o valor tiver um escape % inválido
+     */
+    static String parametro(String query, String nome) {
+        if (query == null) return "";
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            String chave = igual >= 0 ? par.substring(0, igual) : par;
+            if (chave.equals(nome)) {
+                return igual >= 0 ? URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8).trim() : "";
+            }
+        }
+        return "";
+    }
+
+    private static Resposta ok(EscritorJson json) {
+        return new Resposta(200, json.toString());
+    }
+
+    private static String erro(String mensagem) {
+        return new EscritorJson().objeto().campo("error", mensagem).fim().toString();
+    }
+
+    private static void responder(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] corpo = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        exchange.sendResponseHeaders(status, corpo.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+
+    private static final class Resposta {
+        final int status;
+        final String json;
+
+        Resposta(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package app;
+
+import models.*;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * SimilaridadeCursos compara currículos: cada código de disciplina ganha um número (dicionário
+ * de códigos) e cada curso guarda, em ordem crescente, os números das suas obrigatórias e os do
+ * currículo inteiro. São conjuntos de bits comprimidos: só as posições marcadas, o que mantém a
+ * memória proporcional às ocorrências mesmo com centenas de milhares de códigos. A similaridade
+ * é o índice de Jaccard das obrigatórias (em comum / na união), e a sobreposição divide pelo
+ * menor dos dois conjuntos.
+ *
+ * Para comparar um curso com todos os outros, cada disciplina também tem a lista dos cursos em
+ * que é obrigatória: basta contar, curso a curso, quantas vezes ele aparece nas listas das
+ * obrigatórias do primeiro, e pares sem nada em comum nem chegam a ser vistos. Não acompanha
+ * mudanças no modelo: depois de acrescentar cursos, é preciso montar de novo.
+ */
+final class SimilaridadeCursos {
+    final Curso[] cursos;
+    // Discipline number -> code as first seen, and one representative discipline
+    final String[] codigos;
+    final Disciplina[] disciplinas;
+
+    private final int[][] numerosObrigatorias;
+    private final int[][] numerosCurriculo;
+    // Discipline number -> ascending positions of the courses where it is required
+    private final int[][] cursosComObrigatoria;
+    private final Map<Curso, Integer> posicoes = new IdentityHashMap<>();
+
+    private SimilaridadeCursos(List<Curso> cursos, List<Disciplina> representantes,
+                               int[][] numerosObrigatorias, int[][] numerosCurriculo) {
+        this.cursos = cursos.toArray(new Curso[0]);
+        this.disciplinas = representantes.toArray(new Disciplina[0]);
+        this.codigos = new String[disciplinas.length];
+        for (int d = 0; d < disciplinas.length; d++) {
+            codigos[d] = disciplinas[d].codigo;
+        }
+        this.numerosObrigatorias = numerosObrigatorias;
+        this.numerosCurriculo = numerosCurriculo;
+
+        int[] ocorrencias = new int[disciplinas.length];
+        for (int[] numeros : numerosObrigatorias) {
+            for (int d : numeros) ocorrencias[d]++;
+        }
+        this.cursosComObrigatoria = new int[disciplinas.length][];
+        for (int d = 0; d < disciplinas.length; d++) {
+            cursosComObrigatoria[d] = new int[ocorrencias[d]];
+            ocorrencias[d] = 0;
+        }
+        for (int c = 0; c < numerosObrigatorias.length; c++) {
+            for (int d : numerosObrigatorias[c]) {
+                cursosComObrigatoria[d][ocorrencias[d]++] = c;
+            }
+            posicoes.put(this.cursos[c], c);
+        }
+    }
+
+    static SimilaridadeCursos montar(List<Unidade> unidades) {
+        List<Curso> cursos = new ArrayList<>();
+        for (Unidade unidade : unidades) {
+            cursos.addAll(unidade.cursos);
+        }
+        Dicionario dicionario = new Dicionario();
+        int[][] obrigatorias = new int[cursos.size()][];
+        int[][] curriculos = new int[cursos.size()][];
+        for (int c = 0; c < cursos.size(); c++) {
+            Curso curso = cursos.get(c);
+            obrigatorias[c] = dicionario.numerar(curso.obrigatorias);
+            int[] eletivas = dicionario.numerar(curso.optativasEletivas);
+            int[] livres = dicionario.numerar(curso.optativasLivres);
+            int[] todas = Arrays.copyOf(obrigatorias[c], obrigatorias[c].length + eletivas.length + livres.length);
+            System.arraycopy(eletivas, 0, todas, obrigatorias[c].length, eletivas.length);
+            System.arraycopy(livres, 0, todas, obrigatorias[c].length + eletivas.length, livres.length);
+            curriculos[c] = ordenarSemRepetir(todas, todas.length);
+        }
+        return new SimilaridadeCursos(cursos, dicionario.representantes, obrigatorias, curriculos);
+    }
+
+    private static int[] ordenarSemRepetir(int[] numeros, int n) {
+        Arrays.sort(numeros, 0, n);
+        int distintos = 0;
+        for (int i = 0; i < n; i++) {
+            if (distintos == 0 || numeros[distintos - 1] != numeros[i]) numeros[distintos++] = numeros[i];
+        }
+        return distintos == numeros.length ? numeros : Arrays.copyOf(numeros, distintos);
+    }
+
+    int totalDisciplinas() {
+        return codigos.length;
+    }
+
+    /**
+     * Posição do curso em {@link #cursos}, ou -1 se ele não estava no modelo na montagem.
+     */
+    int posicao(Curso curso) {
+        Integer c = posicoes.get(curso);
+        return c != null ? c : -1;
+    }
+
+    int obrigatorias(int c) {
+        return numerosObrigatorias[c].length;
+    }
+
+    /**
+     * Números das disciplinas em comum: as obrigatórias nos dois cursos, ou, com
+     * {@code curriculo}, as que aparecem em qualquer categoria dos dois.
+     */
+    BitSet emComum(int a, int b, boolean curriculo) {
+        int[] x = curriculo ? numerosCurriculo[a] : numerosObrigatorias[a];
+        int[] y = curriculo ? numerosCurriculo[b] : numerosObrigatorias[b];
+        BitSet comuns = new BitSet();
+        for (int i = 0, j = 0; i < x.length && j < y.length; ) {
+            if (x[i] < y[j]) {
+                i++;
+            } else if (x[i] > y[j]) {
+                j++;
+            } else {
+                comuns.set(x[i]);
+                i++;
+                j++;
+            }
+        }
+        return comuns;
+    }
+
+    /**
+     * Os k cursos mais parecidos com o curso c, do mais ao menos parecido; só entram cursos com
+     * alguma obrigatória em comum.
+     */
+    List<Par> maisParecidos(int c, int k) {
+        if (k <= 0) return Collections.emptyList();
+        PriorityQueue<Par> melhores = new PriorityQueue<>(Par.PIOR_PRIMEIRO);
+        new Contagem(cursos.length).linha(c, false, melhores, k);
+        return ordenados(melhores);
+    }
+
+    /**
+     * Os k pares de cursos mais parecidos do catálogo. A linha de cada curso conta só os cursos
+     * seguintes, e as linhas se dividem em blocos intercalados (os triângulos ficam equilibrados)
+     * que rodam em paralelo, cada um com os seus k melhores; os k melhores do catálogo estão
+     * entre eles.
+     */
+    List<Par> paresMaisParecidos(int k) {
+        if (k <= 0) return Collections.emptyList();
+        int blocos = Math.min(cursos.length, 4 * Runtime.getRuntime().availableProcessors());
+        PriorityQueue<Par> melhores = new PriorityQueue<>(Par.PIOR_PRIMEIRO);
+        IntStream.range(0, blocos).parallel()
+            .mapToObj(bloco -> {
+                PriorityQueue<Par> doBloco = new PriorityQueue<>(Par.PIOR_PRIMEIRO);
+                Contagem contagem = new Contagem(cursos.length);
+                for (int a = bloco; a < cursos.length; a += blocos) {
+                    contagem.linha(a, true, doBloco, k);
+                }
+                return doBloco;
+            })
+            .sequential()
+            .forEach(doBloco -> {
+                for (Par par : doBloco) {
+                    manter(melhores, k, par);
+                }
+            });
+        return ordenados(melhores);
+    }
+
+    private static void manter(PriorityQueue<Par> melhores, int k, Par par) {
+        if (melhores.size() < k) {
+            melhores.add(par);
+        } else if (Par.PIOR_PRIMEIRO.compare(par, melhores.peek()) > 0) {
+            melhores.poll();
+            melhores.add(par);
+        }
+    }
+
+    private static List<Par> ordenados(PriorityQueue<Par> melhores) {
+        List<Par> lista = new ArrayList<>(melhores);
+        lista.sort(Par.PIOR_PRIMEIRO.reversed());
+        return lista;
+    }
+
+    /**
+     * Dicionário de códigos: o número de cada código normalizado, e a primeira disciplina vista
+     * com ele.
+     */
+    private static final class Dicionario {
+        final Map<String, Integer> numeros = new HashMap<>();
+        // Codes exactly as written skip the normalisation, which dominates the build otherwise
+        final Map<String, Integer> escritos = new HashMap<>();
+        final List<Disciplina> representantes = new ArrayList<>();
+
+        /**
+         * Números das disciplinas da lista, em ordem crescente e sem repetir.
+         */
+        int[] numerar(List<Disciplina> lista) {
+            int[] marcados = new int[lista.size()];
+            int n = 0;
+            for (Disciplina d : lista) {
+                // Without a code there is nothing reliable to match across courses
+                if (d.codigo == null) continue;
+                Integer numero = escritos.get(d.codigo);
+                if (numero == null) {
+                    numero = numeros.computeIfAbsent(ChaveBusca.normalizar(d.codigo), chave -> {
+                        representantes.add(d);
+                        return representantes.size() - 1;
+                    });
+                    escritos.put(d.codigo, numero);
+                }
+                marcados[n++] = numero;
+            }
+            return ordenarSemRepetir(marcados, n);
+        }
+    }
+
+    /**
+     * Contadores por curso reaproveitados de uma linha para a outra; só os tocados são zerados.
+     */
+    private final class Contagem {
+        final int[] comuns;
+        final int[] tocados;
+
+        Contagem(int totalCursos) {
+            comuns = new int[totalCursos];
+            tocados = new int[totalCursos];
+        }
+
+        void linha(int a, boolean seguintes, PriorityQueue<Par> melhores, int k) {
+            int n = 0;
+            for (int d : numerosObrigatorias[a]) {
+                int[] lista = cursosComObrigatoria[d];
+                // Lists are ascending: for the all-pairs pass, start right after a
+                int inicio = seguintes ? Arrays.binarySearch(lista, a) + 1 : 0;
+                for (int i = inicio; i < lista.length; i++) {
+                    int b = lista[i];
+                    if (b == a) continue;
+                    if (comuns[b]++ == 0) tocados[n++] = b;
+                }
+            }
+            int tamanhoA = numerosObrigatorias[a].length;
+            for (int i = 0; i < n; i++) {
+                int b = tocados[i];
+                int tamanhoB = numerosObrigatorias[b].length;
+                int uniao = tamanhoA + tamanhoB - comuns[b];
+                Par pior = melhores.size() == k ? melhores.peek() : null;
+                // Only pairs that may enter the top k are created
+                if (pior == null || (long) comuns[b] * pior.uniao >= (long) pior.comuns * uniao) {
+                    manter(melhores, k, new Par(a, b, comuns[b], uniao, Math.min(tamanhoA, tamanhoB)));
+                }
+                comuns[b] = 0;
+            }
+        }
+    }
+
+    /**
+     * Dois cursos (posições em {@link #cursos}) e o tamanho da interseção, da união e do menor
+     * conjunto de obrigatórias.
+     */
+    static final class Par {
+        // Lower Jaccard first; on ties the pair that comes later in the catalogue counts as worse
+        static final Comparator<Par> PIOR_PRIMEIRO = (x, y) -> {
+            int jaccard = Long.compare((long) x.comuns * y.uniao, (long) y.comuns * x.uniao);
+            if (jaccard != 0) return jaccard;
+            if (x.a != y.a) return Integer.compare(y.a, x.a);
+            return Integer.compare(y.b, x.b);
+        };
+
+        final int a;
+        final int b;
+        final int comuns;
+        final int uniao;
+        final int menor;
+
+        Par(int a, int b, int comuns, int uniao, int menor) {
+            this.a = a;
+            this.b = b;
+            this.comuns = comuns;
+            this.uniao = uniao;
+            this.menor = menor;
+        }
+
+        double jaccard() {
+            return (double) comuns / uniao;
+        }
+
+        double sobreposicao() {
+            return (double) comuns / menor;
+        }
+    }
+}
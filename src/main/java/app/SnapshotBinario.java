@@ -0,0 +1,384 @@
+package app;
+
+import models.*;
+import scraper.OuvinteUnidades;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * SnapshotBinario grava e lê o modelo (unidades, cursos e disciplinas) em um arquivo binário
+ * compacto, para que o modo de consulta possa começar sem scraping. A leitura mapeia o arquivo
+ * em memória (FileChannel.map) e reconstrói os objetos direto das colunas.
+ *
+ * Formato, versão 1 (inteiros de 32 bits big-endian):
+ *   cabeçalho   "USPS", versão (16 bits), reservado (16 bits), nStrings, bytesTexto,
+ *               nDisciplinas, nUnidades, nCursos, nOcorrencias
+ *   strings     nStrings posições finais, seguidas dos bytesTexto de texto UTF-8
+ *   disciplinas nDisciplinas linhas de 8 colunas: codigo, nome, creditosAula,
+ *               creditosTrabalho, cargaHoraria, cargaEstagio, cargaPCC, cargaATPA
+ *   unidades    nUnidades linhas de 2 colunas: nome, nCursos
+ *   cursos      nCursos linhas de 8 colunas: nome, unidade, duracaoIdeal, duracaoMin,
+ *               duracaoMax, nObrigatorias, nEletivas, nLivres
+ *   ocorrencias nOcorrencias linhas de disciplina, na ordem dos cursos e das listas
+ *   CRC32 de tudo o que vem antes
+ * Textos são índices na tabela de strings (-1 para null). Cada instância de Disciplina vira uma
+ * linha, então disciplinas compartilhadas entre cursos (CatalogoDisciplinas) continuam
+ * compartilhadas depois da leitura.
+ */
+public class SnapshotBinario {
+    private static final int MAGICO = 0x55535053; // "USPS"
+    private static final short VERSAO = 1;
+    private static final int BYTES_CABECALHO = 32;
+    private static final int COLUNAS_DISCIPLINA = 8;
+    private static final int COLUNAS_UNIDADE = 2;
+    private static final int COLUNAS_CURSO = 8;
+    private static final int NULO = -1;
+
+    private SnapshotBinario() {
+    }
+
+    public static void gravar(List<Unidade> unidades, String arquivo) throws IOException {
+        // Assign every string and every Disciplina instance a row before writing anything
+        Map<String, Integer> indiceStrings = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Map<Disciplina, Integer> indiceDisciplinas = new IdentityHashMap<>();
+        List<Disciplina> disciplinas = new ArrayList<>();
+        int totalCursos = 0;
+        int totalOcorrencias = 0;
+
+        for (Unidade unidade : unidades) {
+            registrarString(unidade.nome, indiceStrings, strings);
+            for (Curso curso : unidade.cursos) {
+                totalCursos++;
+                for (String texto : Arrays.asList(curso.nome, curso.unidade, curso.duracaoIdeal, curso.duracaoMin, curso.duracaoMax)) {
+                    registrarString(texto, indiceStrings, strings);
+                }
+                for (List<Disciplina> lista : listas(curso)) {
+                    totalOcorrencias += lista.size();
+                    for (Disciplina disciplina : lista) {
+                        if (indiceDisciplinas.putIfAbsent(disciplina, disciplinas.size()) == null) {
+                            disciplinas.add(disciplina);
+                            registrarString(disciplina.codigo, indiceStrings, strings);
+                            registrarString(disciplina.nome, indiceStrings, strings);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<byte[]> textos = new ArrayList<>(strings.size());
+        int bytesTexto = 0;
+        for (String texto : strings) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            textos.add(bytes);
+            bytesTexto += bytes.length;
+        }
+
+        try (Saida out = new Saida(Paths.get(arquivo))) {
+            out.writeInt(MAGICO);
+            out.writeShort(VERSAO);
+            out.writeShort(0);
+            out.writeInt(strings.size());
+            out.writeInt(bytesTexto);
+            out.writeInt(disciplinas.size());
+            out.writeInt(unidades.size());
+            out.writeInt(totalCursos);
+            out.writeInt(totalOcorrencias);
+
+            int fim = 0;
+            for (byte[] bytes : textos) {
+                fim += bytes.length;
+                out.writeInt(fim);
+            }
+            for (byte[] bytes : textos) {
+                out.write(bytes);
+            }
+
+            for (Disciplina d : disciplinas) {
+                out.writeInt(indice(d.codigo, indiceStrings));
+                out.writeInt(indice(d.nome, indiceStrings));
+                out.writeInt(d.creditosAula);
+                out.writeInt(d.creditosTrabalho);
+                out.writeInt(d.cargaHoraria);
+                out.writeInt(d.cargaEstagio);
+                out.writeInt(d.cargaPCC);
+                out.writeInt(d.cargaATPA);
+            }
+
+            for (Unidade unidade : unidades) {
+                out.writeInt(indice(unidade.nome, indiceStrings));
+                out.writeInt(unidade.cursos.size());
+            }
+
+            for (Unidade unidade : unidades) {
+                for (Curso curso : unidade.cursos) {
+                    out.writeInt(indice(curso.nome, indiceStrings));
+                    out.writeInt(indice(curso.unidade, indiceStrings));
+                    out.writeInt(indice(curso.duracaoIdeal, indiceStrings));
+                    out.writeInt(indice(curso.duracaoMin, indiceStrings));
+                    out.writeInt(indice(curso.duracaoMax, indiceStrings));
+                    out.writeInt(curso.obrigatorias.size());
+                    out.writeInt(curso.optativasEletivas.size());
+                    out.writeInt(curso.optativasLivres.size());
+                }
+            }
+
+            for (Unidade unidade : unidades) {
+                for (Curso curso : unidade.cursos) {
+                    for (List<Disciplina> lista : listas(curso)) {
+                        for (Disciplina disciplina : lista) {
+                            out.writeInt(indiceDisciplinas.get(disciplina));
+                        }
+                    }
+                }
+            }
+
+            out.escreverSoma();
+        }
+    }
+
+    public static List<Unidade> carregar(String arquivo) throws IOException {
+        List<Unidade> unidades = new ArrayList<>();
+        percorrer(arquivo, new OuvinteUnidades() {
+            @Override
+            public void iniciar(int totalUnidades) {
+            }
+
+            @Override
+            public void unidadeConcluida(Unidade unidade) {
+                unidades.add(unidade);
+            }
+        });
+        return unidades;
+    }
+
+    /**
+     * Lê o snapshot entregando cada unidade, com seus cursos, assim que ela é montada; só a
+     * tabela de disciplinas fica inteira em memória.
+     */
+    public static void percorrer(String arquivo, OuvinteUnidades ouvinte) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(arquivo), StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < BYTES_CABECALHO + 4) {
+                throw new IOException("Snapshot inválido: arquivo muito pequeno");
+            }
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot grande demais: " + tamanho + " bytes");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            ler(buffer, (int) tamanho, ouvinte);
+        }
+    }
+
+    /**
+     * Verdadeiro se o arquivo começa com a marca de um snapshot binário.
+     */
+    static boolean ehSnapshot(String arquivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(Paths.get(arquivo)))) {
+            return in.readInt() == MAGICO;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void ler(ByteBuffer buffer, int tamanho, OuvinteUnidades ouvinte) throws IOException {
+        if (buffer.getInt(0) != MAGICO) {
+            throw new IOException("Snapshot inválido: não é um arquivo de snapshot");
+        }
+        short versao = buffer.getShort(4);
+        if (versao != VERSAO) {
+            throw new IOException("Versão de snapshot não suportada: " + versao + " (esperada " + VERSAO + ")");
+        }
+
+        int nStrings = buffer.getInt(8);
+        int bytesTexto = buffer.getInt(12);
+        int nDisciplinas = buffer.getInt(16);
+        int nUnidades = buffer.getInt(20);
+        int nCursos = buffer.getInt(24);
+        int nOcorrencias = buffer.getInt(28);
+        if (nStrings < 0 || bytesTexto < 0 || nDisciplinas < 0 || nUnidades < 0 || nCursos < 0 || nOcorrencias < 0) {
+            throw new IOException("Snapshot inválido: cabeçalho corrompido");
+        }
+
+        // Every section has a fixed width, so the expected size follows from the header alone
+        long esperado = BYTES_CABECALHO + 4L * nStrings + bytesTexto
+            + 4L * COLUNAS_DISCIPLINA * nDisciplinas + 4L * COLUNAS_UNIDADE * nUnidades
+            + 4L * COLUNAS_CURSO * nCursos + 4L * nOcorrencias + 4;
+        if (esperado != tamanho) {
+            throw new IOException("Snapshot inválido: tamanho " + tamanho + " bytes, esperado " + esperado);
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer conteudo = buffer.duplicate();
+        conteudo.limit(tamanho - 4);
+        crc.update(conteudo);
+        if ((int) crc.getValue() != buffer.getInt(tamanho - 4)) {
+            throw new IOException("Snapshot inválido: soma de verificação não confere");
+        }
+
+        int pos = BYTES_CABECALHO;
+        int posTexto = pos + 4 * nStrings;
+        byte[] texto = new byte[bytesTexto];
+        ByteBuffer trechoTexto = buffer.duplicate();
+        trechoTexto.position(posTexto);
+        trechoTexto.get(texto);
+        String[] strings = new String[nStrings];
+        int inicio = 0;
+        for (int i = 0; i < nStrings; i++) {
+            int fim = buffer.getInt(pos + 4 * i);
+            if (fim < inicio || fim > bytesTexto) {
+                throw new IOException("Snapshot inválido: tabela de strings corrompida");
+            }
+            strings[i] = new String(texto, inicio, fim - inicio, StandardCharsets.UTF_8);
+            inicio = fim;
+        }
+        pos = posTexto + bytesTexto;
+
+        Disciplina[] disciplinas = new Disciplina[nDisciplinas];
+        for (int i = 0; i < nDisciplinas; i++, pos += 4 * COLUNAS_DISCIPLINA) {
+            Disciplina d = new Disciplina(string(strings, buffer.getInt(pos)), string(strings, buffer.getInt(pos + 4)));
+            d.creditosAula = buffer.getInt(pos + 8);
+            d.creditosTrabalho = buffer.getInt(pos + 12);
+            d.cargaHoraria = buffer.getInt(pos + 16);
+            d.cargaEstagio = buffer.getInt(pos + 20);
+            d.cargaPCC = buffer.getInt(pos + 24);
+            d.cargaATPA = buffer.getInt(pos + 28);
+            disciplinas[i] = d;
+        }
+
+        int posUnidades = pos;
+        int posCursos = posUnidades + 4 * COLUNAS_UNIDADE * nUnidades;
+        int posOcorrencias = posCursos + 4 * COLUNAS_CURSO * nCursos;
+        int curso = 0;
+        int ocorrencia = 0;
+        ouvinte.iniciar(nUnidades);
+        for (int u = 0; u < nUnidades; u++) {
+            int linhaUnidade = posUnidades + 4 * COLUNAS_UNIDADE * u;
+            Unidade unidade = new Unidade(string(strings, buffer.getInt(linhaUnidade)));
+            int cursosDaUnidade = buffer.getInt(linhaUnidade + 4);
+            if (cursosDaUnidade < 0 || curso + cursosDaUnidade > nCursos) {
+                throw new IOException("Snapshot inválido: contagem de cursos corrompida");
+            }
+
+            for (int c = 0; c < cursosDaUnidade; c++, curso++) {
+                int linha = posCursos + 4 * COLUNAS_CURSO * curso;
+                Curso novo = new Curso(string(strings, buffer.getInt(linha)), string(strings, buffer.getInt(linha + 4)));
+                novo.duracaoIdeal = string(strings, buffer.getInt(linha + 8));
+                novo.duracaoMin = string(strings, buffer.getInt(linha + 12));
+                novo.duracaoMax = string(strings, buffer.getInt(linha + 16));
+                List<List<Disciplina>> listas = listas(novo);
+                for (int l = 0; l < listas.size(); l++) {
+                    int quantidade = buffer.getInt(linha + 20 + 4 * l);
+                    if (quantidade < 0 || ocorrencia + quantidade > nOcorrencias) {
+                        throw new IOException("Snapshot inválido: contagem de disciplinas corrompida");
+                    }
+                    List<Disciplina> lista = listas.get(l);
+                    for (int k = 0; k < quantidade; k++, ocorrencia++) {
+                        int indice = buffer.getInt(posOcorrencias + 4 * ocorrencia);
+                        if (indice < 0 || indice >= nDisciplinas) {
+                            throw new IOException("Snapshot inválido: disciplina " + indice + " fora da tabela");
+                        }
+                        lista.add(disciplinas[indice]);
+                    }
+                }
+                unidade.cursos.add(novo);
+            }
+            ouvinte.unidadeConcluida(unidade);
+        }
+        if (curso != nCursos || ocorrencia != nOcorrencias) {
+            throw new IOException("Snapshot inválido: cursos ou disciplinas a mais no arquivo");
+        }
+    }
+
+    private static List<List<Disciplina>> listas(Curso curso) {
+        return Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres);
+    }
+
+    private static void registrarString(String texto, Map<String, Integer> indice, List<String> strings) {
+        if (texto != null && indice.putIfAbsent(texto, strings.size()) == null) {
+            strings.add(texto);
+        }
+    }
+
+    private static int indice(String texto, Map<String, Integer> indice) {
+        return texto != null ? indice.get(texto) : NULO;
+    }
+
+    private static String string(String[] strings, int indice) throws IOException {
+        if (indice == NULO) return null;
+        if (indice < 0 || indice >= strings.length) {
+            throw new IOException("Snapshot inválido: string " + indice + " fora da tabela");
+        }
+        return strings[indice];
+    }
+
+    /**
+     * Saída com buffer próprio: cada inteiro é posto direto no ByteBuffer, e a soma de
+     * verificação é atualizada a cada bloco gravado no arquivo.
+     */
+    private static final class Saida implements Closeable {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private final CRC32 crc = new CRC32();
+
+        Saida(Path arquivo) throws IOException {
+            canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void writeInt(int valor) throws IOException {
+            if (buffer.remaining() < 4) descarregar();
+            buffer.putInt(valor);
+        }
+
+        void writeShort(int valor) throws IOException {
+            if (buffer.remaining() < 2) descarregar();
+            buffer.putShort((short) valor);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            int pos = 0;
+            while (pos < bytes.length) {
+                if (!buffer.hasRemaining()) descarregar();
+                int n = Math.min(buffer.remaining(), bytes.length - pos);
+                buffer.put(bytes, pos, n);
+                pos += n;
+            }
+        }
+
+        /**
+         * Grava o CRC32 de tudo o que foi escrito até aqui; deve ser a última escrita.
+         */
+        void escreverSoma() throws IOException {
+            descarregar();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            gravarBuffer();
+        }
+
+        private void descarregar() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            gravarBuffer();
+        }
+
+        private void gravarBuffer() throws IOException {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package app;
+
+import java.util.*;
+
+/**
+ * TriePrefixos associa valores a chaves e lista, em ordem alfabética das chaves, os valores
+ * cujas chaves começam com um prefixo. Descer até o prefixo custa o tamanho do prefixo, e
+ * a listagem para assim que o limite pedido é atingido, sem percorrer o resto do catálogo.
+ *
+ * É uma trie compactada (radix): trechos sem ramificação ficam em uma única aresta, o que
+ * mantém o número de nós proporcional ao número de chaves e não à soma dos seus tamanhos.
+ * As arestas apontam para trechos das próprias chaves, sem copiar texto.
+ */
+class TriePrefixos<T> {
+    private final No<T> raiz = new No<>("", 0, 0);
+
+    void adicionar(String chave, T valor) {
+        // Most names repeat across courses; a key already present only gains the value
+        No<T> existente = exato(chave);
+        if (existente != null && existente.terminal) {
+            existente.adicionarValor(valor);
+            return;
+        }
+
+        // A new key: every node on the way (including new ones) gets one more key below it
+        No<T> no = raiz;
+        no.chavesAbaixo++;
+        int pos = 0;
+        while (pos < chave.length()) {
+            int indice = no.indiceFilho(chave.charAt(pos));
+            if (indice < 0) {
+                no = no.inserirFilho(-indice - 1, new No<>(chave, pos, chave.length()));
+                no.chavesAbaixo++;
+                break;
+            }
+
+            No<T> filho = no.filhos[indice];
+            int comum = filho.prefixoComum(chave, pos);
+            if (comum < filho.tamanhoRotulo()) {
+                // The key leaves this edge halfway: split it at the divergence point
+                No<T> meio = new No<>(filho.origem, filho.inicio, filho.inicio + comum);
+                meio.chavesAbaixo = filho.chavesAbaixo;
+                filho.inicio += comum;
+                meio.inserirFilho(0, filho);
+                no.filhos[indice] = meio;
+                filho = meio;
+            }
+            no = filho;
+            no.chavesAbaixo++;
+            pos += comum;
+        }
+        no.terminal = true;
+        no.adicionarValor(valor);
+    }
+
+    /**
+     * Quantas chaves distintas começam com o prefixo.
+     */
+    int contar(String prefixo) {
+        No<T> no = descer(prefixo);
+        return no != null ? no.chavesAbaixo : 0;
+    }
+
+    /**
+     * Até {@code limite} valores cujas chaves começam com o prefixo, em ordem das chaves.
+     */
+    List<T> buscar(String prefixo, int limite) {
+        List<T> encontrados = new ArrayList<>();
+        No<T> no = descer(prefixo);
+        if (no != null) {
+            coletar(no, limite, encontrados);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Nó cuja subárvore contém exatamente as chaves que começam com o prefixo, ou null.
+     */
+    private No<T> descer(String prefixo) {
+        No<T> no = raiz;
+        int pos = 0;
+        while (pos < prefixo.length()) {
+            int indice = no.indiceFilho(prefixo.charAt(pos));
+            if (indice < 0) return null;
+            No<T> filho = no.filhos[indice];
+            int comum = filho.prefixoComum(prefixo, pos);
+            if (pos + comum == prefixo.length()) {
+                // The prefix ends on or inside this edge
+                return filho;
+            }
+            if (comum < filho.tamanhoRotulo()) return null;
+            pos += comum;
+            no = filho;
+        }
+        return no;
+    }
+
+    /**
+     * Nó em que a chave termina exatamente, ou null se ela acaba no meio de uma aresta ou não existe.
+     */
+    private No<T> exato(String chave) {
+        No<T> no = raiz;
+        int pos = 0;
+        while (pos < chave.length()) {
+            int indice = no.indiceFilho(chave.charAt(pos));
+            if (indice < 0) return null;
+            No<T> filho = no.filhos[indice];
+            int comum = filho.prefixoComum(chave, pos);
+            if (comum < filho.tamanhoRotulo()) return null;
+            pos += comum;
+            no = filho;
+        }
+        return no;
+    }
+
+    private void coletar(No<T> no, int limite, List<T> destino) {
+        if (no.terminal) {
+            if (destino.size() >= limite) return;
+            destino.add(no.valor);
+            if (no.outrosValores != null) {
+                for (T valor : no.outrosValores) {
+                    if (destino.size() >= limite) return;
+                    destino.add(valor);
+                }
+            }
+        }
+        for (int i = 0; i < no.quantidadeFilhos && destino.size() < limite; i++) {
+            coletar(no.filhos[i], limite, destino);
+        }
+    }
+
+    private static final class No<T> {
+        // Edge label: origem[inicio, fim)
+        final String origem;
+        int inicio;
+        final int fim;
+        // Children kept sorted by the first char of their label, so the walk yields keys in order
+        No<T>[] filhos;
+        int quantidadeFilhos;
+        int chavesAbaixo;
+        boolean terminal;
+        // Most keys have a single value; several distinct texts may share one normalized key
+        T valor;
+        List<T> outrosValores;
+
+        No(String origem, int inicio, int fim) {
+            this.origem = origem;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        int tamanhoRotulo() {
+            return fim - inicio;
+        }
+
+        int prefixoComum(String texto, int desde) {
+            int maximo = Math.min(fim - inicio, texto.length() - desde);
+            int i = 0;
+            while (i < maximo && origem.charAt(inicio + i) == texto.charAt(desde + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        int indiceFilho(char inicial) {
+            int baixo = 0, alto = quantidadeFilhos - 1;
+            while (baixo <= alto) {
+                int meio = (baixo + alto) >>> 1;
+                No<T> filho = filhos[meio];
+                char c = filho.origem.charAt(filho.inicio);
+                if (c < inicial) {
+                    baixo = meio + 1;
+                } else if (c > inicial) {
+                    alto = meio - 1;
+                } else {
+                    return meio;
+                }
+            }
+            return -(baixo + 1);
+        }
+
+        No<T> inserirFilho(int posicao, No<T> filho) {
+            if (filhos == null) {
+                filhos = novoArray(2);
+            } else if (quantidadeFilhos == filhos.length) {
+                filhos = Arrays.copyOf(filhos, filhos.length * 2);
+            }
+            System.arraycopy(filhos, posicao, filhos, posicao + 1, quantidadeFilhos - posicao);
+            filhos[posicao] = filho;
+            quantidadeFilhos++;
+            return filho;
+        }
+
+        void adicionarValor(T novo) {
+            if (valor == null) {
+                valor = novo;
+            } else if (!valor.equals(novo) && (outrosValores == null || !outrosValores.contains(novo))) {
+                if (outrosValores == null) outrosValores = new ArrayList<>(2);
+                outrosValores.add(novo);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <T> No<T>[] novoArray(int tamanho) {
+            return (No<T>[]) new No[tamanho];
+        }
+    }
+}
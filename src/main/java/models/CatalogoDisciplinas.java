@@ -0,0 +1,97 @@
+package models;
+
+import java.util.*;
+
+/**
+ * CatalogoDisciplinas guarda uma única instância de Disciplina por código, compartilhada por
+ * todos os cursos que oferecem a disciplina. A categoria (obrigatória, eletiva ou livre)
+ * continua sendo dada pela lista do curso em que a disciplina aparece.
+ *
+ * Se o mesmo código aparecer com dados diferentes (nome ou cargas), cada versão distinta
+ * tem sua própria instância, para que nenhum curso perca informação. Como as instâncias
+ * são compartilhadas, elas não devem ser alteradas depois de registradas.
+ */
+public class CatalogoDisciplinas {
+    private final Map<String, List<Disciplina>> versoesPorCodigo = new HashMap<>();
+    private final Map<String, List<Curso>> cursosPorCodigo = new HashMap<>();
+
+    /**
+     * Troca as disciplinas do curso pelas instâncias do catálogo e registra o curso
+     * como ofertante de cada uma delas.
+     */
+    public synchronized void registrar(Curso curso) {
+        for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+            for (ListIterator<Disciplina> it = lista.listIterator(); it.hasNext(); ) {
+                Disciplina canonica = canonica(it.next());
+                it.set(canonica);
+
+                List<Curso> cursos = cursosPorCodigo.computeIfAbsent(canonica.codigo, k -> new ArrayList<>(2));
+                // A course may list the same discipline in more than one category
+                if (cursos.isEmpty() || cursos.get(cursos.size() - 1) != curso) {
+                    cursos.add(curso);
+                }
+            }
+        }
+    }
+
+    public synchronized void registrar(Unidade unidade) {
+        for (Curso curso : unidade.cursos) {
+            registrar(curso);
+        }
+    }
+
+    /**
+     * Devolve a disciplina com o código dado (a primeira versão registrada), ou null.
+     */
+    public synchronized Disciplina buscar(String codigo) {
+        List<Disciplina> versoes = versoesPorCodigo.get(codigo);
+        return versoes != null ? versoes.get(0) : null;
+    }
+
+    /**
+     * Todas as versões registradas para o código; normalmente só uma.
+     */
+    public synchronized List<Disciplina> versoes(String codigo) {
+        return Collections.unmodifiableList(versoesPorCodigo.getOrDefault(codigo, Collections.emptyList()));
+    }
+
+    /**
+     * Cursos que oferecem a disciplina, na ordem em que foram registrados.
+     */
+    public synchronized List<Curso> cursosCom(String codigo) {
+        return Collections.unmodifiableList(cursosPorCodigo.getOrDefault(codigo, Collections.emptyList()));
+    }
+
+    public synchronized int totalCodigos() {
+        return versoesPorCodigo.size();
+    }
+
+    public synchronized int totalInstancias() {
+        int total = 0;
+        for (List<Disciplina> versoes : versoesPorCodigo.values()) {
+            total += versoes.size();
+        }
+        return total;
+    }
+
+    private Disciplina canonica(Disciplina disciplina) {
+        List<Disciplina> versoes = versoesPorCodigo.computeIfAbsent(disciplina.codigo, k -> new ArrayList<>(1));
+        for (Disciplina versao : versoes) {
+            if (versao == disciplina || mesmosDados(versao, disciplina)) {
+                return versao;
+            }
+        }
+        versoes.add(disciplina);
+        return disciplina;
+    }
+
+    /**
+     * Verdadeiro se as duas disciplinas têm o mesmo código, nome e cargas, ou seja, são a mesma versão.
+     */
+    public static boolean mesmosDados(Disciplina a, Disciplina b) {
+        return Objects.equals(a.codigo, b.codigo) && Objects.equals(a.nome, b.nome) &&
+            a.creditosAula == b.creditosAula && a.creditosTrabalho == b.creditosTrabalho &&
+            a.cargaHoraria == b.cargaHoraria && a.cargaEstagio == b.cargaEstagio &&
+            a.cargaPCC == b.cargaPCC && a.cargaATPA == b.cargaATPA;
+    }
+}
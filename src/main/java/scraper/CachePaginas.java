@@ -0,0 +1,118 @@
+package scraper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CachePaginas guarda em disco o HTML das grades curriculares já baixadas.
+ * O conteúdo fica em objetos/&lt;sha256&gt;.html.gz (páginas idênticas são gravadas uma vez só)
+ * e cada par unidade/curso tem uma entrada em entradas/ com o hash e o horário da busca.
+ */
+class CachePaginas {
+    private final Path objetos;
+    private final Path entradas;
+    private final Duration validade;
+
+    CachePaginas(Path diretorio, Duration validade) throws IOException {
+        this.objetos = Files.createDirectories(diretorio.resolve("objetos"));
+        this.entradas = Files.createDirectories(diretorio.resolve("entradas"));
+        this.validade = validade;
+    }
+
+    /**
+     * Devolve o HTML guardado para o curso, ou null se não houver entrada válida
+     * (ausente, expirada ou com conteúdo que não confere com o hash).
+     */
+    String ler(String unidade, String curso) {
+        Path entrada = entradas.resolve(hash(chave(unidade, curso).getBytes(StandardCharsets.UTF_8)) + ".properties");
+        if (!Files.exists(entrada)) return null;
+
+        try {
+            Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(entrada, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            long buscadoEm = Long.parseLong(props.getProperty("buscadoEm", "0"));
+            if (System.currentTimeMillis() - buscadoEm > validade.toMillis()) return null;
+
+            String hashConteudo = props.getProperty("hash");
+            Path objeto = objetos.resolve(hashConteudo + ".html.gz");
+            if (!Files.exists(objeto)) return null;
+
+            byte[] conteudo;
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(objeto)))) {
+                conteudo = in.readAllBytes();
+            }
+            if (!hash(conteudo).equals(hashConteudo)) {
+                System.err.println("Cache corrompido para curso " + curso + ", ignorando");
+                return null;
+            }
+            return new String(conteudo, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            System.err.println("Erro lendo cache para curso " + curso + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void gravar(String unidade, String curso, String html) {
+        try {
+            byte[] conteudo = html.getBytes(StandardCharsets.UTF_8);
+            String hashConteudo = hash(conteudo);
+
+            Path objeto = objetos.resolve(hashConteudo + ".html.gz");
+            if (!Files.exists(objeto)) {
+                ByteArrayOutputStream comprimido = new ByteArrayOutputStream(conteudo.length / 4);
+                try (OutputStream out = new GZIPOutputStream(comprimido)) {
+                    out.write(conteudo);
+                }
+                gravarAtomico(objeto, comprimido.toByteArray());
+            }
+
+            Properties props = new Properties();
+            props.setProperty("unidade", unidade);
+            props.setProperty("curso", curso);
+            props.setProperty("hash", hashConteudo);
+            props.setProperty("buscadoEm", Long.toString(System.currentTimeMillis()));
+            StringWriter texto = new StringWriter();
+            props.store(texto, null);
+            Path entrada = entradas.resolve(hash(chave(unidade, curso).getBytes(StandardCharsets.UTF_8)) + ".properties");
+            gravarAtomico(entrada, texto.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            System.err.println("Erro gravando cache para curso " + curso + ": " + e.getMessage());
+        }
+    }
+
+    private static void gravarAtomico(Path destino, byte[] dados) throws IOException {
+        // Write to a temporary file first so a crash never leaves a truncated entry behind
+        Path temporario = Files.createTempFile(destino.getParent(), "tmp", ".parcial");
+        try {
+            Files.write(temporario, dados);
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static String chave(String unidade, String curso) {
+        return unidade + "\u0000" + curso;
+    }
+
+    private static String hash(byte[] dados) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(dados);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package scraper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ControleRitmo espaça o início das requisições ao JupiterWeb, compartilhado entre as sessões.
+ * Começa sem intervalo nenhum e só freia quando o servidor dá sinais de sobrecarga: quando a
+ * taxa de erros sobe bem acima do seu nível recente, ou a latência média passa do dobro da
+ * melhor latência média recente, o intervalo dobra (no máximo uma vez por intervalo, para que
+ * uma rajada de falhas simultâneas não conte várias vezes); a cada resposta boa ele diminui
+ * 1/32, voltando aos poucos à vazão máxima que o servidor aguenta. Erros esporádicos, que não
+ * diminuem com um ritmo mais lento, ficam por conta das retentativas.
+ */
+final class ControleRitmo {
+    private static final long INTERVALO_INICIAL_AUMENTO = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long INTERVALO_MAXIMO = TimeUnit.SECONDS.toNanos(10);
+    // Below this the spacing is dropped altogether
+    private static final long INTERVALO_DESPREZIVEL = TimeUnit.MILLISECONDS.toNanos(1);
+    // Weight of the newest sample in the moving averages; errors are 0/1, so they need a longer memory
+    private static final double PESO = 0.2;
+    private static final double PESO_ERROS = 0.05;
+    // How far the error rate must rise above its recent level to count as overload
+    private static final double MARGEM_ERROS = 0.2;
+    // A server failing more often than this is slowed down even if it has been doing so for a while
+    private static final double TAXA_ERROS_NORMAL_MAXIMA = 0.15;
+    private static final int AMOSTRAS_PARA_LATENCIA = 5;
+    private static final double DERIVA = 0.02;
+
+    private final boolean ativo;
+    private long intervalo;
+    private long proximaVez;
+    private long ultimoAumento;
+    private double latenciaMedia;
+    private double melhorLatencia = Double.MAX_VALUE;
+    private double taxaErros;
+    private double taxaErrosNormal;
+    private long amostras;
+
+    /**
+     * @param ativo sem ritmo ativo, {@link #aguardarVez()} nunca espera, mas as médias continuam
+     *              sendo calculadas
+     */
+    ControleRitmo(boolean ativo) {
+        this.ativo = ativo;
+    }
+
+    /**
+     * Espera até a vez da próxima requisição e devolve quantos nanossegundos esperou.
+     */
+    long aguardarVez() throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            if (!ativo || intervalo == 0) return 0;
+            long agora = System.nanoTime();
+            long vez = Math.max(agora, proximaVez);
+            proximaVez = vez + intervalo;
+            espera = vez - agora;
+        }
+        if (espera > 0) {
+            Scraper.pausar(espera);
+        }
+        return espera;
+    }
+
+    /**
+     * Registra uma requisição: quanto levou e se a falha, havendo, é de sobrecarga (recusa,
+     * servidor indisponível, tempo esgotado). Outras falhas contam como respostas normais.
+     */
+    synchronized void registrar(long nanos, boolean sobrecarregado) {
+        boolean sucesso = !sobrecarregado;
+        amostras++;
+        latenciaMedia = amostras == 1 ? nanos : latenciaMedia + PESO * (nanos - latenciaMedia);
+        taxaErros += PESO_ERROS * ((sucesso ? 0 : 1) - taxaErros);
+        // Both baselines creep towards the current averages, so a lasting slowdown or a steady
+        // trickle of errors that pacing cannot fix becomes the new normal instead of pushing
+        // the interval up forever
+        taxaErrosNormal = Math.min(TAXA_ERROS_NORMAL_MAXIMA,
+            Math.min(taxaErros, taxaErrosNormal + DERIVA * (taxaErros - taxaErrosNormal)));
+        boolean sobrecarga = !sucesso && taxaErros > taxaErrosNormal + MARGEM_ERROS;
+        if (sucesso && amostras >= AMOSTRAS_PARA_LATENCIA) {
+            melhorLatencia = melhorLatencia == Double.MAX_VALUE ? latenciaMedia
+                : Math.min(latenciaMedia, melhorLatencia + DERIVA * (latenciaMedia - melhorLatencia));
+            sobrecarga = latenciaMedia > 2 * melhorLatencia;
+        }
+
+        long agora = System.nanoTime();
+        if (sobrecarga) {
+            if (intervalo == 0 || agora - ultimoAumento >= intervalo) {
+                intervalo = Math.min(INTERVALO_MAXIMO, Math.max(INTERVALO_INICIAL_AUMENTO, 2 * intervalo));
+                ultimoAumento = agora;
+            }
+        } else if (sucesso) {
+            intervalo -= intervalo / 32;
+            if (intervalo < INTERVALO_DESPREZIVEL) intervalo = 0;
+        }
+    }
+
+    synchronized long intervaloNanos() {
+        return intervalo;
+    }
+
+    synchronized double latenciaMediaMs() {
+        return latenciaMedia / 1e6;
+    }
+
+    synchronized double taxaErros() {
+        return taxaErros;
+    }
+}
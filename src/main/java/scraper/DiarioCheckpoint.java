@@ -0,0 +1,241 @@
+package scraper;
+
+import models.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * DiarioCheckpoint é um arquivo append-only com cada curso concluído durante o scraping.
+ * Ao reiniciar, os cursos e unidades já registrados são reaproveitados em vez de buscados de novo.
+ *
+ * Formato (uma linha por registro, campos separados por tab):
+ *   C  unidade  curso  duracaoIdeal  duracaoMin  duracaoMax  nObrigatorias  nEletivas  nLivres  [8 campos por disciplina]
+ *   U  unidade  nCursos  curso1  curso2 ...   (unidade concluída, com os cursos na ordem final)
+ * Uma linha incompleta no fim do arquivo (gravação interrompida) é ignorada.
+ */
+class DiarioCheckpoint {
+    private static final String NULO = "\\0";
+    private static final int CAMPOS_DISCIPLINA = 8;
+
+    private final Map<String, Map<String, Curso>> cursosPorUnidade = new HashMap<>();
+    private final Map<String, List<String>> unidadesConcluidas = new HashMap<>();
+    private final Writer writer;
+
+    DiarioCheckpoint(Path arquivo) throws IOException {
+        if (Files.exists(arquivo)) {
+            carregar(arquivo);
+        }
+        boolean linhaInterrompida = terminaSemQuebraDeLinha(arquivo);
+        writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (linhaInterrompida) {
+            // Keep the torn record on its own line so the next one is not corrupted
+            writer.write('\n');
+        }
+    }
+
+    private static boolean terminaSemQuebraDeLinha(Path arquivo) throws IOException {
+        if (!Files.exists(arquivo) || Files.size(arquivo) == 0) return false;
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo.toFile(), "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        }
+    }
+
+    int totalCursos() {
+        int total = 0;
+        for (Map<String, Curso> cursos : cursosPorUnidade.values()) {
+            total += cursos.size();
+        }
+        return total;
+    }
+
+    int totalUnidadesConcluidas() {
+        return unidadesConcluidas.size();
+    }
+
+    /**
+     * Reconstrói a unidade se ela já foi concluída em uma execução anterior, senão devolve null.
+     */
+    synchronized Unidade unidadeConcluida(String nomeUnidade) {
+        List<String> nomesCursos = unidadesConcluidas.get(nomeUnidade);
+        if (nomesCursos == null) return null;
+
+        Unidade unidade = new Unidade(nomeUnidade);
+        Map<String, Curso> cursos = cursosPorUnidade.getOrDefault(nomeUnidade, Collections.emptyMap());
+        for (String nomeCurso : nomesCursos) {
+            Curso curso = cursos.get(nomeCurso);
+            if (curso != null) {
+                unidade.cursos.add(curso);
+            }
+        }
+        return unidade;
+    }
+
+    synchronized Curso curso(String nomeUnidade, String nomeCurso) {
+        return cursosPorUnidade.getOrDefault(nomeUnidade, Collections.emptyMap()).get(nomeCurso);
+    }
+
+    synchronized void registrarCurso(String nomeUnidade, Curso curso) throws IOException {
+        List<String> campos = new ArrayList<>();
+        campos.add("C");
+        campos.add(nomeUnidade);
+        campos.add(curso.nome);
+        campos.add(curso.duracaoIdeal);
+        campos.add(curso.duracaoMin);
+        campos.add(curso.duracaoMax);
+        campos.add(Integer.toString(curso.obrigatorias.size()));
+        campos.add(Integer.toString(curso.optativasEletivas.size()));
+        campos.add(Integer.toString(curso.optativasLivres.size()));
+        for (List<Disciplina> lista : Arrays.asList(curso.obrigatorias, curso.optativasEletivas, curso.optativasLivres)) {
+            for (Disciplina d : lista) {
+                campos.add(d.codigo);
+                campos.add(d.nome);
+                campos.add(Integer.toString(d.creditosAula));
+                campos.add(Integer.toString(d.creditosTrabalho));
+                campos.add(Integer.toString(d.cargaHoraria));
+                campos.add(Integer.toString(d.cargaEstagio));
+                campos.add(Integer.toString(d.cargaPCC));
+                campos.add(Integer.toString(d.cargaATPA));
+            }
+        }
+        escreverLinha(campos);
+        cursosPorUnidade.computeIfAbsent(nomeUnidade, k -> new HashMap<>()).put(curso.nome, curso);
+    }
+
+    synchronized void registrarUnidade(Unidade unidade) throws IOException {
+        List<String> campos = new ArrayList<>();
+        campos.add("U");
+        campos.add(unidade.nome);
+        campos.add(Integer.toString(unidade.cursos.size()));
+        List<String> nomesCursos = new ArrayList<>();
+        for (Curso curso : unidade.cursos) {
+            nomesCursos.add(curso.nome);
+        }
+        campos.addAll(nomesCursos);
+        escreverLinha(campos);
+        unidadesConcluidas.put(unidade.nome, nomesCursos);
+    }
+
+    synchronized void fechar() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar checkpoint: " + e.getMessage());
+        }
+    }
+
+    private void escreverLinha(List<String> campos) throws IOException {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < campos.size(); i++) {
+            if (i > 0) linha.append('\t');
+            linha.append(escapar(campos.get(i)));
+        }
+        linha.append('\n');
+        writer.write(linha.toString());
+        // Flush every record so an interrupted run loses at most the course in progress
+        writer.flush();
+    }
+
+    private void carregar(Path arquivo) throws IOException {
+        int ignoradas = 0;
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isEmpty()) continue;
+                try {
+                    String[] campos = linha.split("\t", -1);
+                    if (campos[0].equals("C")) {
+                        carregarCurso(campos);
+                    } else if (campos[0].equals("U")) {
+                        if (campos.length != 3 + Integer.parseInt(campos[2])) {
+                            throw new IllegalArgumentException("Registro de unidade incompleto");
+                        }
+                        List<String> nomesCursos = new ArrayList<>();
+                        for (int i = 3; i < campos.length; i++) {
+                            nomesCursos.add(desescapar(campos[i]));
+                        }
+                        unidadesConcluidas.put(desescapar(campos[1]), nomesCursos);
+                    } else {
+                        ignoradas++;
+                    }
+                } catch (RuntimeException e) {
+                    ignoradas++;
+                }
+            }
+        }
+        if (ignoradas > 0) {
+            System.err.println("Checkpoint: " + ignoradas + " linha(s) inválida(s) ignorada(s)");
+        }
+    }
+
+    private void carregarCurso(String[] campos) {
+        int obrigatorias = Integer.parseInt(campos[6]);
+        int eletivas = Integer.parseInt(campos[7]);
+        int livres = Integer.parseInt(campos[8]);
+        if (campos.length != 9 + (obrigatorias + eletivas + livres) * CAMPOS_DISCIPLINA) {
+            throw new IllegalArgumentException("Registro de curso incompleto");
+        }
+
+        String nomeUnidade = desescapar(campos[1]);
+        Curso curso = new Curso(desescapar(campos[2]), nomeUnidade);
+        curso.duracaoIdeal = desescapar(campos[3]);
+        curso.duracaoMin = desescapar(campos[4]);
+        curso.duracaoMax = desescapar(campos[5]);
+
+        int pos = 9;
+        pos = carregarDisciplinas(campos, pos, obrigatorias, curso.obrigatorias);
+        pos = carregarDisciplinas(campos, pos, eletivas, curso.optativasEletivas);
+        carregarDisciplinas(campos, pos, livres, curso.optativasLivres);
+
+        cursosPorUnidade.computeIfAbsent(nomeUnidade, k -> new HashMap<>()).put(curso.nome, curso);
+    }
+
+    private static int carregarDisciplinas(String[] campos, int pos, int quantidade, List<Disciplina> destino) {
+        for (int i = 0; i < quantidade; i++) {
+            Disciplina d = new Disciplina(desescapar(campos[pos]), desescapar(campos[pos + 1]));
+            d.creditosAula = Integer.parseInt(campos[pos + 2]);
+            d.creditosTrabalho = Integer.parseInt(campos[pos + 3]);
+            d.cargaHoraria = Integer.parseInt(campos[pos + 4]);
+            d.cargaEstagio = Integer.parseInt(campos[pos + 5]);
+            d.cargaPCC = Integer.parseInt(campos[pos + 6]);
+            d.cargaATPA = Integer.parseInt(campos[pos + 7]);
+            destino.add(d);
+            pos += CAMPOS_DISCIPLINA;
+        }
+        return pos;
+    }
+
+    private static String escapar(String valor) {
+        if (valor == null) return NULO;
+        return valor.replace("\\", "\\\\")
+                    .replace("\t", "\\t")
+                    .replace("\n", "\\n")
+                    .replace("\r", "\\r");
+    }
+
+    private static String desescapar(String valor) {
+        if (valor.equals(NULO)) return null;
+        if (valor.indexOf('\\') < 0) return valor;
+
+        StringBuilder sb = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '\\' && i + 1 < valor.length()) {
+                char next = valor.charAt(++i);
+                switch (next) {
+                    case 't': sb.append('\t'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    default: sb.append(next); break;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
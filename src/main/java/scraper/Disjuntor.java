@@ -0,0 +1,109 @@
+package scraper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disjuntor de uma unidade: depois de {@link #FALHAS_PARA_ABRIR} tentativas seguidas com falha,
+ * as requisições da unidade param por uma pausa, em vez de continuar insistindo com um servidor
+ * que recusa. Passada a pausa, uma única tentativa (sonda) é liberada: se der certo o disjuntor
+ * fecha, se falhar ele abre de novo com o dobro da pausa. Depois de {@link #MAXIMO_ABERTURAS}
+ * aberturas seguidas a unidade é abandonada nesta execução e os cursos que faltam falham na hora;
+ * como a unidade não fica completa, o checkpoint os tenta de novo na próxima execução.
+ *
+ * Durante a pausa, os cursos da unidade não esperam dentro do pool: saem com
+ * {@link UnidadePausada} e a tarefa da unidade os processa de novo quando a pausa acaba.
+ */
+final class Disjuntor {
+    static final int FALHAS_PARA_ABRIR = 8;
+    static final int MAXIMO_ABERTURAS = 4;
+    private static final long PAUSA_INICIAL = TimeUnit.SECONDS.toNanos(30);
+    // How often callers check back while the probe is running
+    private static final long ESPERA_SONDA = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final String unidade;
+    private int falhasSeguidas;
+    private int aberturas;
+    private boolean aberto;
+    private boolean sondando;
+    private long abertoAte;
+
+    /**
+     * Falha de quem tenta passar pelo disjuntor de uma unidade abandonada.
+     */
+    static final class DisjuntorAberto extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        DisjuntorAberto(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    /**
+     * Sinal de que a tentativa foi adiada porque o disjuntor está na pausa; não é uma falha.
+     */
+    static final class UnidadePausada extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnidadePausada(String unidade) {
+            super("Unidade em pausa: " + unidade);
+        }
+    }
+
+    Disjuntor(String unidade) {
+        this.unidade = unidade;
+    }
+
+    /**
+     * Devolve 0 se a tentativa pode ser feita agora, ou quantos nanossegundos esperar antes de
+     * perguntar de novo.
+     */
+    synchronized long permitir() throws DisjuntorAberto {
+        if (!aberto) return 0;
+        if (aberturas > MAXIMO_ABERTURAS) {
+            throw new DisjuntorAberto("Unidade abandonada após " + MAXIMO_ABERTURAS + " pausas: " + unidade);
+        }
+        long falta = abertoAte - System.nanoTime();
+        if (falta > 0) return falta;
+        if (sondando) return ESPERA_SONDA;
+        sondando = true;
+        return 0;
+    }
+
+    /**
+     * Quanto falta da pausa atual; 0 se o disjuntor está fechado, à espera da sonda ou se a
+     * unidade já foi abandonada.
+     */
+    synchronized long pausaRestante() {
+        if (!aberto || aberturas > MAXIMO_ABERTURAS) return 0;
+        return Math.max(0, abertoAte - System.nanoTime());
+    }
+
+    UnidadePausada pausada() {
+        return new UnidadePausada(unidade);
+    }
+
+    synchronized void sucesso() {
+        falhasSeguidas = 0;
+        aberturas = 0;
+        aberto = false;
+        sondando = false;
+    }
+
+    /**
+     * Registra uma tentativa com falha e devolve a pausa, se o disjuntor abriu agora, ou 0.
+     */
+    synchronized long falha() {
+        long agora = System.nanoTime();
+        // Requests already in flight when it opened fail during the pause; they are not probes
+        if (aberto && agora < abertoAte) return 0;
+        sondando = false;
+        falhasSeguidas++;
+        if (!aberto && falhasSeguidas < FALHAS_PARA_ABRIR) return 0;
+        aberto = true;
+        aberturas++;
+        if (aberturas > MAXIMO_ABERTURAS) return 0;
+        long pausa = PAUSA_INICIAL << (aberturas - 1);
+        abertoAte = agora + pausa;
+        return pausa;
+    }
+}
@@ -0,0 +1,362 @@
+package scraper;
+
+import models.*;
+import org.jsoup.nodes.*;
+import org.jsoup.select.Elements;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.*;
+
+/**
+ * ExtratorCurso extrai durações e disciplinas de uma página de grade curricular percorrendo o DOM uma vez.
+ *
+ * O texto da página é reproduzido caractere a caractere com as mesmas regras de Element.text()
+ * (espaços normalizados, blocos separados por espaço), mas sem montar a string completa: só os
+ * trechos logo após "Duração Ideal:", "Mínima:" e "Máxima:" são guardados, e sobre eles são
+ * aplicadas exatamente as mesmas operações que o parser anterior aplicava ao texto inteiro.
+ */
+class ExtratorCurso implements NodeVisitor {
+    private static final String IDEAL = "Duração Ideal:";
+    private static final String MINIMA = "Mínima:";
+    private static final String MAXIMA = "Máxima:";
+    private static final int JANELA = 16;
+
+    // Ideal and Mínima take the first two words after trimming; Máxima takes split elements 2 and 3
+    private final Trecho ideal = new Trecho(IDEAL, new String[] {IDEAL, MINIMA}, 2, true);
+    private final Trecho minima = new Trecho(MINIMA, new String[] {MINIMA, MAXIMA}, 2, true);
+    private final Trecho maxima = new Trecho(MAXIMA, new String[] {MAXIMA}, 4, false);
+    private final Trecho[] trechos = {ideal, minima, maxima};
+
+    private final StringBuilder janela = new StringBuilder(JANELA * 2);
+    private final List<Element> tabelas = new ArrayList<>();
+    private boolean textoVazio = true;
+    private char ultimoChar;
+
+    static Curso extrair(Document doc, String nomeCurso, String nomeUnidade) {
+        Curso curso = new Curso(nomeCurso, nomeUnidade);
+
+        System.out.println("Analisando curso: " + nomeCurso);
+
+        ExtratorCurso extrator = new ExtratorCurso();
+        NodeTraversor.traverse(extrator, doc);
+        extrator.finalizarTexto();
+
+        extrator.extrairDuracoes(curso);
+        System.out.println("Durações do curso extraídas com sucesso");
+
+        extrator.extrairDisciplinas(curso);
+
+        System.out.println("Curso analisado com sucesso - Total de disciplinas: " +
+                          (curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size()));
+
+        return curso;
+    }
+
+    @Override
+    public void head(Node node, int depth) {
+        if (node instanceof TextNode) {
+            TextNode textNode = (TextNode) node;
+            String text = textNode.getWholeText();
+            if (preservaEspacos(textNode.parentNode()) || textNode instanceof CDataNode) {
+                for (int i = 0; i < text.length(); i++) {
+                    emitir(text.charAt(i));
+                }
+            } else {
+                emitirNormalizado(text);
+            }
+        } else if (node instanceof Element) {
+            Element element = (Element) node;
+            if (element.nameIs("table")) {
+                tabelas.add(element);
+            }
+            if (!textoVazio && (element.isBlock() || element.nameIs("br")) && !ultimoEhEspaco()) {
+                emitir(' ');
+            }
+        }
+    }
+
+    @Override
+    public void tail(Node node, int depth) {
+        // Same rule as Element.text(): a block followed by text or an inline element gets a space
+        if (node instanceof Element) {
+            Element element = (Element) node;
+            Node next = node.nextSibling();
+            if (element.isBlock() && (next instanceof TextNode || next instanceof Element && !((Element) next).tag().formatAsBlock())
+                && !ultimoEhEspaco()) {
+                emitir(' ');
+            }
+        }
+    }
+
+    private void emitirNormalizado(String text) {
+        boolean stripLeading = ultimoEhEspaco();
+        boolean lastWasWhite = false;
+        boolean reachedNonWhite = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160) {
+                if ((stripLeading && !reachedNonWhite) || lastWasWhite)
+                    continue;
+                emitir(' ');
+                lastWasWhite = true;
+            } else if (c != 8203 && c != 173) { // zero width space, soft hyphen
+                emitir(c);
+                lastWasWhite = false;
+                reachedNonWhite = true;
+            }
+        }
+    }
+
+    private boolean ultimoEhEspaco() {
+        return !textoVazio && ultimoChar == ' ';
+    }
+
+    private static boolean preservaEspacos(Node node) {
+        // Element.text() looks only at this element and five levels up
+        if (node instanceof Element) {
+            Element el = (Element) node;
+            int i = 0;
+            do {
+                if (el.tag().preserveWhitespace())
+                    return true;
+                el = el.parent();
+                i++;
+            } while (i < 6 && el != null);
+        }
+        return false;
+    }
+
+    private void emitir(char c) {
+        textoVazio = false;
+        ultimoChar = c;
+
+        janela.append(c);
+        if (janela.length() > JANELA * 2) {
+            janela.delete(0, janela.length() - JANELA);
+        }
+        for (Trecho trecho : trechos) {
+            trecho.aceitar(c, janela);
+        }
+    }
+
+    private void finalizarTexto() {
+        // The old parser worked on doc.text(), which is trimmed at the end
+        for (Trecho trecho : trechos) {
+            trecho.finalizar();
+        }
+    }
+
+    private void extrairDuracoes(Curso curso) {
+        if (ideal.temConteudo()) {
+            try {
+                String afterIdeal = ideal.texto().trim();
+                curso.duracaoIdeal = afterIdeal.split("\\s+")[0] + " " + afterIdeal.split("\\s+")[1]; // e.g., "8 semestres"
+            } catch (Exception e) {
+                System.out.println("Error parsing duração ideal: " + e.getMessage());
+            }
+        }
+
+        if (minima.temConteudo()) {
+            try {
+                String afterMin = minima.texto().trim();
+                curso.duracaoMin = afterMin.split("\\s+")[0] + " " + afterMin.split("\\s+")[1];
+            } catch (Exception e) {
+                System.out.println("Erro analisando duração mínima: " + e.getMessage());
+            }
+        }
+
+        if (maxima.temConteudo()) {
+            try {
+                String[] palavras = maxima.texto().split("\\s+");
+                curso.duracaoMax = palavras[2] + " " + palavras[3]; // Skip first words
+            } catch (Exception e) {
+                System.out.println("Erro analisando duração máxima: " + e.getMessage());
+            }
+        }
+    }
+
+    private void extrairDisciplinas(Curso curso) {
+        // Look for discipline tables with specific structure
+        for (Element table : tabelas) {
+            // Only the first row decides whether the table matters, so check it before collecting all rows
+            Element firstRow = table.selectFirst("tr");
+            if (firstRow == null) continue;
+            String firstRowText = firstRow.text();
+
+            List<Disciplina> targetList = null;
+            String categoryName = "";
+
+            if (firstRowText.contains("Disciplinas Obrigatórias")) {
+                targetList = curso.obrigatorias;
+                categoryName = "OBRIGATÓRIAS";
+            } else if (firstRowText.contains("Disciplinas Optativas Eletivas")) {
+                targetList = curso.optativasEletivas;
+                categoryName = "ELETIVAS";
+            } else if (firstRowText.contains("Disciplinas Optativas Livres")) {
+                targetList = curso.optativasLivres;
+                categoryName = "OPTATIVAS_LIVRES";
+            }
+
+            if (targetList == null) continue;
+
+            Elements rows = table.select("tr");
+            if (rows.size() < 3) continue; // Need at least title, header, and data rows
+
+            System.out.println("Processando disciplinas " + categoryName + "...");
+
+            // Check if second row looks like a header
+            String secondRowText = rows.get(1).text().toLowerCase();
+            boolean hasHeader = secondRowText.contains("créd") || secondRowText.contains("semestre") ||
+                secondRowText.contains("aula") || secondRowText.contains("trabalho");
+
+            int startRow = hasHeader ? 2 : 1; // Skip title and potentially header
+
+            for (int rowIndex = startRow; rowIndex < rows.size(); rowIndex++) {
+                try {
+                    Elements cols = rows.get(rowIndex).select("td");
+
+                    if (cols.size() < 2) {
+                        continue; // Skip rows with insufficient columns
+                    }
+
+                    String codigo = cols.get(0).text().trim();
+                    String nome = cols.get(1).text().trim();
+
+                    if (!codigo.isEmpty() && !nome.isEmpty() &&
+                        !codigo.toLowerCase().contains("créd") &&
+                        !nome.toLowerCase().contains("créd")) {
+
+                        // Try to extract additional fields if available
+                        int creditosAula = 0, creditosTrabalho = 0, cargaHoraria = 0;
+
+                        try {
+                            if (cols.size() > 2) creditosAula = parseIntSafely(cols.get(2).text());
+                            if (cols.size() > 3) creditosTrabalho = parseIntSafely(cols.get(3).text());
+                            if (cols.size() > 4) cargaHoraria = parseIntSafely(cols.get(4).text());
+                        } catch (Exception e) {
+                            // Silently continue if additional fields can't be parsed
+                        }
+
+                        Disciplina disciplina = new Disciplina(codigo, nome);
+                        disciplina.creditosAula = creditosAula;
+                        disciplina.creditosTrabalho = creditosTrabalho;
+                        disciplina.cargaHoraria = cargaHoraria;
+
+                        targetList.add(disciplina);
+                    }
+
+                } catch (Exception e) {
+                    // Continue processing other rows if one fails
+                    continue;
+                }
+            }
+
+            System.out.println("Encontradas " + targetList.size() + " disciplinas " + categoryName.toLowerCase());
+        }
+    }
+
+    private static int parseIntSafely(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Trecho de texto que segue a primeira ocorrência de um marcador, até um dos terminadores,
+     * até o fim do texto ou até já conter palavras suficientes para o cálculo da duração.
+     */
+    private static final class Trecho {
+        private final String marcador;
+        private final String[] terminadores;
+        private final int elementos;
+        private final boolean aparar;
+        private StringBuilder conteudo;
+        private boolean palavrasCompletas;
+        private boolean concluido;
+
+        Trecho(String marcador, String[] terminadores, int elementos, boolean aparar) {
+            this.marcador = marcador;
+            this.terminadores = terminadores;
+            this.elementos = elementos;
+            this.aparar = aparar;
+        }
+
+        void aceitar(char c, StringBuilder janela) {
+            if (concluido) return;
+            if (conteudo == null) {
+                if (terminaCom(janela, marcador)) {
+                    conteudo = new StringBuilder();
+                }
+                return;
+            }
+
+            conteudo.append(c);
+            for (String terminador : terminadores) {
+                if (terminaCom(conteudo, terminador)) {
+                    conteudo.setLength(conteudo.length() - terminador.length());
+                    concluido = true;
+                    return;
+                }
+            }
+            // A whitespace closes the current word, so the needed words may now be complete
+            if (espacoRegex(c)) {
+                palavrasCompletas = palavrasCompletas || contarPalavras() >= elementos;
+            } else if (palavrasCompletas && c > ' ' && !podeIniciarTerminador()) {
+                // Stop only after a visible character: trim() on the full text could otherwise
+                // still strip control characters glued to the last needed word
+                concluido = true;
+            }
+        }
+
+        void finalizar() {
+            if (conteudo == null || concluido) return;
+            int fim = conteudo.length();
+            while (fim > 0 && conteudo.charAt(fim - 1) <= ' ') {
+                fim--;
+            }
+            conteudo.setLength(fim);
+            concluido = true;
+        }
+
+        boolean temConteudo() {
+            return conteudo != null && conteudo.length() > 0;
+        }
+
+        String texto() {
+            return conteudo.toString();
+        }
+
+        private int contarPalavras() {
+            String texto = aparar ? conteudo.toString().trim() : conteudo.toString();
+            return texto.split("\\s+").length;
+        }
+
+        private boolean podeIniciarTerminador() {
+            // A terminator containing a space (e.g. "Duração Ideal:") may still be completing
+            for (String terminador : terminadores) {
+                for (int tamanho = terminador.length() - 1; tamanho > 0; tamanho--) {
+                    if (terminaCom(conteudo, terminador.substring(0, tamanho))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean espacoRegex(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+
+        private static boolean terminaCom(CharSequence texto, String sufixo) {
+            int inicio = texto.length() - sufixo.length();
+            if (inicio < 0) return false;
+            for (int i = 0; i < sufixo.length(); i++) {
+                if (texto.charAt(inicio + i) != sufixo.charAt(i)) return false;
+            }
+            return true;
+        }
+    }
+}
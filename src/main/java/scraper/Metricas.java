@@ -0,0 +1,286 @@
+package scraper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metricas acumula contadores, tempos e falhas medidos durante o scraping, agrupados por nome.
+ * É compartilhada entre as sessões e pode ser usada de várias threads.
+ *
+ * Cada tempo guarda, além de vezes, total e máximo, um histograma de latências com baldes
+ * logarítmicos (oito por potência de 2, em microssegundos), de onde saem os percentis: o erro
+ * fica abaixo de 12,5% e a memória não depende de quantas medições foram feitas. As falhas são
+ * contadas por etapa e causa (tipo da exceção, ou o status HTTP).
+ */
+class Metricas {
+    private final Map<String, Temporizador> temporizadores = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> contadores = new ConcurrentHashMap<>();
+    // Stage -> cause -> count
+    private final Map<String, Map<String, LongAdder>> falhas = new ConcurrentHashMap<>();
+
+    /**
+     * Trecho medido por {@link #medir}.
+     */
+    interface Etapa<T> {
+        T executar() throws Exception;
+    }
+
+    void incrementar(String nome) {
+        adicionar(nome, 1);
+    }
+
+    void adicionar(String nome, long quantidade) {
+        contadores.computeIfAbsent(nome, k -> new LongAdder()).add(quantidade);
+    }
+
+    long contagem(String nome) {
+        LongAdder contador = contadores.get(nome);
+        return contador != null ? contador.sum() : 0;
+    }
+
+    void registrarTempo(String nome, long nanos) {
+        temporizadores.computeIfAbsent(nome, k -> new Temporizador()).registrar(nanos);
+    }
+
+    /**
+     * Executa a etapa e registra o tempo dela com o nome dado, mesmo se ela falhar.
+     */
+    <T> T medir(String nome, Etapa<T> etapa) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return etapa.executar();
+        } finally {
+            registrarTempo(nome, System.nanoTime() - inicio);
+        }
+    }
+
+    void registrarFalha(String etapa, Throwable erro) {
+        registrarFalha(etapa, causa(erro));
+    }
+
+    void registrarFalha(String etapa, String causa) {
+        falhas.computeIfAbsent(etapa, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(causa, k -> new LongAdder()).increment();
+    }
+
+    long falhas(String etapa) {
+        Map<String, LongAdder> causas = falhas.get(etapa);
+        if (causas == null) return 0;
+        long total = 0;
+        for (LongAdder contador : causas.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Causa de uma falha: o status, para respostas HTTP com erro, ou o tipo da exceção de origem.
+     */
+    static String causa(Throwable erro) {
+        Throwable origem = erro;
+        while (origem.getCause() != null && origem.getCause() != origem) {
+            origem = origem.getCause();
+        }
+        String mensagem = origem.getMessage();
+        if (mensagem != null && mensagem.matches("HTTP \\d{3}\\b.*")) {
+            return mensagem.substring(0, 8);
+        }
+        return origem.getClass().getSimpleName();
+    }
+
+    void imprimirResumo() {
+        if (!contadores.isEmpty()) {
+            System.out.println("\n=== Contadores ===");
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(contadores).entrySet()) {
+                System.out.printf("%-28s %8d\n", entry.getKey(), entry.getValue().sum());
+            }
+        }
+        if (!temporizadores.isEmpty()) {
+            System.out.println("\n=== Tempos por Etapa ===");
+            System.out.printf("%-28s %8s %10s %10s %10s %10s %10s %10s\n",
+                "Etapa", "Vezes", "Total (s)", "Média (ms)", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Máx (ms)");
+            for (Map.Entry<String, Temporizador> entry : new TreeMap<>(temporizadores).entrySet()) {
+                Temporizador t = entry.getValue();
+                long vezes = t.contagem.sum();
+                System.out.printf("%-28s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f\n",
+                    entry.getKey(), vezes, t.total.sum() / 1e9, t.mediaMs(),
+                    t.percentilMs(0.50), t.percentilMs(0.90), t.percentilMs(0.99), t.maximo.get() / 1e6);
+            }
+        }
+        if (!falhas.isEmpty()) {
+            System.out.println("\n=== Falhas ===");
+            for (Map.Entry<String, Map<String, LongAdder>> etapa : new TreeMap<>(falhas).entrySet()) {
+                for (Map.Entry<String, LongAdder> causa : new TreeMap<>(etapa.getValue()).entrySet()) {
+                    System.out.printf("%-28s %-28s %8d\n", etapa.getKey(), causa.getKey(), causa.getValue().sum());
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava as métricas em JSON: contadores, tempos (com percentis e os baldes não vazios do
+     * histograma, pelo limite superior em microssegundos) e falhas por etapa e causa.
+     */
+    void gravar(Path arquivo, long duracaoNanos) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(arquivo), StandardCharsets.UTF_8))) {
+            out.write("{\n  \"duration_s\": " + formatar(duracaoNanos / 1e9) + ",\n  \"counters\": {");
+            String separador = "\n";
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(contadores).entrySet()) {
+                out.write(separador + "    " + texto(entry.getKey()) + ": " + entry.getValue().sum());
+                separador = ",\n";
+            }
+            out.write("\n  },\n  \"timers\": {");
+            separador = "\n";
+            for (Map.Entry<String, Temporizador> entry : new TreeMap<>(temporizadores).entrySet()) {
+                Temporizador t = entry.getValue();
+                out.write(separador + "    " + texto(entry.getKey()) + ": {\"count\": " + t.contagem.sum()
+                    + ", \"total_ms\": " + formatar(t.total.sum() / 1e6)
+                    + ", \"mean_ms\": " + formatar(t.mediaMs())
+                    + ", \"p50_ms\": " + formatar(t.percentilMs(0.50))
+                    + ", \"p90_ms\": " + formatar(t.percentilMs(0.90))
+                    + ", \"p99_ms\": " + formatar(t.percentilMs(0.99))
+                    + ", \"max_ms\": " + formatar(t.maximo.get() / 1e6)
+                    + ", \"histogram\": [");
+                String item = "";
+                for (int i = 0; i < t.baldes.length(); i++) {
+                    long vezes = t.baldes.get(i);
+                    if (vezes == 0) continue;
+                    out.write(item + "{\"le_us\": " + Temporizador.limiteMicros(i) + ", \"count\": " + vezes + "}");
+                    item = ", ";
+                }
+                out.write("]}");
+                separador = ",\n";
+            }
+            out.write("\n  },\n  \"failures\": {");
+            separador = "\n";
+            for (Map.Entry<String, Map<String, LongAdder>> etapa : new TreeMap<>(falhas).entrySet()) {
+                out.write(separador + "    " + texto(etapa.getKey()) + ": {");
+                String item = "";
+                for (Map.Entry<String, LongAdder> causa : new TreeMap<>(etapa.getValue()).entrySet()) {
+                    out.write(item + texto(causa.getKey()) + ": " + causa.getValue().sum());
+                    item = ", ";
+                }
+                out.write("}");
+                separador = ",\n";
+            }
+            out.write("\n  }\n}\n");
+        }
+    }
+
+    /**
+     * Todos os valores com nomes planos ("contador.X", "tempo.X.p99Ms", "falha.etapa.causa"),
+     * em ordem, para quem lê as métricas durante a execução (JMX).
+     */
+    SortedMap<String, Number> valores() {
+        SortedMap<String, Number> valores = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : contadores.entrySet()) {
+            valores.put("contador." + entry.getKey(), entry.getValue().sum());
+        }
+        for (Map.Entry<String, Temporizador> entry : temporizadores.entrySet()) {
+            String prefixo = "tempo." + entry.getKey() + ".";
+            Temporizador t = entry.getValue();
+            valores.put(prefixo + "vezes", t.contagem.sum());
+            valores.put(prefixo + "totalMs", t.total.sum() / 1e6);
+            valores.put(prefixo + "mediaMs", t.mediaMs());
+            valores.put(prefixo + "p50Ms", t.percentilMs(0.50));
+            valores.put(prefixo + "p90Ms", t.percentilMs(0.90));
+            valores.put(prefixo + "p99Ms", t.percentilMs(0.99));
+            valores.put(prefixo + "maxMs", t.maximo.get() / 1e6);
+        }
+        for (Map.Entry<String, Map<String, LongAdder>> etapa : falhas.entrySet()) {
+            for (Map.Entry<String, LongAdder> causa : etapa.getValue().entrySet()) {
+                valores.put("falha." + etapa.getKey() + "." + causa.getKey(), causa.getValue().sum());
+            }
+        }
+        return valores;
+    }
+
+    private static String formatar(double valor) {
+        return String.format(Locale.ROOT, "%.3f", valor);
+    }
+
+    private static String texto(String valor) {
+        StringBuilder sb = new StringBuilder(valor.length() + 2).append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static class Temporizador {
+        // Values below 16 us get one bucket each; above, 8 buckets per power of two up to ~2^40 us
+        private static final int EXATOS = 16;
+        private static final int POR_POTENCIA = 8;
+        private static final int BALDES = EXATOS + (40 - 4) * POR_POTENCIA;
+
+        final LongAdder contagem = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+        final AtomicLongArray baldes = new AtomicLongArray(BALDES);
+
+        void registrar(long nanos) {
+            contagem.increment();
+            total.add(nanos);
+            maximo.accumulate(nanos);
+            baldes.incrementAndGet(balde(Math.max(0, nanos / 1000)));
+        }
+
+        static int balde(long micros) {
+            if (micros < EXATOS) return (int) micros;
+            int expoente = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (expoente - 3)) & (POR_POTENCIA - 1);
+            return Math.min(BALDES - 1, EXATOS + (expoente - 4) * POR_POTENCIA + sub);
+        }
+
+        /**
+         * Maior valor, em microssegundos, que cai no balde.
+         */
+        static long limiteMicros(int balde) {
+            if (balde < EXATOS) return balde;
+            int expoente = 4 + (balde - EXATOS) / POR_POTENCIA;
+            int sub = (balde - EXATOS) % POR_POTENCIA;
+            return ((long) (POR_POTENCIA + sub + 1) << (expoente - 3)) - 1;
+        }
+
+        double mediaMs() {
+            long vezes = contagem.sum();
+            return vezes > 0 ? total.sum() / 1e6 / vezes : 0.0;
+        }
+
+        /**
+         * Percentil pelo histograma: o limite do balde que o contém, sem passar do máximo visto.
+         */
+        double percentilMs(double fracao) {
+            long vezes = 0;
+            long[] copia = new long[BALDES];
+            for (int i = 0; i < BALDES; i++) {
+                copia[i] = baldes.get(i);
+                vezes += copia[i];
+            }
+            if (vezes == 0) return 0.0;
+            long alvo = (long) Math.ceil(fracao * vezes);
+            long acumulado = 0;
+            for (int i = 0; i < BALDES; i++) {
+                acumulado += copia[i];
+                if (acumulado >= alvo) {
+                    return Math.min(limiteMicros(i) / 1e3, maximo.get() / 1e6);
+                }
+            }
+            return maximo.get() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package scraper;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * MetricasJmx expõe as {@link Metricas} como um MBean somente leitura ("scraper:type=Metricas"),
+ * para acompanhar uma execução longa pelo JConsole ou VisualVM. Os atributos são os nomes planos
+ * de {@link Metricas#valores()} e aparecem conforme as métricas são criadas.
+ */
+class MetricasJmx implements DynamicMBean {
+    static final String NOME = "scraper:type=Metricas";
+
+    private final Metricas metricas;
+    private ObjectName registrado;
+
+    MetricasJmx(Metricas metricas) {
+        this.metricas = metricas;
+    }
+
+    void registrar() throws JMException {
+        ObjectName nome = new ObjectName(NOME);
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        // A previous run in the same JVM may have left its bean behind
+        if (servidor.isRegistered(nome)) {
+            servidor.unregisterMBean(nome);
+        }
+        servidor.registerMBean(this, nome);
+        registrado = nome;
+    }
+
+    void remover() {
+        if (registrado == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registrado);
+        } catch (JMException e) {
+            System.err.println("Erro ao remover métricas do JMX: " + e.getMessage());
+        }
+        registrado = null;
+    }
+
+    @Override
+    public Object getAttribute(String nome) throws AttributeNotFoundException {
+        Number valor = metricas.valores().get(nome);
+        if (valor == null) {
+            throw new AttributeNotFoundException(nome);
+        }
+        return valor;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] nomes) {
+        SortedMap<String, Number> valores = metricas.valores();
+        AttributeList lista = new AttributeList();
+        for (String nome : nomes) {
+            Number valor = valores.get(nome);
+            if (valor != null) {
+                lista.add(new Attribute(nome, valor));
+            }
+        }
+        return lista;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Métricas são somente leitura: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String operacao, Object[] params, String[] assinatura) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(operacao));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        SortedMap<String, Number> valores = metricas.valores();
+        MBeanAttributeInfo[] atributos = new MBeanAttributeInfo[valores.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> entry : valores.entrySet()) {
+            atributos[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "Métricas do scraping", atributos, null, null, null);
+    }
+}
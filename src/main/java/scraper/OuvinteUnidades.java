@@ -0,0 +1,18 @@
+package scraper;
+
+import models.Unidade;
+
+import java.io.IOException;
+
+/**
+ * OuvinteUnidades recebe as unidades durante o scraping, assim que cada uma fica pronta,
+ * sempre na ordem do dropdown (a mesma de Scraper.unidades).
+ */
+public interface OuvinteUnidades {
+    /**
+     * Chamado uma vez, antes de qualquer unidade, com o total de unidades que serão entregues.
+     */
+    void iniciar(int totalUnidades) throws IOException;
+
+    void unidadeConcluida(Unidade unidade) throws IOException;
+}
@@ -1,426 +1,598 @@
 package scraper;
 
 import models.*;
-import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.support.ui.*;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import io.github.bonigarcia.wdm.WebDriverManager;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Scraper {
+    public static final String URL_PADRAO = "https://uspdigital.usp.br/jupiterweb/jupCarreira.jsp?codmnu=8275";
+    public static final String BACKEND_SELENIUM = "selenium";
+    public static final String BACKEND_HTTP = "http";
+    public static final int RETENTATIVAS_PADRAO = 5;
+    private static final long ESPERA_RETENTATIVA_BASE = TimeUnit.SECONDS.toNanos(1);
+    private static final long ESPERA_RETENTATIVA_MAXIMA = TimeUnit.SECONDS.toNanos(30);
+    // Breaker key for the unit list, which belongs to no unit
+    private static final String PAGINA_INICIAL = "página inicial";
+
     public List<Unidade> unidades = new ArrayList<>();
-    private WebDriver driver;
-    private WebDriverWait wait;
-    private final String baseUrl = "https://uspdigital.usp.br/jupiterweb/jupCarreira.jsp?codmnu=8275";
+    public final CatalogoDisciplinas catalogo = new CatalogoDisciplinas();
+    private final String backend;
+    private final String baseUrl;
+    private final int numeroSessoes;
+    private final BlockingQueue<Sessao> sessoesLivres = new LinkedBlockingQueue<>();
+    private final Metricas metricas = new Metricas();
+    private boolean reaproveitarNavegacao = true;
+    private CachePaginas cache;
+    private boolean atualizarCache;
+    private DiarioCheckpoint checkpoint;
+    private OuvinteUnidades ouvinte;
+    private boolean ouvinteFalhou;
+    private int proximaEntrega;
+    private String arquivoMetricas;
+    private boolean metricasJmx;
+    private int retentativas = RETENTATIVAS_PADRAO;
+    private ControleRitmo ritmo = new ControleRitmo(true);
+    private final Map<String, Disjuntor> disjuntores = new ConcurrentHashMap<>();
+
+    /**
+     * Uma requisição feita com uma sessão do pool.
+     */
+    private interface Chamada<T> {
+        T executar(Sessao sessao) throws Exception;
+    }
 
     public Scraper() {
-        WebDriverManager.chromedriver().setup();
-        driver = new ChromeDriver();
-        wait = new WebDriverWait(driver, java.time.Duration.ofSeconds(15));
+        this(1);
     }
 
-    public void start(int limiteUnidades) throws Exception {
-        System.out.println("Iniciando scraper com limite: " + limiteUnidades);
-        
-        driver.get(baseUrl);
-        System.out.println("Navegou para página USP: " + driver.getTitle());
-        
-        WebElement selectUnidade = wait.until(d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
-        System.out.println("Encontrado dropdown de unidades");
+    public Scraper(int numeroSessoes) {
+        this(numeroSessoes, URL_PADRAO);
+    }
 
-        List<WebElement> opcoesUnidades = new Select(selectUnidade).getOptions();
-        System.out.println("Encontradas " + opcoesUnidades.size() + " unidades disponíveis");
-        
-        // Extract unit names first to avoid stale element issues
-        List<String> unitNames = new ArrayList<>();
-        for (int i = 1; i < opcoesUnidades.size() && unitNames.size() < limiteUnidades; i++) {
-            unitNames.add(opcoesUnidades.get(i).getText());
+    public Scraper(int numeroSessoes, String baseUrl) {
+        this(BACKEND_SELENIUM, numeroSessoes, baseUrl);
+    }
+
+    public Scraper(String backend, int numeroSessoes, String baseUrl) {
+        if (!backend.equals(BACKEND_SELENIUM) && !backend.equals(BACKEND_HTTP)) {
+            throw new IllegalArgumentException("Backend desconhecido: " + backend);
         }
-        
-        for (int i = 0; i < unitNames.size(); i++) {
-            String nomeUnidade = unitNames.get(i);
-            System.out.println("\n=== Processando Unidade " + (i+1) + ": " + nomeUnidade + " ===");
-            
-            Unidade unidade = processUnidade(nomeUnidade);
-            unidades.add(unidade);
-            
-            System.out.println("Unidade concluída: " + nomeUnidade + " com " + unidade.cursos.size() + " cursos");
+        if (backend.equals(BACKEND_SELENIUM)) {
+            WebDriverManager.chromedriver().setup();
         }
+        this.backend = backend;
+        this.numeroSessoes = Math.max(1, numeroSessoes);
+        this.baseUrl = baseUrl;
+    }
 
-        System.out.println("\nProcessamento concluído. Total de unidades: " + unidades.size());
-        driver.quit();
+    /**
+     * Define se cada sessão deve manter a unidade carregada entre cursos (padrão) ou
+     * recarregar a página e selecionar a unidade novamente para cada curso.
+     */
+    public void setReaproveitarNavegacao(boolean reaproveitarNavegacao) {
+        this.reaproveitarNavegacao = reaproveitarNavegacao;
     }
 
-    private Unidade processUnidade(String nomeUnidade) {
-        Unidade unidade = new Unidade(nomeUnidade);
-        
-        try {
-            // Navigate to base page and select the unit
-            driver.get(baseUrl);
-            WebElement selectUnidade = wait.until(d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
-            
-            // Use text-based selection for consistency
-            Select unitSelect = new Select(selectUnidade);
+    /**
+     * Ativa o cache em disco das grades curriculares. Com atualizar=true as páginas
+     * são sempre buscadas de novo, mas o cache continua sendo regravado.
+     */
+    public void setCache(String diretorio, long validadeHoras, boolean atualizar) throws java.io.IOException {
+        this.cache = new CachePaginas(java.nio.file.Paths.get(diretorio), java.time.Duration.ofHours(validadeHoras));
+        this.atualizarCache = atualizar;
+    }
+
+    /**
+     * Registra cada curso concluído no arquivo de checkpoint e, se ele já existir,
+     * retoma a partir dos cursos e unidades que já estão nele.
+     */
+    public void setCheckpoint(String arquivo) throws java.io.IOException {
+        this.checkpoint = new DiarioCheckpoint(java.nio.file.Paths.get(arquivo));
+        if (checkpoint.totalCursos() > 0) {
+            System.out.println("Retomando do checkpoint: " + checkpoint.totalUnidadesConcluidas() +
+                " unidades concluídas, " + checkpoint.totalCursos() + " cursos");
+        }
+    }
+
+    /**
+     * Define quem recebe cada unidade assim que ela e as anteriores estiverem prontas,
+     * por exemplo para exportar os dados sem esperar o fim do scraping.
+     */
+    public void setOuvinteUnidades(OuvinteUnidades ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+
+    /**
+     * Se o ouvinte falhou na última execução: a partir da falha ele não recebeu mais unidades,
+     * embora todas estejam em {@link #unidades}.
+     */
+    public boolean entregaInterrompida() {
+        return ouvinteFalhou;
+    }
+
+    /**
+     * Grava as métricas da execução (contadores, tempos por etapa com percentis e falhas por
+     * causa) em JSON no arquivo dado ao final do scraping, mesmo se ele falhar.
+     */
+    public void setArquivoMetricas(String arquivo) {
+        this.arquivoMetricas = arquivo;
+    }
+
+    /**
+     * Publica as métricas como MBean ("scraper:type=Metricas") enquanto o scraping roda.
+     */
+    public void setMetricasJmx(boolean metricasJmx) {
+        this.metricasJmx = metricasJmx;
+    }
+
+    /**
+     * Quantas vezes uma listagem de cursos ou grade curricular que falhou é tentada de novo,
+     * com espera exponencial e aleatória entre as tentativas.
+     */
+    public void setRetentativas(int retentativas) {
+        this.retentativas = Math.max(0, retentativas);
+    }
+
+    /**
+     * Liga (padrão) ou desliga o espaçamento adaptativo das requisições (ControleRitmo).
+     */
+    public void setRitmoAdaptativo(boolean ativo) {
+        this.ritmo = new ControleRitmo(ativo);
+    }
+
+    public void start(int limiteUnidades) throws Exception {
+        System.out.println("Iniciando scraper com limite: " + limiteUnidades + " (" + numeroSessoes + " sessões, backend " + backend + ")");
+        long inicio = System.nanoTime();
+
+        List<Sessao> sessoes = new ArrayList<>();
+        ForkJoinPool pool = null;
+        MetricasJmx jmx = null;
+        if (metricasJmx) {
+            jmx = new MetricasJmx(metricas);
             try {
-                unitSelect.selectByVisibleText(nomeUnidade);
-            } catch (Exception e) {
-                // Fallback: try partial match
-                List<WebElement> unitOptions = unitSelect.getOptions();
-                boolean found = false;
-                for (WebElement option : unitOptions) {
-                    String optionText = option.getText().trim();
-                    if (optionText.isEmpty()) continue;
-                    
-                    if (optionText.equals(nomeUnidade) || 
-                        optionText.equals(nomeUnidade.trim()) ||
-                        (nomeUnidade.contains(optionText.split(" - ")[0]) && optionText.length() > 10) ||
-                        (optionText.contains(nomeUnidade.split(" - ")[0]) && nomeUnidade.split(" - ")[0].length() > 10)) {
-                        option.click();
-                        found = true;
-                        System.out.println("Unidade selecionada: '" + optionText + "'");
-                        break;
-                    }
-                }
-                if (!found) {
-                    throw new RuntimeException("Não foi possível encontrar unidade em processUnidade: " + nomeUnidade);
+                jmx.registrar();
+                System.out.println("Métricas disponíveis via JMX em " + MetricasJmx.NOME);
+            } catch (javax.management.JMException e) {
+                System.err.println("Erro ao publicar métricas via JMX: " + e.getMessage());
+                jmx = null;
+            }
+        }
+        try {
+            Sessao primeira = novaSessao();
+            sessoes.add(primeira);
+            sessoesLivres.add(primeira);
+            List<String> unitNames = comRetentativas(PAGINA_INICIAL, "listarUnidades", false, sessao -> sessao.listarUnidades(limiteUnidades));
+            proximaEntrega = 0;
+            ouvinteFalhou = false;
+            if (ouvinte != null) {
+                try {
+                    ouvinte.iniciar(unitNames.size());
+                } catch (Exception e) {
+                    System.err.println("Erro ao iniciar entrega de unidades: " + e.getMessage());
+                    ouvinteFalhou = true;
                 }
             }
-            
-            // Wait for courses to load
-            wait.until(d -> d.findElement(By.xpath("//select[@id='comboCurso']")));
-            Thread.sleep(1000); // Small delay for dropdown to populate
-            
-            WebElement selectCurso = driver.findElement(By.xpath("//select[@id='comboCurso']"));
-            List<WebElement> opcoesCurso = new Select(selectCurso).getOptions();
-            System.out.println("Encontrados " + opcoesCurso.size() + " cursos para esta unidade");
-            
-            // Extract course names first to avoid stale element issues
-            List<String> courseNames = new ArrayList<>();
-            for (int k = 1; k < opcoesCurso.size(); k++) { // Start from 1 to skip empty option
-                courseNames.add(opcoesCurso.get(k).getText());
+
+            // One session per worker; there is no point in more sessions than units
+            int total = Math.max(1, Math.min(numeroSessoes, unitNames.size()));
+            for (int i = 1; i < total; i++) {
+                Sessao sessao = novaSessao();
+                sessoes.add(sessao);
+                sessoesLivres.add(sessao);
             }
-            
-            // Process each course
-            for (int j = 0; j < courseNames.size(); j++) {
-                String courseName = courseNames.get(j);
-                System.out.println("\n--- Processando Curso " + (j+1) + ": " + courseName + " ---");
-                
+
+            // Units fork one task per course, so idle workers steal courses from busy units
+            pool = new ForkJoinPool(total);
+            Unidade[] resultados = new Unidade[unitNames.size()];
+            List<ForkJoinTask<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < unitNames.size(); i++) {
+                final int indice = i;
+                tarefas.add(pool.submit(() -> {
+                    String nomeUnidade = unitNames.get(indice);
+                    System.out.println("\n=== Processando Unidade " + (indice+1) + ": " + nomeUnidade + " ===");
+
+                    Unidade unidade = processUnidade(nomeUnidade);
+                    concluirUnidade(resultados, indice, unidade);
+
+                    System.out.println("Unidade concluída: " + nomeUnidade + " com " + unidade.cursos.size() + " cursos");
+                }));
+            }
+            for (ForkJoinTask<?> tarefa : tarefas) {
+                tarefa.join();
+            }
+
+            // Merge in the dropdown order regardless of completion order
+            unidades.addAll(Arrays.asList(resultados));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            sessoesLivres.clear();
+            for (Sessao sessao : sessoes) {
+                sessao.fechar();
+            }
+            if (checkpoint != null) {
+                checkpoint.fechar();
+            }
+            if (jmx != null) {
+                jmx.remover();
+            }
+            if (arquivoMetricas != null) {
                 try {
-                    Curso curso = processCourse(courseName, nomeUnidade);
-                    if (curso != null) {
-                        unidade.cursos.add(curso);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Erro processando curso " + courseName + ": " + e.getMessage());
-                    // Continue with next course
+                    metricas.gravar(java.nio.file.Paths.get(arquivoMetricas), System.nanoTime() - inicio);
+                } catch (java.io.IOException e) {
+                    System.err.println("Erro ao gravar métricas em " + arquivoMetricas + ": " + e.getMessage());
                 }
             }
-            
-        } catch (Exception e) {
-            System.err.println("Erro processando unidade " + nomeUnidade + ": " + e.getMessage());
         }
-        
-        return unidade;
+
+        System.out.println("\nProcessamento concluído. Total de unidades: " + unidades.size());
+        relatarVazao(System.nanoTime() - inicio, sessoes.size());
+        metricas.imprimirResumo();
+        if (arquivoMetricas != null) {
+            System.out.println("Métricas gravadas em: " + arquivoMetricas);
+        }
     }
-    
-    private Curso processCourse(String courseName, String unitName) {
-        try {
-            // Navigate back to base page and re-select unit and course
-            driver.get(baseUrl);
-            
-            // Select unit
-            WebElement selectUnidade = wait.until(d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
-            
-            // Wait for the dropdown to be properly populated
-            wait.until(d -> {
-                Select tempSelect = new Select(d.findElement(By.xpath("//select[@id='comboUnidade']")));
-                return tempSelect.getOptions().size() > 1; // More than just empty option
-            });
-            
-            Select unitSelect = new Select(selectUnidade);
+
+    private synchronized void concluirUnidade(Unidade[] resultados, int indice, Unidade unidade) {
+        resultados[indice] = unidade;
+        // Hand over every finished unit whose predecessors are finished too, keeping the dropdown order
+        while (proximaEntrega < resultados.length && resultados[proximaEntrega] != null) {
+            Unidade pronta = resultados[proximaEntrega++];
+            if (ouvinte == null || ouvinteFalhou) continue;
             try {
-                unitSelect.selectByVisibleText(unitName);
+                ouvinte.unidadeConcluida(pronta);
             } catch (Exception e) {
-                // Fallback: try partial match or trimmed text
-                List<WebElement> unitOptions = unitSelect.getOptions();
-                boolean found = false;
-                
-                if (unitOptions.size() <= 1) {
-                    // If dropdown is empty, wait a bit more and try to refresh
-                    Thread.sleep(2000);
-                    driver.navigate().refresh();
-                    Thread.sleep(1000);
-                    selectUnidade = wait.until(d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
-                    unitSelect = new Select(selectUnidade);
-                    unitOptions = unitSelect.getOptions();
-                }
-                
-                for (WebElement option : unitOptions) {
-                    String optionText = option.getText().trim();
-                    // Skip empty options and try various matching strategies
-                    if (optionText.isEmpty()) continue;
-                    
-                    if (optionText.equals(unitName) || 
-                        optionText.equals(unitName.trim()) ||
-                        (unitName.contains(optionText.split(" - ")[0]) && optionText.length() > 10) ||  // Match first part, avoid short matches
-                        (optionText.contains(unitName.split(" - ")[0]) && unitName.split(" - ")[0].length() > 10)) {
-                        option.click();
-                        found = true;
-                        System.out.println("Unidade selecionada por correspondência parcial: '" + optionText + "' para alvo: '" + unitName + "'");
-                        break;
-                    }
-                }
-                if (!found) {
-                    // Debug: print all available options
-                    System.err.println("Opções de unidade disponíveis:");
-                    for (WebElement option : unitOptions) {
-                        String optText = option.getText().trim();
-                        if (!optText.isEmpty()) {
-                            System.err.println("  - '" + optText + "'");
-                        }
-                    }
-                    throw new RuntimeException("Não foi possível encontrar unidade: " + unitName);
+                System.err.println("Erro ao entregar unidade " + pronta.nome + ": " + e.getMessage());
+                ouvinteFalhou = true;
+            }
+        }
+    }
+
+    private void relatarVazao(long nanos, int sessoesUsadas) {
+        int totalCursos = 0;
+        for (Unidade unidade : unidades) {
+            totalCursos += unidade.cursos.size();
+        }
+        double segundos = nanos / 1e9;
+        System.out.printf("Tempo total: %.1f s com %d sessão(ões) - %.2f cursos/min, %.2f unidades/min\n",
+            segundos, sessoesUsadas,
+            segundos > 0 ? totalCursos * 60 / segundos : 0.0,
+            segundos > 0 ? unidades.size() * 60 / segundos : 0.0);
+
+        long cursosNavegados = metricas.contagem("cursosNavegados");
+        if (cursosNavegados > 0) {
+            System.out.printf("Carregamentos de página: %d (%.2f por curso)\n",
+                metricas.contagem("carregamentosPagina"),
+                (double) metricas.contagem("carregamentosPagina") / cursosNavegados);
+        }
+        long falhasReaproveitamento = metricas.contagem("reaproveitamentoFalhou");
+        if (falhasReaproveitamento > 0) {
+            System.out.println("Navegação reaproveitada: " + metricas.contagem("navegacaoReaproveitada") +
+                " cursos, " + falhasReaproveitamento + " falhas, desligada em " +
+                metricas.contagem("reaproveitamentoDesligado") + " sessão(ões)");
+        }
+        if (cache != null) {
+            System.out.println("Cache de páginas: " + metricas.contagem("cacheAcertos") + " acertos, " +
+                metricas.contagem("cacheFalhas") + " falhas");
+        }
+        long cursosComFalha = metricas.falhas("curso");
+        if (cursosComFalha > 0) {
+            System.out.println("Cursos com falha: " + cursosComFalha + " (causas em \"Falhas\" abaixo)");
+        }
+        long totalRetentativas = metricas.contagem("retentativas");
+        if (totalRetentativas > 0 || ritmo.intervaloNanos() > 0) {
+            System.out.printf("Ritmo: intervalo final %.0f ms, latência média %.0f ms, %.0f%% de erros recentes; %d retentativas, %d aberturas de disjuntor\n",
+                ritmo.intervaloNanos() / 1e6, ritmo.latenciaMediaMs(), 100 * ritmo.taxaErros(),
+                totalRetentativas, metricas.contagem("disjuntorAberturas"));
+        }
+        System.out.println("Catálogo de disciplinas: " + catalogo.totalCodigos() + " códigos, " +
+            catalogo.totalInstancias() + " instâncias compartilhadas");
+    }
+
+    private Sessao novaSessao() {
+        return backend.equals(BACKEND_HTTP) ? new SessaoHttp(baseUrl, metricas) : new SessaoNavegador(baseUrl, metricas, reaproveitarNavegacao);
+    }
+
+    private Sessao adquirirSessao() throws InterruptedException {
+        return sessoesLivres.take();
+    }
+
+    /**
+     * Prefere uma sessão livre que já esteja com a unidade carregada, para que ela
+     * possa abrir o curso sem recarregar a página.
+     */
+    private Sessao adquirirSessao(String nomeUnidade) throws InterruptedException {
+        for (Sessao sessao : sessoesLivres) {
+            if (nomeUnidade.equals(sessao.unidadeCarregada()) && sessoesLivres.remove(sessao)) {
+                return sessao;
+            }
+        }
+        return adquirirSessao();
+    }
+
+    private void liberarSessao(Sessao sessao) {
+        sessoesLivres.add(sessao);
+    }
+
+    /**
+     * Faz a requisição com uma sessão livre, no ritmo do ControleRitmo e passando pelo disjuntor
+     * da unidade. Falhas passageiras são tentadas de novo até {@link #retentativas} vezes, com
+     * espera aleatória entre 0 e 1 s, 2 s, 4 s... (no máximo 30 s), sem segurar a sessão. Com
+     * {@code adiavel}, uma pausa do disjuntor sai como {@link Disjuntor.UnidadePausada} em vez
+     * de ser esperada aqui.
+     */
+    private <T> T comRetentativas(String nomeUnidade, String etapa, boolean adiavel, Chamada<T> chamada) throws Exception {
+        Disjuntor disjuntor = disjuntores.computeIfAbsent(nomeUnidade, Disjuntor::new);
+        for (int tentativa = 1; ; tentativa++) {
+            long espera;
+            while ((espera = disjuntor.permitir()) > 0) {
+                if (adiavel && disjuntor.pausaRestante() > 0) {
+                    throw disjuntor.pausada();
                 }
+                long inicio = System.nanoTime();
+                pausar(espera);
+                metricas.registrarTempo("esperaDisjuntor", System.nanoTime() - inicio);
             }
-            
-            // Wait for courses to load and select course
-            WebElement selectCurso = wait.until(d -> d.findElement(By.xpath("//select[@id='comboCurso']")));
-            Thread.sleep(1000); // Allow time for dropdown to populate
-            
-            // Select course by visible text instead of index for more reliability
-            Select cursoSelect = new Select(selectCurso);
+
+            Exception erro;
+            Sessao sessao = metricas.medir("esperaSessao", () -> adquirirSessao(nomeUnidade));
             try {
-                cursoSelect.selectByVisibleText(courseName);
-            } catch (Exception e) {
-                // Fallback: try partial match or trimmed text
-                List<WebElement> courseOptions = cursoSelect.getOptions();
-                boolean found = false;
-                for (WebElement option : courseOptions) {
-                    String optionText = option.getText();
-                    // Try exact match, trimmed match, or close match
-                    if (optionText.equals(courseName) || 
-                        optionText.trim().equals(courseName.trim()) ||
-                        optionText.contains(courseName.substring(0, Math.min(courseName.length(), 30)))) {  // First 30 chars match
-                        option.click();
-                        found = true;
-                        System.out.println("Curso selecionado por correspondência parcial: '" + optionText + "' para alvo: '" + courseName + "'");
-                        break;
-                    }
-                }
-                if (!found) {
-                    // Debug: print all available options
-                    System.err.println("Opções de curso disponíveis:");
-                    for (WebElement option : courseOptions) {
-                        System.err.println("  - '" + option.getText() + "'");
-                    }
-                    throw new RuntimeException("Não foi possível encontrar curso: " + courseName);
+                long esperaRitmo = ritmo.aguardarVez();
+                if (esperaRitmo > 0) {
+                    metricas.registrarTempo("esperaRitmo", esperaRitmo);
                 }
-            }
-            
-            // Submit the form
-            WebElement btn = wait.until(d -> d.findElement(By.id("enviar")));
-            btn.click();
-            
-            // Wait for course page to load and find the Grade Curricular tab
-            WebElement targetTab = wait.until(d -> {
+                long inicio = System.nanoTime();
                 try {
-                    return d.findElement(By.id("step4-tab"));
-                } catch (org.openqa.selenium.NoSuchElementException e) {
-                    // Fallback: try to find by text
-                    try {
-                        return d.findElement(By.xpath("//a[contains(text(), 'Grade') or contains(text(), 'Curricular')]"));
-                    } catch (org.openqa.selenium.NoSuchElementException e2) {
-                        return null;
+                    T resultado = chamada.executar(sessao);
+                    long duracao = System.nanoTime() - inicio;
+                    metricas.registrarTempo(etapa, duracao);
+                    ritmo.registrar(duracao, false);
+                    disjuntor.sucesso();
+                    return resultado;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    long duracao = System.nanoTime() - inicio;
+                    metricas.registrarTempo(etapa, duracao);
+                    metricas.registrarFalha("tentativa", e);
+                    ritmo.registrar(duracao, indicaSobrecarga(e));
+                    long pausa = disjuntor.falha();
+                    if (pausa > 0) {
+                        metricas.incrementar("disjuntorAberturas");
+                        System.err.printf("Disjuntor aberto para %s: falhas seguidas, nova tentativa em %d s\n",
+                            nomeUnidade, TimeUnit.NANOSECONDS.toSeconds(pausa));
                     }
+                    erro = e;
                 }
-            });
-            
-            if (targetTab != null) {
-                // Wait for any blocking overlays to disappear before clicking
-                wait.until(d -> {
-                    try {
-                        List<WebElement> overlays = d.findElements(By.cssSelector(".blockUI.blockOverlay"));
-                        return overlays.isEmpty() || overlays.stream().noneMatch(WebElement::isDisplayed);
-                    } catch (Exception e) {
-                        return true; // If we can't find overlays, assume they're gone
-                    }
-                });
-                
-                // Additional wait for the tab to be fully clickable
-                wait.until(ExpectedConditions.elementToBeClickable(targetTab));
-                
-                // Try clicking with JavaScript if regular click fails
-                try {
-                    targetTab.click();
-                } catch (ElementClickInterceptedException e) {
-                    System.out.println("Clique regular interceptado, tentando clique JavaScript...");
-                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", targetTab);
-                }
-                
-                System.out.println("Clicou na aba Grade Curricular");
-                
-                // Wait for tab content to load
-                Thread.sleep(2000);
-                
-                // Parse the course data
-                Document doc = Jsoup.parse(driver.getPageSource());
-                
-                return parseCurso(doc, courseName, unitName);
-            } else {
-                System.err.println("Não foi possível encontrar aba Grade Curricular para curso: " + courseName);
-                return null;
+            } finally {
+                liberarSessao(sessao);
             }
-            
-        } catch (Exception e) {
-            System.err.println("Erro em processCourse para " + courseName + ": " + e.getMessage());
-            return null;
+
+            if (tentativa > retentativas || !retentavel(erro)) {
+                throw erro;
+            }
+            metricas.incrementar("retentativas");
+            System.out.println("Tentando de novo (" + tentativa + "/" + retentativas + ") após falha: " + erro.getMessage());
+            long inicio = System.nanoTime();
+            pausar(ThreadLocalRandom.current().nextLong(
+                Math.min(ESPERA_RETENTATIVA_MAXIMA, ESPERA_RETENTATIVA_BASE << Math.min(tentativa - 1, 20)) + 1));
+            metricas.registrarTempo("esperaRetentativa", System.nanoTime() - inicio);
         }
     }
 
-    private Curso parseCurso(Document doc, String nomeCurso, String nomeUnidade) {
-        Curso curso = new Curso(nomeCurso, nomeUnidade);
-        
-        System.out.println("Analisando curso: " + nomeCurso);
-        
-        // Extract course duration from the text content
-        String pageText = doc.text();
-        if (pageText.contains("Duração Ideal:")) {
-            try {
-                String[] parts = pageText.split("Duração Ideal:");
-                if (parts.length > 1) {
-                    String afterIdeal = parts[1].split("Mínima:")[0].trim();
-                    curso.duracaoIdeal = afterIdeal.split("\\s+")[0] + " " + afterIdeal.split("\\s+")[1]; // e.g., "8 semestres"
-                }
-            } catch (Exception e) {
-                System.out.println("Error parsing duração ideal: " + e.getMessage());
-            }
+    /**
+     * Falhas que um ritmo mais lento pode evitar: recusas e indisponibilidade (429, 502, 503,
+     * 504), erros de rede e páginas que não carregaram a tempo.
+     */
+    private static boolean indicaSobrecarga(Exception erro) {
+        String causa = Metricas.causa(erro);
+        if (causa.startsWith("HTTP ")) {
+            return causa.equals("HTTP 429") || causa.equals("HTTP 502") || causa.equals("HTTP 503") || causa.equals("HTTP 504");
         }
-        
-        if (pageText.contains("Mínima:")) {
-            try {
-                String[] parts = pageText.split("Mínima:");
-                if (parts.length > 1) {
-                    String afterMin = parts[1].split("Máxima:")[0].trim();
-                    curso.duracaoMin = afterMin.split("\\s+")[0] + " " + afterMin.split("\\s+")[1];
-                }
-            } catch (Exception e) {
-                System.out.println("Erro analisando duração mínima: " + e.getMessage());
-            }
+        Throwable origem = erro;
+        while (origem.getCause() != null && origem.getCause() != origem) {
+            origem = origem.getCause();
         }
-        
-        if (pageText.contains("Máxima:")) {
-            try {
-                String[] parts = pageText.split("Máxima:");
-                if (parts.length > 1) {
-                    String afterMax = parts[1].split("\\s+")[2] + " " + parts[1].split("\\s+")[3]; // Skip first words
-                    curso.duracaoMax = afterMax;
+        return origem instanceof java.io.IOException || origem instanceof org.openqa.selenium.TimeoutException;
+    }
+
+    /**
+     * Respostas 4xx (exceto 408 e 429) não mudam tentando de novo; o resto pode ser passageiro.
+     */
+    private static boolean retentavel(Exception erro) {
+        if (erro instanceof Disjuntor.DisjuntorAberto) return false;
+        String causa = Metricas.causa(erro);
+        return !causa.startsWith("HTTP 4") || causa.equals("HTTP 408") || causa.equals("HTTP 429");
+    }
+
+    /**
+     * Dorme pelo tempo dado; dentro do pool, deixa que outra thread assuma o trabalho enquanto isso.
+     */
+    static void pausar(long nanos) throws InterruptedException {
+        long fim = System.nanoTime() + nanos;
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                long falta = fim - System.nanoTime();
+                if (falta > 0) {
+                    TimeUnit.NANOSECONDS.sleep(falta);
                 }
-            } catch (Exception e) {
-                System.out.println("Erro analisando duração máxima: " + e.getMessage());
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return fim - System.nanoTime() <= 0;
+            }
+        });
+    }
+
+    private Unidade processUnidade(String nomeUnidade) {
+        if (checkpoint != null) {
+            Unidade concluida = checkpoint.unidadeConcluida(nomeUnidade);
+            if (concluida != null) {
+                System.out.println("Unidade recuperada do checkpoint: " + nomeUnidade);
+                catalogo.registrar(concluida);
+                return concluida;
             }
         }
-        
-        System.out.println("Durações do curso extraídas com sucesso");
 
-        // Look for discipline tables with specific structure
-        Elements allTables = doc.select("table");
-        for (int i = 0; i < allTables.size(); i++) {
-            Element table = allTables.get(i);
-            Elements rows = table.select("tr");
-            
-            if (rows.size() < 3) continue; // Need at least title, header, and data rows
+        Unidade unidade = new Unidade(nomeUnidade);
+        
+        try {
+            List<String> courseNames = comRetentativas(nomeUnidade, "listarCursos", false, sessao -> sessao.listarCursos(nomeUnidade));
             
-            String firstRowText = rows.get(0).text();
+            // Process each course as its own task; results keep the dropdown order
+            Curso[] cursos = new Curso[courseNames.size()];
+            boolean[] adiados = new boolean[courseNames.size()];
+            AtomicBoolean interrompida = new AtomicBoolean();
+            List<RecursiveAction> tarefas = new ArrayList<>();
+            for (int j = 0; j < courseNames.size(); j++) {
+                tarefas.add(tarefaCurso(nomeUnidade, courseNames.get(j), j, cursos, adiados, interrompida));
+            }
+            ForkJoinTask.invokeAll(tarefas);
+
+            // Courses put off by the unit's breaker wait out the pause here, in the unit's own task
+            Disjuntor disjuntor = disjuntores.computeIfAbsent(nomeUnidade, Disjuntor::new);
+            for (tarefas.clear(); ; tarefas.clear()) {
+                for (int j = 0; j < adiados.length; j++) {
+                    if (!adiados[j]) continue;
+                    adiados[j] = false;
+                    tarefas.add(tarefaCurso(nomeUnidade, courseNames.get(j), j, cursos, adiados, interrompida));
+                }
+                if (tarefas.isEmpty() || interrompida.get()) break;
+                long inicio = System.nanoTime();
+                try {
+                    pausar(disjuntor.pausaRestante());
+                } catch (InterruptedException e) {
+                    interrompida.set(true);
+                    break;
+                }
+                metricas.registrarTempo("esperaDisjuntor", System.nanoTime() - inicio);
+                ForkJoinTask.invokeAll(tarefas);
+            }
+            if (interrompida.get()) {
+                // The run is being cancelled: keep the interrupt and leave the unit incomplete
+                Thread.currentThread().interrupt();
+                System.err.println("Unidade interrompida: " + nomeUnidade + "; os cursos restantes não foram processados");
+            }
             
-            List<Disciplina> targetList = null;
-            String categoryName = "";
+            boolean completa = true;
+            for (Curso curso : cursos) {
+                if (curso != null) {
+                    unidade.cursos.add(curso);
+                } else {
+                    completa = false;
+                }
+            }
+            // Courses share one Disciplina instance per code from here on
+            catalogo.registrar(unidade);
             
-            if (firstRowText.contains("Disciplinas Obrigatórias")) {
-                targetList = curso.obrigatorias;
-                categoryName = "OBRIGATÓRIAS";
-            } else if (firstRowText.contains("Disciplinas Optativas Eletivas")) {
-                targetList = curso.optativasEletivas;
-                categoryName = "ELETIVAS";
-            } else if (firstRowText.contains("Disciplinas Optativas Livres")) {
-                targetList = curso.optativasLivres;
-                categoryName = "OPTATIVAS_LIVRES";
+            // Only mark the unit as done when no course failed, so a restart retries the failures
+            if (completa && checkpoint != null) {
+                checkpoint.registrarUnidade(unidade);
             }
             
-            if (targetList != null) {
-                System.out.println("Processando disciplinas " + categoryName + "...");
+        } catch (Exception e) {
+            metricas.registrarFalha("unidade", e);
+            System.err.println("Erro processando unidade " + nomeUnidade + ": " + e.getMessage());
+        }
+        
+        return unidade;
+    }
+    
+    private RecursiveAction tarefaCurso(String nomeUnidade, String courseName, int indice, Curso[] cursos, boolean[] adiados,
+                                        AtomicBoolean interrompida) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                // Once one course of the unit was interrupted, the others are not started
+                if (interrompida.get()) return;
+                System.out.println("\n--- Processando Curso " + (indice+1) + ": " + courseName + " ---");
                 
-                // Check if second row looks like a header
-                boolean hasHeader = false;
-                if (rows.size() > 1) {
-                    String secondRowText = rows.get(1).text().toLowerCase();
-                    if (secondRowText.contains("créd") || secondRowText.contains("semestre") || 
-                        secondRowText.contains("aula") || secondRowText.contains("trabalho")) {
-                        hasHeader = true;
+                try {
+                    Curso salvo = checkpoint != null ? checkpoint.curso(nomeUnidade, courseName) : null;
+                    if (salvo != null) {
+                        cursos[indice] = salvo;
+                        return;
                     }
+                    cursos[indice] = processCourse(courseName, nomeUnidade);
+                } catch (Disjuntor.UnidadePausada e) {
+                    adiados[indice] = true;
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrompida.set(true);
+                    return;
+                } catch (RuntimeException e) {
+                    metricas.registrarFalha("curso", e);
+                    System.err.println("Erro processando curso " + courseName + ": " + e.getMessage());
+                    // Continue with next course
+                    return;
                 }
-                
-                int startRow = hasHeader ? 2 : 1; // Skip title and potentially header
-                
-                for (int rowIndex = startRow; rowIndex < rows.size(); rowIndex++) {
+
+                if (cursos[indice] != null && checkpoint != null) {
                     try {
-                        Elements cols = rows.get(rowIndex).select("td");
-                        
-                        if (cols.size() < 2) {
-                            continue; // Skip rows with insufficient columns
-                        }
-                        
-                        String codigo = cols.get(0).text().trim();
-                        String nome = cols.get(1).text().trim();
-                        
-                        if (!codigo.isEmpty() && !nome.isEmpty() && 
-                            !codigo.toLowerCase().contains("créd") && 
-                            !nome.toLowerCase().contains("créd")) {
-                            
-                            // Try to extract additional fields if available
-                            int creditosAula = 0, creditosTrabalho = 0, cargaHoraria = 0;
-                            
-                            try {
-                                if (cols.size() > 2) creditosAula = parseIntSafely(cols.get(2).text());
-                                if (cols.size() > 3) creditosTrabalho = parseIntSafely(cols.get(3).text());
-                                if (cols.size() > 4) cargaHoraria = parseIntSafely(cols.get(4).text());
-                            } catch (Exception e) {
-                                // Silently continue if additional fields can't be parsed
-                            }
-                            
-                            Disciplina disciplina = new Disciplina(codigo, nome);
-                            disciplina.creditosAula = creditosAula;
-                            disciplina.creditosTrabalho = creditosTrabalho;
-                            disciplina.cargaHoraria = cargaHoraria;
-                            
-                            targetList.add(disciplina);
-                        }
-                        
-                    } catch (Exception e) {
-                        // Continue processing other rows if one fails
-                        continue;
+                        checkpoint.registrarCurso(nomeUnidade, cursos[indice]);
+                    } catch (IOException e) {
+                        // The course is kept for this run; a restart just fetches it again
+                        metricas.registrarFalha("checkpoint", e);
+                        System.err.println("Erro gravando o checkpoint do curso " + courseName + ": " + e.getMessage());
                     }
                 }
-                
-                System.out.println("Encontradas " + targetList.size() + " disciplinas " + categoryName.toLowerCase());
             }
-        }
-        
-        System.out.println("Curso analisado com sucesso - Total de disciplinas: " + 
-                          (curso.obrigatorias.size() + curso.optativasEletivas.size() + curso.optativasLivres.size()));
-        
-        return curso;
+        };
     }
-    
-    private int parseIntSafely(String text) {
+
+    private Curso processCourse(String courseName, String unitName) throws Disjuntor.UnidadePausada, InterruptedException {
+        long inicio = System.nanoTime();
         try {
-            return Integer.parseInt(text.trim());
+            String html = cache != null && !atualizarCache ? metricas.medir("lerCache", () -> cache.ler(unitName, courseName)) : null;
+            if (html != null) {
+                metricas.incrementar("cacheAcertos");
+            } else {
+                if (cache != null) {
+                    metricas.incrementar("cacheFalhas");
+                }
+                html = comRetentativas(unitName, "carregarCurso", true, sessao -> sessao.carregarCurso(courseName, unitName));
+                if (html == null) {
+                    metricas.registrarFalha("curso", "GradeNaoEncontrada");
+                    return null;
+                }
+                if (cache != null) {
+                    String pagina = html;
+                    metricas.medir("gravarCache", () -> {
+                        cache.gravar(unitName, courseName, pagina);
+                        return null;
+                    });
+                }
+            }
+            
+            // Parse the course data
+            String pagina = html;
+            Document doc = metricas.medir("jsoupParse", () -> Jsoup.parse(pagina));
+            
+            Curso curso = metricas.medir("parseCurso", () -> parseCurso(doc, courseName, unitName));
+            metricas.registrarTempo("cursoTotal", System.nanoTime() - inicio);
+            return curso;
+            
+        } catch (Disjuntor.UnidadePausada | InterruptedException e) {
+            throw e;
         } catch (Exception e) {
-            return 0;
+            metricas.registrarFalha("curso", e);
+            System.err.println("Erro em processCourse para " + courseName + ": " + e.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    private Curso parseCurso(Document doc, String nomeCurso, String nomeUnidade) {
+        return ExtratorCurso.extrair(doc, nomeCurso, nomeUnidade);
+    }
+}
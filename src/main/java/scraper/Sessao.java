@@ -0,0 +1,28 @@
+package scraper;
+
+import java.util.List;
+
+/**
+ * Sessao representa uma forma de obter as páginas do JupiterWeb (navegador ou HTTP direto).
+ * Cada sessão é usada por uma única thread de cada vez.
+ */
+interface Sessao {
+    List<String> listarUnidades(int limiteUnidades) throws Exception;
+
+    List<String> listarCursos(String nomeUnidade) throws Exception;
+
+    /**
+     * Devolve o HTML da grade curricular do curso, ou null se a página não for encontrada.
+     */
+    String carregarCurso(String courseName, String unitName) throws Exception;
+
+    /**
+     * Unidade já selecionada na página carregada, usada para escolher a sessão que
+     * pode abrir o próximo curso sem recarregar a página. Null quando não há.
+     */
+    default String unidadeCarregada() {
+        return null;
+    }
+
+    void fechar();
+}
@@ -0,0 +1,146 @@
+package scraper;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SessaoHttp obtém as páginas do JupiterWeb com java.net.http.HttpClient, sem abrir um navegador.
+ * Usa as mesmas páginas que o formulário consulta: a lista de cursos da unidade
+ * (jupCursoLista) e a grade curricular de cada curso (listarGradeCurricular).
+ */
+class SessaoHttp implements Sessao {
+    private static final Pattern CHARSET = Pattern.compile("charset=[\"']?([\\w-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String raiz;
+    private final Metricas metricas;
+    private final Map<String, String> codigosUnidades = new HashMap<>();
+    private final Map<String, String> gradesCursos = new HashMap<>();
+
+    SessaoHttp(String baseUrl, Metricas metricas) {
+        this.baseUrl = baseUrl;
+        this.metricas = metricas;
+        this.raiz = baseUrl.substring(0, baseUrl.lastIndexOf('/') + 1);
+        this.client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build();
+    }
+
+    @Override
+    public List<String> listarUnidades(int limiteUnidades) throws Exception {
+        Document doc = Jsoup.parse(get(baseUrl), baseUrl);
+        System.out.println("Navegou para página USP: " + doc.title());
+
+        List<String> unitNames = new ArrayList<>();
+        for (Element option : doc.select("select#comboUnidade option")) {
+            String nome = option.text();
+            String codigo = option.attr("value").trim();
+            if (codigo.isEmpty()) continue; // Skip empty option
+            codigosUnidades.put(nome, codigo);
+            if (unitNames.size() < limiteUnidades) {
+                unitNames.add(nome);
+            }
+        }
+        System.out.println("Encontradas " + codigosUnidades.size() + " unidades disponíveis");
+        return unitNames;
+    }
+
+    @Override
+    public List<String> listarCursos(String nomeUnidade) throws Exception {
+        if (codigosUnidades.isEmpty()) {
+            listarUnidades(Integer.MAX_VALUE);
+        }
+        String codigo = codigosUnidades.get(nomeUnidade);
+        if (codigo == null) {
+            throw new RuntimeException("Não foi possível encontrar unidade: " + nomeUnidade);
+        }
+
+        String url = raiz + "jupCursoLista?codcg=" + URLEncoder.encode(codigo, StandardCharsets.UTF_8) + "&tipo=N";
+        Document doc = Jsoup.parse(get(url), url);
+
+        List<String> courseNames = new ArrayList<>();
+        for (Element link : doc.select("a[href*=listarGradeCurricular]")) {
+            String nome = link.text().trim();
+            if (nome.isEmpty()) continue;
+            // The list mirrors the page, repeated names included, like the browser's dropdown;
+            // a repeated name loads the first course with it, as selecting it by text would
+            gradesCursos.putIfAbsent(chave(nomeUnidade, nome), link.absUrl("href"));
+            courseNames.add(nome);
+        }
+        System.out.println("Encontrados " + courseNames.size() + " cursos para esta unidade");
+        return courseNames;
+    }
+
+    @Override
+    public String carregarCurso(String courseName, String unitName) throws Exception {
+        String url = gradesCursos.get(chave(unitName, courseName));
+        if (url == null) {
+            // The course list may have been fetched by another session
+            listarCursos(unitName);
+            url = gradesCursos.get(chave(unitName, courseName));
+        }
+        if (url == null) {
+            System.err.println("Não foi possível encontrar grade curricular para curso: " + courseName);
+            return null;
+        }
+        return get(url);
+    }
+
+    @Override
+    public void fechar() {
+        // HttpClient has no resources that need explicit release on Java 11
+    }
+
+    private String get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        metricas.incrementar("requisicoesHttp");
+        HttpResponse<byte[]> response = metricas.medir("requisicaoHttp",
+            () -> client.send(request, HttpResponse.BodyHandlers.ofByteArray()));
+        metricas.adicionar("bytesRecebidos", response.body().length);
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("HTTP " + response.statusCode() + " em " + url);
+        }
+        byte[] corpo = response.body();
+        return new String(corpo, detectarCharset(response.headers().firstValue("Content-Type").orElse(""), corpo));
+    }
+
+    private static Charset detectarCharset(String contentType, byte[] corpo) {
+        Matcher m = CHARSET.matcher(contentType);
+        if (!m.find()) {
+            // Fall back to the <meta> declaration near the top of the page
+            m = CHARSET.matcher(new String(corpo, 0, Math.min(corpo.length, 2048), StandardCharsets.ISO_8859_1));
+            if (!m.find()) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        try {
+            return Charset.forName(m.group(1));
+        } catch (Exception e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static String chave(String unidade, String curso) {
+        return unidade + "\u0000" + curso;
+    }
+}
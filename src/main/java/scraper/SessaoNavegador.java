@@ -0,0 +1,415 @@
+package scraper;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.support.ui.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * SessaoNavegador encapsula um ChromeDriver e a navegação pela interface JupiterWeb.
+ */
+class SessaoNavegador implements Sessao {
+    // How long the course dropdown must keep the same option count to be considered loaded
+    private static final long JANELA_ESTAVEL_MS = 300;
+    // A unit without courses never grows past the empty option; stop waiting after this
+    private static final long ESPERA_MAXIMA_CURSOS_MS = 3000;
+    // Consecutive failed reuses after which this session stops trying; each one costs a full wait
+    private static final int FALHAS_PARA_DESLIGAR_REAPROVEITAMENTO = 2;
+
+    private final WebDriver driver;
+    private final WebDriverWait wait;
+    private final String baseUrl;
+    private final Metricas metricas;
+    private boolean reaproveitarNavegacao;
+    private int falhasReaproveitamento;
+    // Unit currently selected in the loaded form, or null when the page state is unknown
+    private String unidadeCarregada;
+
+    SessaoNavegador(String baseUrl, Metricas metricas, boolean reaproveitarNavegacao) {
+        this.baseUrl = baseUrl;
+        this.metricas = metricas;
+        this.reaproveitarNavegacao = reaproveitarNavegacao;
+        driver = new ChromeDriver();
+        wait = new WebDriverWait(driver, java.time.Duration.ofSeconds(15));
+        wait.pollingEvery(java.time.Duration.ofMillis(100));
+        wait.ignoring(StaleElementReferenceException.class);
+    }
+
+    @Override
+    public List<String> listarUnidades(int limiteUnidades) {
+        navegar(baseUrl);
+        unidadeCarregada = null;
+        System.out.println("Navegou para página USP: " + driver.getTitle());
+
+        WebElement selectUnidade = esperar("comboUnidade", d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
+        System.out.println("Encontrado dropdown de unidades");
+
+        List<WebElement> opcoesUnidades = new Select(selectUnidade).getOptions();
+        System.out.println("Encontradas " + opcoesUnidades.size() + " unidades disponíveis");
+
+        // Extract unit names first to avoid stale element issues
+        List<String> unitNames = new ArrayList<>();
+        for (int i = 1; i < opcoesUnidades.size() && unitNames.size() < limiteUnidades; i++) {
+            unitNames.add(opcoesUnidades.get(i).getText());
+        }
+        return unitNames;
+    }
+
+    @Override
+    public List<String> listarCursos(String nomeUnidade) throws Exception {
+        // Navigate to base page and select the unit
+        navegar(baseUrl);
+        unidadeCarregada = null;
+        WebElement selectUnidade = esperar("comboUnidade", d -> d.findElement(By.xpath("//select[@id='comboUnidade']")));
+
+        // Use text-based selection for consistency
+        Select unitSelect = new Select(selectUnidade);
+        try {
+            unitSelect.selectByVisibleText(nomeUnidade);
+        } catch (Exception e) {
+            // Fallback: try partial match
+            List<WebElement> unitOptions = unitSelect.getOptions();
+            boolean found = false;
+            for (WebElement option : unitOptions) {
+                String optionText = option.getText().trim();
+                if (optionText.isEmpty()) continue;
+
+                if (optionText.equals(nomeUnidade) ||
+                    optionText.equals(nomeUnidade.trim()) ||
+                    (nomeUnidade.contains(optionText.split(" - ")[0]) && optionText.length() > 10) ||
+                    (optionText.contains(nomeUnidade.split(" - ")[0]) && nomeUnidade.split(" - ")[0].length() > 10)) {
+                    option.click();
+                    found = true;
+                    System.out.println("Unidade selecionada: '" + optionText + "'");
+                    break;
+                }
+            }
+            if (!found) {
+                throw new RuntimeException("Não foi possível encontrar unidade em processUnidade: " + nomeUnidade);
+            }
+        }
+
+        // Wait for courses to load
+        WebElement selectCurso = esperarCursosCarregados();
+        List<WebElement> opcoesCurso = new Select(selectCurso).getOptions();
+        System.out.println("Encontrados " + opcoesCurso.size() + " cursos para esta unidade");
+
+        // Extract course names first to avoid stale element issues
+        List<String> courseNames = new ArrayList<>();
+        for (int k = 1; k < opcoesCurso.size(); k++) { // Start from 1 to skip empty option
+            courseNames.add(opcoesCurso.get(k).getText());
+        }
+        unidadeCarregada = nomeUnidade;
+        return courseNames;
+    }
+
+    @Override
+    public String unidadeCarregada() {
+        return unidadeCarregada;
+    }
+
+    @Override
+    public String carregarCurso(String courseName, String unitName) throws Exception {
+        metricas.incrementar("cursosNavegados");
+
+        // Reuse the loaded unit context when possible, falling back to the full path
+        if (reaproveitarNavegacao && unitName.equals(unidadeCarregada) && voltarAoFormulario()) {
+            try {
+                String html = abrirCurso(courseName, true);
+                falhasReaproveitamento = 0;
+                metricas.incrementar("navegacaoReaproveitada");
+                return html;
+            } catch (Exception e) {
+                registrarFalhaReaproveitamento(e);
+            }
+        }
+
+        unidadeCarregada = null;
+        selecionarUnidade(unitName);
+        unidadeCarregada = unitName;
+        metricas.incrementar("navegacaoCompleta");
+        return abrirCurso(courseName, false);
+    }
+
+    /**
+     * Conta uma navegação reaproveitada que falhou. Depois de FALHAS_PARA_DESLIGAR_REAPROVEITAMENTO
+     * falhas seguidas a sessão passa a fazer sempre a navegação completa, para que uma página que
+     * não permite distinguir um curso do anterior não custe a espera inteira em todo curso.
+     */
+    private void registrarFalhaReaproveitamento(Exception e) {
+        metricas.incrementar("reaproveitamentoFalhou");
+        falhasReaproveitamento++;
+        if (falhasReaproveitamento >= FALHAS_PARA_DESLIGAR_REAPROVEITAMENTO) {
+            reaproveitarNavegacao = false;
+            metricas.incrementar("reaproveitamentoDesligado");
+            System.out.println("Reaproveitamento desligado nesta sessão após " + falhasReaproveitamento +
+                " falhas seguidas: " + e.getMessage());
+        } else {
+            System.out.println("Estado da sessão perdido, refazendo navegação completa: " + e.getMessage());
+        }
+    }
+
+    private void selecionarUnidade(String unitName) throws Exception {
+        // Navigate back to base page and re-select unit
+        navegar(baseUrl);
+
+        // Select unit, waiting for the dropdown to be properly populated
+        WebElement selectUnidade = esperarUnidadesCarregadas();
+
+        Select unitSelect = new Select(selectUnidade);
+        try {
+            unitSelect.selectByVisibleText(unitName);
+        } catch (Exception e) {
+            // Fallback: try partial match or trimmed text
+            List<WebElement> unitOptions = unitSelect.getOptions();
+            boolean found = false;
+
+            if (unitOptions.size() <= 1) {
+                // If dropdown is empty, refresh and wait for it to be populated again
+                metricas.incrementar("carregamentosPagina");
+                driver.navigate().refresh();
+                selectUnidade = esperarUnidadesCarregadas();
+                unitSelect = new Select(selectUnidade);
+                unitOptions = unitSelect.getOptions();
+            }
+
+            for (WebElement option : unitOptions) {
+                String optionText = option.getText().trim();
+                // Skip empty options and try various matching strategies
+                if (optionText.isEmpty()) continue;
+
+                if (optionText.equals(unitName) ||
+                    optionText.equals(unitName.trim()) ||
+                    (unitName.contains(optionText.split(" - ")[0]) && optionText.length() > 10) ||  // Match first part, avoid short matches
+                    (optionText.contains(unitName.split(" - ")[0]) && unitName.split(" - ")[0].length() > 10)) {
+                    option.click();
+                    found = true;
+                    System.out.println("Unidade selecionada por correspondência parcial: '" + optionText + "' para alvo: '" + unitName + "'");
+                    break;
+                }
+            }
+            if (!found) {
+                // Debug: print all available options
+                System.err.println("Opções de unidade disponíveis:");
+                for (WebElement option : unitOptions) {
+                    String optText = option.getText().trim();
+                    if (!optText.isEmpty()) {
+                        System.err.println("  - '" + optText + "'");
+                    }
+                }
+                throw new RuntimeException("Não foi possível encontrar unidade: " + unitName);
+            }
+        }
+    }
+
+    /**
+     * Seleciona o curso no formulário já carregado e devolve o HTML da grade curricular.
+     * Quando a página é reaproveitada, o conteúdo do curso anterior é marcado antes do envio
+     * para que só tabelas recém-renderizadas sejam aceitas.
+     */
+    private String abrirCurso(String courseName, boolean reaproveitado) throws Exception {
+        if (reaproveitado) {
+            ((JavascriptExecutor) driver).executeScript(
+                "document.querySelectorAll('table').forEach(function(t) { t.setAttribute('data-scraper-anterior', '1'); });");
+        }
+
+        // Wait for courses to load and select course
+        WebElement selectCurso = esperarCursosCarregados();
+
+        // Select course by visible text instead of index for more reliability
+        Select cursoSelect = new Select(selectCurso);
+        try {
+            cursoSelect.selectByVisibleText(courseName);
+        } catch (Exception e) {
+            // Fallback: try partial match or trimmed text
+            List<WebElement> courseOptions = cursoSelect.getOptions();
+            boolean found = false;
+            for (WebElement option : courseOptions) {
+                String optionText = option.getText();
+                // Try exact match, trimmed match, or close match
+                if (optionText.equals(courseName) ||
+                    optionText.trim().equals(courseName.trim()) ||
+                    optionText.contains(courseName.substring(0, Math.min(courseName.length(), 30)))) {  // First 30 chars match
+                    option.click();
+                    found = true;
+                    System.out.println("Curso selecionado por correspondência parcial: '" + optionText + "' para alvo: '" + courseName + "'");
+                    break;
+                }
+            }
+            if (!found) {
+                // Debug: print all available options
+                System.err.println("Opções de curso disponíveis:");
+                for (WebElement option : courseOptions) {
+                    System.err.println("  - '" + option.getText() + "'");
+                }
+                throw new RuntimeException("Não foi possível encontrar curso: " + courseName);
+            }
+        }
+
+        // Submit the form
+        WebElement btn = esperar("botaoEnviar", d -> d.findElement(By.id("enviar")));
+        btn.click();
+
+        // Wait for course page to load and find the Grade Curricular tab
+        WebElement targetTab = esperar("abaGradeCurricular", d -> {
+            try {
+                return d.findElement(By.id("step4-tab"));
+            } catch (org.openqa.selenium.NoSuchElementException e) {
+                // Fallback: try to find by text
+                try {
+                    return d.findElement(By.xpath("//a[contains(text(), 'Grade') or contains(text(), 'Curricular')]"));
+                } catch (org.openqa.selenium.NoSuchElementException e2) {
+                    return null;
+                }
+            }
+        });
+
+        if (targetTab == null) {
+            System.err.println("Não foi possível encontrar aba Grade Curricular para curso: " + courseName);
+            return null;
+        }
+
+        // Wait for any blocking overlays to disappear before clicking
+        esperar("overlayAntesDaAba", d -> semOverlay(d));
+
+        // Additional wait for the tab to be fully clickable
+        esperar("abaClicavel", ExpectedConditions.elementToBeClickable(targetTab));
+
+        // Try clicking with JavaScript if regular click fails
+        try {
+            targetTab.click();
+        } catch (ElementClickInterceptedException e) {
+            System.out.println("Clique regular interceptado, tentando clique JavaScript...");
+            ((JavascriptExecutor) driver).executeScript("arguments[0].click();", targetTab);
+        }
+
+        System.out.println("Clicou na aba Grade Curricular");
+
+        // Wait for tab content to load: overlay gone and discipline tables rendered
+        try {
+            esperar("tabelasDisciplinas", d -> semOverlay(d) &&
+                !d.findElements(By.xpath("//table[not(@data-scraper-anterior)][.//*[contains(text(), 'Disciplinas Obrigatórias') or " +
+                    "contains(text(), 'Disciplinas Optativas')]]")).isEmpty());
+        } catch (TimeoutException e) {
+            if (reaproveitado) {
+                // We cannot tell the new curriculum apart from the previous one
+                throw e;
+            }
+            // Some curricula have no discipline tables at all; parse whatever was rendered
+            System.out.println("Tabelas de disciplinas não apareceram, analisando página como está");
+        }
+
+        if (reaproveitado) {
+            ((JavascriptExecutor) driver).executeScript(
+                "document.querySelectorAll('[data-scraper-anterior]').forEach(function(t) { t.remove(); });");
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            return driver.getPageSource();
+        } finally {
+            metricas.registrarTempo("getPageSource", System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Volta para a aba de busca sem recarregar a página e confere se a unidade
+     * carregada continua selecionada. Devolve false se o estado foi perdido.
+     */
+    private boolean voltarAoFormulario() {
+        try {
+            List<WebElement> abaBusca = driver.findElements(By.id("step1-tab"));
+            if (!abaBusca.isEmpty() && abaBusca.get(0).isDisplayed()) {
+                esperar("overlayAntesDaBusca", d -> semOverlay(d));
+                try {
+                    abaBusca.get(0).click();
+                } catch (ElementClickInterceptedException e) {
+                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", abaBusca.get(0));
+                }
+            }
+            esperar("formularioVisivel", ExpectedConditions.visibilityOfElementLocated(By.id("comboCurso")));
+
+            Select unitSelect = new Select(driver.findElement(By.id("comboUnidade")));
+            String selecionada = unitSelect.getFirstSelectedOption().getText().trim();
+            return !selecionada.isEmpty() &&
+                (selecionada.equals(unidadeCarregada.trim()) ||
+                 unidadeCarregada.contains(selecionada.split(" - ")[0]) ||
+                 selecionada.contains(unidadeCarregada.split(" - ")[0]));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void navegar(String url) {
+        metricas.incrementar("carregamentosPagina");
+        long inicio = System.nanoTime();
+        try {
+            driver.get(url);
+        } finally {
+            metricas.registrarTempo("driverGet", System.nanoTime() - inicio);
+        }
+    }
+
+    private WebElement esperarUnidadesCarregadas() {
+        return esperar("comboUnidadePopulado", d -> {
+            WebElement select = d.findElement(By.xpath("//select[@id='comboUnidade']"));
+            return new Select(select).getOptions().size() > 1 ? select : null; // More than just empty option
+        });
+    }
+
+    /**
+     * Espera o dropdown de cursos terminar de ser preenchido: a quantidade de opções
+     * precisa ficar estável por JANELA_ESTAVEL_MS sem nenhum overlay visível.
+     */
+    private WebElement esperarCursosCarregados() {
+        long inicio = System.currentTimeMillis();
+        int[] ultimaContagem = {-1};
+        long[] desde = {inicio};
+        return esperar("comboCursoEstavel", d -> {
+            WebElement select = d.findElement(By.xpath("//select[@id='comboCurso']"));
+            int contagem = new Select(select).getOptions().size();
+            long agora = System.currentTimeMillis();
+            if (contagem != ultimaContagem[0]) {
+                ultimaContagem[0] = contagem;
+                desde[0] = agora;
+                return null;
+            }
+            boolean estavel = agora - desde[0] >= JANELA_ESTAVEL_MS;
+            boolean preenchido = contagem > 1 || agora - inicio >= ESPERA_MAXIMA_CURSOS_MS;
+            return estavel && preenchido && semOverlay(d) ? select : null;
+        });
+    }
+
+    private static boolean semOverlay(WebDriver d) {
+        try {
+            List<WebElement> overlays = d.findElements(By.cssSelector(".blockUI.blockOverlay"));
+            return overlays.isEmpty() || overlays.stream().noneMatch(WebElement::isDisplayed);
+        } catch (Exception e) {
+            return true; // If we can't find overlays, assume they're gone
+        }
+    }
+
+    private <T> T esperar(String nome, Function<? super WebDriver, T> condicao) {
+        long inicio = System.nanoTime();
+        try {
+            return wait.until(condicao);
+        } catch (TimeoutException e) {
+            // Some timeouts are recovered by the caller, but they still cost the full wait
+            metricas.registrarFalha("espera " + nome, e);
+            throw e;
+        } finally {
+            metricas.registrarTempo(nome, System.nanoTime() - inicio);
+        }
+    }
+
+    @Override
+    public void fechar() {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.err.println("Erro ao encerrar sessão do navegador: " + e.getMessage());
+        }
+    }
+}